@@ -0,0 +1,216 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+
+// Generates a synthetic JDO model of "benchmarkClasses" persistable classes, spread over packages of 50 classes.
+// Classes form inheritance trees of depth up to 3, every class has a 1-1 relation to a root class and every
+// fifth class also has a 1-N relation, so the enhancer and SchemaTool see realistic metadata dependencies.
+
+int classCount = Integer.parseInt(benchmarkClasses)
+if (classCount < 1)
+{
+    throw new IllegalArgumentException("benchmark.classes must be positive : " + benchmarkClasses)
+}
+
+File srcDir = new File(basedir, "src/main/java")
+srcDir.deleteDir()
+
+def packageOf = { int i -> "bench.p" + (i.intdiv(50)) }
+def isRoot = { int i -> i % 3 == 0 }
+def rootOf = { int i -> i - (i % 3) }
+
+List<String> classNames = []
+for (int i = 0; i < classCount; i++)
+{
+    String pkg = packageOf(i)
+    String name = "Entity" + i
+    classNames << pkg + "." + name
+
+    // Relations always target a root class, so they are valid whatever the model size
+    int target = rootOf((i * 7 + 1) % classCount)
+    String targetType = packageOf(target) + ".Entity" + target
+
+    StringBuilder src = new StringBuilder()
+    src << "package ${pkg};\n\n"
+    src << "import javax.jdo.annotations.*;\n\n"
+    src << "@PersistenceCapable\n"
+    if (isRoot(i))
+    {
+        src << "@Inheritance(strategy=InheritanceStrategy.NEW_TABLE)\n"
+        src << "public class ${name}\n{\n"
+        src << "    @PrimaryKey\n    @Persistent(valueStrategy=IdGeneratorStrategy.INCREMENT)\n    long id;\n\n"
+    }
+    else
+    {
+        int parent = i - 1
+        src << "public class ${name} extends ${packageOf(parent)}.Entity${parent}\n{\n"
+    }
+    src << "    String name${i};\n\n"
+    src << "    int counter${i};\n\n"
+    src << "    java.util.Date created${i};\n\n"
+    src << "    ${targetType} related${i};\n\n"
+    if (i % 5 == 0)
+    {
+        src << "    @Persistent\n    @Join\n    java.util.Set<${targetType}> relatedSet${i} = new java.util.HashSet<>();\n\n"
+    }
+    src << "    public String getName${i}()\n    {\n        return name${i};\n    }\n\n"
+    src << "    public void setName${i}(String name)\n    {\n        this.name${i} = name;\n    }\n"
+    src << "}\n"
+
+    File file = new File(srcDir, pkg.replace('.', '/') + "/" + name + ".java")
+    file.parentFile.mkdirs()
+    file.text = src.toString()
+}
+
+// persistence.xml, for runs with "benchmark.persistenceUnitName=benchmark"
+File puFile = new File(basedir, "src/main/resources/META-INF/persistence.xml")
+puFile.parentFile.mkdirs()
+StringBuilder pu = new StringBuilder()
+pu << '<?xml version="1.0" encoding="UTF-8"?>\n'
+pu << '<persistence xmlns="http://xmlns.jcp.org/xml/ns/persistence" version="2.1">\n'
+pu << '    <persistence-unit name="benchmark">\n'
+classNames.each { pu << "        <class>${it}</class>\n" }
+pu << '        <exclude-unlisted-classes>true</exclude-unlisted-classes>\n'
+pu << '        <properties>\n'
+pu << '            <property name="javax.jdo.option.ConnectionDriverName" value="org.h2.Driver"/>\n'
+pu << '            <property name="javax.jdo.option.ConnectionURL" value="jdbc:h2:mem:benchmark"/>\n'
+pu << '            <property name="javax.jdo.option.ConnectionUserName" value="sa"/>\n'
+pu << '        </properties>\n'
+pu << '    </persistence-unit>\n'
+pu << '</persistence>\n'
+puFile.text = pu.toString()
+
+// Record the start of the build, for use by record-metrics.groovy
+File startFile = new File(basedir, "benchmark-start.properties")
+Properties start = new Properties()
+start.setProperty("wallTime", String.valueOf(System.currentTimeMillis()))
+start.setProperty("childCpuTime", String.valueOf(childCpuTimeMillis()))
+startFile.withOutputStream { start.store(it, null) }
+
+// Monitor the peak RSS of the build processes for record-metrics.groovy, which runs in this JVM and stops the monitor.
+// VmHWM is only readable until a process is reaped, so the processes are polled.
+File proc = new File("/proc/self")
+if (proc.exists())
+{
+    long pid = Long.parseLong(proc.canonicalFile.name)
+    System.setProperty("benchmark.peakRssKb", "-1")
+    Thread monitor = new Thread({
+        long peakRss = -1
+        try
+        {
+            while (!Thread.currentThread().isInterrupted())
+            {
+                peakRss = descendantPeakRssKb(pid, peakRss)
+                System.setProperty("benchmark.peakRssKb", String.valueOf(peakRss))
+                Thread.sleep(100)
+            }
+        }
+        catch (InterruptedException e)
+        {
+            // Stopped by record-metrics.groovy
+        }
+    } as Runnable, "benchmark-rss-monitor")
+    monitor.daemon = true
+    monitor.start()
+}
+
+println "Generated benchmark model of ${classCount} classes"
+return true
+
+/**
+ * CPU time (millisecs) of the terminated child processes of this JVM, so that of the invoked Maven builds.
+ * Only available on Linux, returning -1 elsewhere.
+ */
+long childCpuTimeMillis()
+{
+    File stat = new File("/proc/self/stat")
+    if (!stat.exists())
+    {
+        return -1
+    }
+    String content = stat.text
+    // Fields after the command name (which may contain spaces) : cutime and cstime are fields 16 and 17
+    String[] fields = content.substring(content.lastIndexOf(')') + 2).trim().split("\\s+")
+    long ticks = Long.parseLong(fields[13]) + Long.parseLong(fields[14])
+    return ticks * 1000 / clockTicksPerSecond()
+}
+
+/**
+ * Clock ticks per second (USER_HZ) of the times in /proc, from "getconf CLK_TCK", else the usual 100.
+ */
+long clockTicksPerSecond()
+{
+    try
+    {
+        Process process = ["getconf", "CLK_TCK"].execute()
+        String output = process.text.trim()
+        if (process.waitFor() == 0 && output ==~ /\d+/ && Long.parseLong(output) > 0)
+        {
+            return Long.parseLong(output)
+        }
+    }
+    catch (IOException e)
+    {
+        // No getconf, so use the default
+    }
+    return 100
+}
+
+/**
+ * Peak resident set size (kB) of any one process descended from this JVM, so of the invoked Maven build and the
+ * tool JVMs that it forks, being the largest VmHWM read so far. Only available on Linux, returning -1 elsewhere.
+ */
+long descendantPeakRssKb(long pid, long peakRss)
+{
+    Map<Long, List<Long>> children = [:]
+    new File("/proc").eachFile { dir ->
+        if (dir.name ==~ /\d+/)
+        {
+            try
+            {
+                String stat = new File(dir, "stat").text
+                long ppid = Long.parseLong(stat.substring(stat.lastIndexOf(')') + 2).trim().split("\\s+")[1])
+                children.get(ppid, []) << Long.parseLong(dir.name)
+            }
+            catch (IOException | RuntimeException e)
+            {
+                // Process has exited
+            }
+        }
+    }
+
+    List<Long> pending = new ArrayList<>(children[pid] ?: [])
+    while (!pending.isEmpty())
+    {
+        long childPid = pending.remove(pending.size() - 1)
+        pending.addAll(children[childPid] ?: [])
+        try
+        {
+            new File("/proc/" + childPid + "/status").eachLine { line ->
+                if (line.startsWith("VmHWM:"))
+                {
+                    peakRss = Math.max(peakRss, Long.parseLong(line.substring(6).trim().split("\\s+")[0]))
+                }
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            // Process has exited
+        }
+    }
+    return peakRss
+}
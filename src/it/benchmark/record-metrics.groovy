@@ -0,0 +1,98 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+
+// Appends the metrics of the benchmark build to the CSV report "benchmarkReport", one row per run, so that runs
+// of different plugin versions and settings can be compared. Per-goal wall times are taken from the
+// "completed in" lines logged by the plugin.
+
+File startFile = new File(basedir, "benchmark-start.properties")
+Properties start = new Properties()
+startFile.withInputStream { start.load(it) }
+
+long wallTime = System.currentTimeMillis() - Long.parseLong(start.getProperty("wallTime"))
+long startCpu = Long.parseLong(start.getProperty("childCpuTime"))
+long endCpu = childCpuTimeMillis()
+long cpuTime = (startCpu >= 0 && endCpu >= 0) ? endCpu - startCpu : -1
+
+// Peak RSS of any one build process, from the monitor started by generate-model.groovy
+Thread.getAllStackTraces().keySet().findAll { it.name == "benchmark-rss-monitor" }.each { monitor ->
+    monitor.interrupt()
+    monitor.join()
+}
+long peakRss = Long.parseLong(System.getProperty("benchmark.peakRssKb", "-1"))
+System.clearProperty("benchmark.peakRssKb")
+
+Map<String, Long> goalTimes = [:]
+File buildLog = new File(basedir, "build.log")
+if (buildLog.exists())
+{
+    buildLog.eachLine { line ->
+        def matcher = line =~ /DataNucleus tool (\S+) completed in (\d+) ms/
+        if (matcher.find())
+        {
+            String tool = matcher.group(1).substring(matcher.group(1).lastIndexOf('.') + 1)
+            goalTimes[tool] = (goalTimes[tool] ?: 0L) + Long.parseLong(matcher.group(2))
+        }
+    }
+}
+
+File report = new File(benchmarkReport)
+report.parentFile.mkdirs()
+if (!report.exists())
+{
+    report << "timestamp,pluginVersion,classes,fork,useFileListFile,persistenceUnitName,buildWallMs,buildCpuMs,peakRssKb,enhancerWallMs,schemaToolWallMs\n"
+}
+report << [new Date().format("yyyy-MM-dd'T'HH:mm:ss"), pluginVersion, benchmarkClasses, benchmarkFork, benchmarkUseFileListFile,
+    benchmarkPersistenceUnitName, wallTime, cpuTime, peakRss, goalTimes["DataNucleusEnhancer"] ?: -1, goalTimes["SchemaTool"] ?: -1].join(",") + "\n"
+
+println "Benchmark : ${benchmarkClasses} classes, build ${wallTime} ms wall / ${cpuTime} ms CPU / ${peakRss} kB peak RSS, goals ${goalTimes}"
+return true
+
+long childCpuTimeMillis()
+{
+    File stat = new File("/proc/self/stat")
+    if (!stat.exists())
+    {
+        return -1
+    }
+    String content = stat.text
+    String[] fields = content.substring(content.lastIndexOf(')') + 2).trim().split("\\s+")
+    long ticks = Long.parseLong(fields[13]) + Long.parseLong(fields[14])
+    return ticks * 1000 / clockTicksPerSecond()
+}
+
+/**
+ * Clock ticks per second (USER_HZ) of the times in /proc, from "getconf CLK_TCK", else the usual 100.
+ */
+long clockTicksPerSecond()
+{
+    try
+    {
+        Process process = ["getconf", "CLK_TCK"].execute()
+        String output = process.text.trim()
+        if (process.waitFor() == 0 && output ==~ /\d+/ && Long.parseLong(output) > 0)
+        {
+            return Long.parseLong(output)
+        }
+    }
+    catch (IOException e)
+    {
+        // No getconf, so use the default
+    }
+    return 100
+}
@@ -18,6 +18,7 @@ Contributors:
 **********************************************************************/
 package org.datanucleus.maven;
 
+import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.codehaus.plexus.util.FileUtils;
@@ -25,21 +26,51 @@ import org.codehaus.plexus.util.cli.CommandLineException;
 import org.codehaus.plexus.util.cli.CommandLineUtils;
 import org.codehaus.plexus.util.cli.Commandline;
 
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.Writer;
 import java.lang.reflect.Method;
 import java.net.MalformedURLException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Convenience base class for DataNucleus Mojo extensions.
  */
 public abstract class AbstractDataNucleusMojo extends AbstractMojo
 {
+    /** Order of files by path, independent of the platform's file name case sensitivity and separator. */
+    private static final Comparator<File> PATH_ORDER = new Comparator<File>()
+    {
+        public int compare(File f1, File f2)
+        {
+            return f1.getPath().replace(File.separatorChar, '/').compareTo(f2.getPath().replace(File.separatorChar, '/'));
+        }
+    };
+
     /**
      * @parameter property="metadataDirectory" default-value="${project.build.outputDirectory}"
      * @required
@@ -56,6 +87,27 @@ public abstract class AbstractDataNucleusMojo extends AbstractMojo
      */
     protected String metadataExcludes;
 
+    /**
+     * Input directories to process in place of "metadataDirectory", each with its own includes, excludes and
+     * (for the enhancer) output directory. The directories are scanned concurrently, and processed in a single run of
+     * the tool (for the enhancer, one run per output directory).
+     * @parameter
+     */
+    protected List metadataDirectories;
+
+    /**
+     * Whether to persist the result of scanning the metadata directory, so that subsequent scans only list
+     * directories that have been modified since.
+     * @parameter property="useScanIndex" default-value="false"
+     */
+    protected boolean useScanIndex;
+
+    /**
+     * Directory for any working files of the plugin (scan indexes etc).
+     * @parameter property="workDirectory" default-value="${project.build.directory}/datanucleus"
+     */
+    protected File workDirectory;
+
     /**
      * @parameter property="ignoreMetaDataForMissingClasses" default-value="false"
      */
@@ -92,6 +144,39 @@ public abstract class AbstractDataNucleusMojo extends AbstractMojo
      */
     protected boolean fork;
 
+    /**
+     * Whether, when forking, to start the tool JVM before scanning the metadata directory, and stream the input files
+     * to it as they are found, so that the JVM startup overlaps the scan.
+     * @parameter property="pipelineFork" default-value="false"
+     */
+    protected boolean pipelineFork;
+
+    /**
+     * Whether, when forking, to profile the resource usage of the tool JVM (CPU time, peak resident set size, GC),
+     * logging a summary and appending it to "fork-profile.csv" in the work directory.
+     * @parameter property="profileFork" default-value="false"
+     */
+    protected boolean profileFork;
+
+    /**
+     * Maximum number of DataNucleus tools (forked JVMs or in-JVM invocations) to run at the same time across all
+     * executions of the plugin in the build, such as the modules of a parallel build. 0 means half the number of
+     * available processors, and -1 means no limit. Several runs in one tool process (such as "tenantSchemas") count
+     * as one tool.
+     * @parameter property="maxConcurrentTools" default-value="0"
+     */
+    protected int maxConcurrentTools;
+
+    /**
+     * Whether to trim the project CLASSPATH of the tool to any DataNucleus, persistence API, metadata and JDBC driver
+     * jars, and the jars providing classes reachable from the classes of those jars and of the project directories, or
+     * implementations of reachable services. A class that DataNucleus only loads by a name in the configuration, and
+     * that no class of a DataNucleus plugin references, is not found, so trimming is then to be disabled. The
+     * trimmed CLASSPATH is cached in the work directory until a CLASSPATH entry or a class changes.
+     * @parameter property="trimClasspath" default-value="false"
+     */
+    protected boolean trimClasspath;
+
     /**
      * @parameter property="persistenceUnitName" default-value=""
      */
@@ -102,6 +187,18 @@ public abstract class AbstractDataNucleusMojo extends AbstractMojo
      */
     protected String api;
 
+    /** Standard input for the forked tool JVM, providing the input files, when pipelining. */
+    private InputStream pipelineInput;
+
+    /** File list written by the scan of the metadata directory, providing the input files, when streaming the scan. */
+    private File scannedFileListFile;
+
+    /** Whether the persistence-unit has been resolved into the input files, so the tool is not given the unit name. */
+    private boolean persistenceUnitResolved;
+
+    /** Output directory of the current run of the tool, when processing "metadataDirectories". */
+    private File runOutputDirectory;
+
     abstract List getClasspathElements();
 
     /**
@@ -110,22 +207,271 @@ public abstract class AbstractDataNucleusMojo extends AbstractMojo
      */
     public void execute() throws MojoExecutionException
     {
-        if (!metadataDirectory.exists())
+        if (!isUsingMetadataDirectories() && !metadataDirectory.exists())
         {
             getLog().warn("No files to run DataNucleus tool '" + getToolName() + "'" +
                 " since specified metadata directory '" + metadataDirectory.getAbsolutePath() + "' is not available.");
         	return;
         }
 
-        List files = findMetadataFiles();
-        if (files.isEmpty())
+        if (isUsingMetadataDirectories() && !isUsingPersistenceUnit())
         {
-            getLog().warn("No files to run DataNucleus tool '" + getToolName() + "'");
+            executeForMetadataDirectories();
+            return;
+        }
+
+        if (fork && pipelineFork && !isUsingPersistenceUnit())
+        {
+            executePipelined();
             return;
         }
 
+        if (!isUsingPersistenceUnit())
+        {
+            File fileListFile = getFileListFileForScan();
+            if (fileListFile != null)
+            {
+                executeWithScannedFileList(fileListFile);
+                return;
+            }
+        }
+
+        List files;
+        if (isUsingPersistenceUnit())
+        {
+            // The persistence-unit defines the input, so no need to scan the metadata directory
+            files = findPersistenceUnitFiles();
+            if (files != null)
+            {
+                persistenceUnitResolved = true;
+                for (Iterator it = files.iterator(); it.hasNext();)
+                {
+                    if (!acceptMetadataFile((File) it.next()))
+                    {
+                        it.remove();
+                    }
+                }
+                if (files.isEmpty())
+                {
+                    getLog().info("No files of persistence-unit '" + persistenceUnitName + "' need DataNucleus tool '" + getToolName() + "'");
+                    return;
+                }
+            }
+            else
+            {
+                files = new ArrayList();
+            }
+        }
+        else
+        {
+            files = findMetadataFiles();
+            if (files.isEmpty())
+            {
+                getLog().warn("No files to run DataNucleus tool '" + getToolName() + "'");
+                return;
+            }
+        }
+
         getLog().debug("Metadata Directory is : " + metadataDirectory.getAbsolutePath());
 
+        try
+        {
+            long startTime = System.currentTimeMillis();
+            executeDataNucleusTool(pluginArtifacts, files);
+            getLog().info("DataNucleus tool " + getToolName() + " completed in " + (System.currentTimeMillis() - startTime) + " ms");
+        }
+        catch (CommandLineException e)
+        {
+            throw new MojoExecutionException("Error while executing the DataNucleus tool '" + getToolName() + "'.", e);
+        }
+    }
+
+    /**
+     * Method to execute the tool for the input files of the "metadataDirectories", scanned concurrently. The tool is run
+     * once for all files, or once per output directory where the tool supports them.
+     * @throws MojoExecutionException If an error occurs in execution
+     */
+    protected void executeForMetadataDirectories() throws MojoExecutionException
+    {
+        List<List> dirFiles = scanMetadataDirectories();
+
+        Map<File, List> filesByOutputDir = new LinkedHashMap<>();
+        int numFiles = 0;
+        for (int i = 0; i < dirFiles.size(); i++)
+        {
+            MetadataDirectory dir = (MetadataDirectory) metadataDirectories.get(i);
+            File outputDir = supportsOutputDirectory() ? dir.getOutputDirectory() : null;
+            List files = filesByOutputDir.get(outputDir);
+            if (files == null)
+            {
+                files = new ArrayList();
+                filesByOutputDir.put(outputDir, files);
+            }
+            files.addAll(dirFiles.get(i));
+            numFiles += dirFiles.get(i).size();
+        }
+        if (numFiles == 0)
+        {
+            getLog().warn("No files to run DataNucleus tool '" + getToolName() + "'");
+            return;
+        }
+
+        getLog().debug("Metadata Directories are : " + metadataDirectories);
+
+        try
+        {
+            long startTime = System.currentTimeMillis();
+            for (Map.Entry<File, List> entry : filesByOutputDir.entrySet())
+            {
+                if (entry.getValue().isEmpty())
+                {
+                    continue;
+                }
+                runOutputDirectory = entry.getKey();
+                try
+                {
+                    executeDataNucleusTool(pluginArtifacts, entry.getValue());
+                }
+                finally
+                {
+                    runOutputDirectory = null;
+                }
+            }
+            getLog().info("DataNucleus tool " + getToolName() + " completed in " + (System.currentTimeMillis() - startTime) + " ms");
+        }
+        catch (CommandLineException e)
+        {
+            throw new MojoExecutionException("Error while executing the DataNucleus tool '" + getToolName() + "'.", e);
+        }
+    }
+
+    /**
+     * Method to execute the tool with the metadata directory scanned straight into a file list, so that the input
+     * files are never held in memory. The tool is passed an empty list of input files, and takes them from the file
+     * list (see {@link #getScannedFileListFile()}).
+     * @param fileListFile The file list to write
+     * @throws MojoExecutionException If an error occurs in execution
+     */
+    protected void executeWithScannedFileList(File fileListFile) throws MojoExecutionException
+    {
+        getLog().debug("Metadata Directory is : " + metadataDirectory.getAbsolutePath() + " (written to " + fileListFile + " as scanned)");
+
+        final int[] numFiles = new int[1];
+        fileListFile.getParentFile().mkdirs();
+        try (final Writer scanOutput = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fileListFile), "UTF-8")))
+        {
+            MetadataScanner scanner = new MetadataScanner(metadataDirectory, metadataIncludes, metadataExcludes);
+            scanner.scan(useScanIndex ? new File(workDirectory, scanner.getIndexFileName()) : null,
+                new MetadataScanner.FileHandler()
+                {
+                    public void fileFound(File file) throws IOException
+                    {
+                        if (acceptMetadataFile(file))
+                        {
+                            numFiles[0]++;
+                            scanOutput.write(file.getAbsolutePath());
+                            scanOutput.write('\n');
+                        }
+                    }
+                });
+        }
+        catch (IOException e)
+        {
+            fileListFile.delete();
+            throw new MojoExecutionException("Error while scanning for metadata files in '"
+                + metadataDirectory.getAbsolutePath() + "'.", e);
+        }
+
+        try
+        {
+            if (numFiles[0] == 0)
+            {
+                getLog().warn("No files to run DataNucleus tool '" + getToolName() + "'");
+                return;
+            }
+
+            getLog().debug("Scan of metadata directory found " + numFiles[0] + " files");
+            scannedFileListFile = fileListFile;
+            long startTime = System.currentTimeMillis();
+            executeDataNucleusTool(pluginArtifacts, new ArrayList());
+            getLog().info("DataNucleus tool " + getToolName() + " completed in " + (System.currentTimeMillis() - startTime) + " ms");
+        }
+        catch (CommandLineException e)
+        {
+            throw new MojoExecutionException("Error while executing the DataNucleus tool '" + getToolName() + "'.", e);
+        }
+        finally
+        {
+            scannedFileListFile = null;
+            if (fileListFile.exists() && !fileListFile.delete())
+            {
+                getLog().debug("Unable to delete file list " + fileListFile);
+            }
+        }
+    }
+
+    /**
+     * Method to execute the tool in a forked JVM that is started straight away, with the metadata directory scanned
+     * concurrently and each input file streamed to the tool JVM as it is found.
+     * @throws MojoExecutionException If an error occurs in execution
+     */
+    protected void executePipelined() throws MojoExecutionException
+    {
+        getLog().debug("Metadata Directory is : " + metadataDirectory.getAbsolutePath() + " (streamed to the tool as scanned)");
+
+        final List files = Collections.synchronizedList(new ArrayList());
+        final IOException[] scanError = new IOException[1];
+        Thread scanThread;
+        try
+        {
+            pipelineInput = new PipedInputStream(65536);
+            final Writer scanOutput = new BufferedWriter(new OutputStreamWriter(new PipedOutputStream((PipedInputStream) pipelineInput), "UTF-8"));
+            scanThread = new Thread("DataNucleus metadata scanner")
+            {
+                public void run()
+                {
+                    try
+                    {
+                        MetadataScanner scanner = new MetadataScanner(metadataDirectory, metadataIncludes, metadataExcludes);
+                        scanner.scan(useScanIndex ? new File(workDirectory, scanner.getIndexFileName()) : null,
+                            new MetadataScanner.FileHandler()
+                            {
+                                public void fileFound(File file) throws IOException
+                                {
+                                    if (acceptMetadataFile(file))
+                                    {
+                                        files.add(file);
+                                        scanOutput.write(file.getAbsolutePath());
+                                        scanOutput.write('\n');
+                                    }
+                                }
+                            });
+                    }
+                    catch (IOException e)
+                    {
+                        scanError[0] = e;
+                    }
+                    finally
+                    {
+                        try
+                        {
+                            scanOutput.close();
+                        }
+                        catch (IOException e)
+                        {
+                            // Tool JVM has stopped reading, so the failure is reported from its execution
+                        }
+                    }
+                }
+            };
+        }
+        catch (IOException e)
+        {
+            throw new MojoExecutionException("Error creating input stream for the DataNucleus tool '" + getToolName() + "'.", e);
+        }
+
+        long startTime = System.currentTimeMillis();
+        scanThread.start();
         try
         {
             executeDataNucleusTool(pluginArtifacts, files);
@@ -134,6 +480,170 @@ public abstract class AbstractDataNucleusMojo extends AbstractMojo
         {
             throw new MojoExecutionException("Error while executing the DataNucleus tool '" + getToolName() + "'.", e);
         }
+        finally
+        {
+            try
+            {
+                // Unblock the scanner if the tool stopped reading before the end
+                pipelineInput.close();
+                scanThread.join();
+            }
+            catch (IOException | InterruptedException e)
+            {
+                getLog().debug("Error ending the metadata scan : " + e);
+            }
+            pipelineInput = null;
+        }
+
+        if (scanError[0] != null)
+        {
+            throw new MojoExecutionException("Error while scanning for metadata files in '"
+                + metadataDirectory.getAbsolutePath() + "'.", scanError[0]);
+        }
+        if (files.isEmpty())
+        {
+            getLog().warn("No files to run DataNucleus tool '" + getToolName() + "'");
+        }
+        getLog().info("DataNucleus tool " + getToolName() + " completed in " + (System.currentTimeMillis() - startTime) + " ms");
+    }
+
+    /**
+     * Whether the tool is being run for a persistence-unit, rather than for the input files.
+     * @return Whether a persistence-unit is specified
+     */
+    protected boolean isUsingPersistenceUnit()
+    {
+        return persistenceUnitName != null && persistenceUnitName.trim().length() > 0;
+    }
+
+    /**
+     * Whether the input directories are specified by "metadataDirectories".
+     * @return Whether using several input directories
+     */
+    protected boolean isUsingMetadataDirectories()
+    {
+        return metadataDirectories != null && !metadataDirectories.isEmpty();
+    }
+
+    /**
+     * Whether the tool supports writing its output for each input directory to the output directory of that input
+     * directory, so the input directories are grouped by output directory.
+     * @return Whether output directories are supported
+     */
+    protected boolean supportsOutputDirectory()
+    {
+        return false;
+    }
+
+    /**
+     * Accessor for the output directory of the current run of the tool, when processing "metadataDirectories".
+     * @return The output directory, or null if not specified for the input directories being processed
+     */
+    protected File getRunOutputDirectory()
+    {
+        return runOutputDirectory;
+    }
+
+    /**
+     * Accessor for the path of an input file relative to its input directory.
+     * @param file The input file
+     * @return The relative path, or null if the file is not in an input directory
+     */
+    protected String getInputRelativePath(File file)
+    {
+        String path = file.getAbsolutePath();
+        List<File> dirs = new ArrayList<>();
+        dirs.add(metadataDirectory);
+        if (isUsingMetadataDirectories())
+        {
+            for (Iterator it = metadataDirectories.iterator(); it.hasNext();)
+            {
+                dirs.add(((MetadataDirectory) it.next()).getDirectory());
+            }
+        }
+        for (File dir : dirs)
+        {
+            String dirPath = dir.getAbsolutePath() + File.separator;
+            if (path.startsWith(dirPath))
+            {
+                return path.substring(dirPath.length());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether the tool is to be given the name of the persistence-unit, and so load the unit itself, rather than
+     * being given the input files of the unit.
+     * @return Whether the tool is run for the persistence-unit name
+     */
+    protected boolean isRunForPersistenceUnit()
+    {
+        return isUsingPersistenceUnit() && !persistenceUnitResolved;
+    }
+
+    /**
+     * Method to find the input files of the persistence-unit, so that the tool can be run for those files rather
+     * than for the unit name. Extensions can override this where the tool needs only the input files.
+     * @return The input files, or null if the tool is to be run for the persistence-unit name
+     * @throws MojoExecutionException If an error occurs reading the persistence-unit
+     */
+    protected List findPersistenceUnitFiles() throws MojoExecutionException
+    {
+        return null;
+    }
+
+    /**
+     * Method to find the definition of the persistence-unit, searching the <i>META-INF/persistence.xml</i> of the
+     * metadata directory and then of the CLASSPATH elements.
+     * @return The persistence-unit, or null if not found
+     * @throws MojoExecutionException If an error occurs reading a persistence.xml
+     */
+    PersistenceUnitReader.PersistenceUnit findPersistenceUnit() throws MojoExecutionException
+    {
+        List<File> roots = new ArrayList<>();
+        for (Iterator it = getUniqueClasspathElements().iterator(); it.hasNext();)
+        {
+            roots.add(new File((String) it.next()));
+        }
+        try
+        {
+            return PersistenceUnitReader.find(persistenceUnitName.trim(), roots);
+        }
+        catch (IOException e)
+        {
+            throw new MojoExecutionException("Error reading the definition of persistence-unit '" + persistenceUnitName + "'.", e);
+        }
+    }
+
+    /**
+     * Accessor for the file list to scan the metadata directory straight into, so that the input files are never
+     * held in memory. Extensions that only pass the input files to the tool in a file list can return one.
+     * @return The file list file, or null to collect the input files first
+     */
+    protected File getFileListFileForScan()
+    {
+        return null;
+    }
+
+    /**
+     * Accessor for the file list holding the input files of the current run, when the metadata directory was scanned
+     * straight into it (see {@link #getFileListFileForScan()}). The file is deleted once the tool has completed, and
+     * the enhancer itself deletes it once read, so it is only to be read before running the tool.
+     * @return The file list file, or null when the input files are passed to the tool
+     */
+    protected File getScannedFileListFile()
+    {
+        return scannedFileListFile;
+    }
+
+    /**
+     * Whether the input files are streamed to the forked tool JVM, rather than passed as arguments.
+     * @return Whether the input files are streamed
+     */
+    protected boolean isPipelined()
+    {
+        return pipelineInput != null;
     }
 
     /**
@@ -212,32 +722,334 @@ public abstract class AbstractDataNucleusMojo extends AbstractMojo
     }
 
     /**
-     * Locates and builds a list of all metadata files under the build output directory.
+     * Locates and builds a list of all metadata files under the build output directory (or the "metadataDirectories").
      * @throws MojoExecutionException
      */
     protected List findMetadataFiles() throws MojoExecutionException
     {
         List files;
-
-        try
+        if (isUsingMetadataDirectories())
         {
-            files = FileUtils.getFiles(metadataDirectory, metadataIncludes, metadataExcludes);
+            files = new ArrayList();
+            for (List dirFiles : scanMetadataDirectories())
+            {
+                files.addAll(dirFiles);
+            }
+            return files;
         }
-        catch (IOException e)
+
+        files = scanMetadataDirectory(metadataDirectory, metadataIncludes, metadataExcludes);
+        for (Iterator it = files.iterator(); it.hasNext();)
         {
-            throw new MojoExecutionException("Error while scanning for metadata files in '"
-                            + metadataDirectory.getAbsolutePath() + "'.", e);
+            if (!acceptMetadataFile((File) it.next()))
+            {
+                it.remove();
+            }
         }
-
         return files;
     }
 
+    /**
+     * Method to scan the "metadataDirectories" concurrently.
+     * @return The accepted files of each of the directories, in order
+     * @throws MojoExecutionException If an error occurs scanning
+     */
+    private List<List> scanMetadataDirectories() throws MojoExecutionException
+    {
+        List<Future<List>> futures = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(metadataDirectories.size(), Runtime.getRuntime().availableProcessors()));
+        try
+        {
+            for (Iterator it = metadataDirectories.iterator(); it.hasNext();)
+            {
+                MetadataDirectory dir = (MetadataDirectory) it.next();
+                final File dirFile = dir.getDirectory();
+                if (dirFile == null)
+                {
+                    throw new MojoExecutionException("Entry of 'metadataDirectories' has no 'directory' specified.");
+                }
+                if (!dirFile.exists())
+                {
+                    getLog().warn("Specified metadata directory '" + dirFile.getAbsolutePath() + "' is not available.");
+                    futures.add(null);
+                    continue;
+                }
+
+                final String includes = dir.getIncludes() != null ? dir.getIncludes() : metadataIncludes;
+                final String excludes = dir.getExcludes() != null ? dir.getExcludes() : metadataExcludes;
+                futures.add(executor.submit(new Callable<List>()
+                {
+                    public List call() throws MojoExecutionException
+                    {
+                        return scanMetadataDirectory(dirFile, includes, excludes);
+                    }
+                }));
+            }
+
+            List<List> dirFiles = new ArrayList<>();
+            for (Future<List> future : futures)
+            {
+                List files = new ArrayList();
+                if (future != null)
+                {
+                    try
+                    {
+                        files = future.get();
+                    }
+                    catch (ExecutionException e)
+                    {
+                        if (e.getCause() instanceof MojoExecutionException)
+                        {
+                            throw (MojoExecutionException) e.getCause();
+                        }
+                        throw new MojoExecutionException("Error while scanning for metadata files.", e.getCause());
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                        throw new MojoExecutionException("Interrupted while scanning for metadata files.", e);
+                    }
+                    for (Iterator it = files.iterator(); it.hasNext();)
+                    {
+                        if (!acceptMetadataFile((File) it.next()))
+                        {
+                            it.remove();
+                        }
+                    }
+                }
+                dirFiles.add(files);
+            }
+            return dirFiles;
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Method to find the files under a directory matching the includes and excludes.
+     * @param dir The directory
+     * @param includes Includes pattern
+     * @param excludes Excludes pattern
+     * @return The files, sorted by path so that the tool input is the same whatever the order of the file system
+     * @throws MojoExecutionException If an error occurs scanning
+     */
+    private List scanMetadataDirectory(File dir, String includes, String excludes) throws MojoExecutionException
+    {
+        try
+        {
+            List files;
+            if (useScanIndex)
+            {
+                MetadataScanner scanner = new MetadataScanner(dir, includes, excludes);
+                files = scanner.scan(new File(workDirectory, scanner.getIndexFileName()));
+                getLog().debug("Scan of metadata directory " + dir + " listed " + scanner.getDirectoriesListed() + " directories, and reused " +
+                    scanner.getDirectoriesReused() + " unchanged directories from the scan index");
+            }
+            else
+            {
+                files = FileUtils.getFiles(dir, includes, MetadataScanner.withDefaultExcludes(excludes));
+            }
+            Collections.sort(files, PATH_ORDER);
+            return files;
+        }
+        catch (IOException e)
+        {
+            throw new MojoExecutionException("Error while scanning for metadata files in '"
+                            + dir.getAbsolutePath() + "'.", e);
+        }
+    }
+
+    /**
+     * Whether a file found in the metadata directory is to be passed to the tool. Extensions can override this to
+     * omit files that have no need of processing.
+     * @param file The file
+     * @return Whether to process it
+     */
+    protected boolean acceptMetadataFile(File file)
+    {
+        return true;
+    }
+
+    /**
+     * Method to generate the CLASSPATH entries for the tool (avoiding dups).
+     * Puts plugin deps first so they are found before any project-specific artifacts.
+     * @param pluginArtifacts The plugin artifacts
+     * @return The CLASSPATH entries
+     * @throws MojoExecutionException If an error occurs generating the path of an artifact
+     */
+    protected List getToolClasspathEntries(List pluginArtifacts)
+    throws MojoExecutionException
+    {
+        List cpEntries = new ArrayList();
+        for (Iterator it = pluginArtifacts.iterator(); it.hasNext();)
+        {
+            Artifact artifact = (Artifact) it.next();
+            try
+            {
+                String artifactPath = artifact.getFile().getCanonicalPath();
+                if (!cpEntries.contains(artifactPath))
+                {
+                    cpEntries.add(artifactPath);
+                }
+            }
+            catch (IOException e)
+            {
+                throw new MojoExecutionException("Error while creating the canonical path for '" + artifact.getFile() + "'.", e);
+            }
+        }
+        if (isUsingLauncher())
+        {
+            // The launcher of the forked tool JVM is in this plugin
+            try
+            {
+                String launcherPath = new File(ForkedToolLauncher.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getCanonicalPath();
+                if (!cpEntries.contains(launcherPath))
+                {
+                    cpEntries.add(launcherPath);
+                }
+            }
+            catch (IOException | URISyntaxException e)
+            {
+                throw new MojoExecutionException("Error while locating the forked tool launcher.", e);
+            }
+        }
+        List projectEntries = getUniqueClasspathElements();
+        if (trimClasspath)
+        {
+            projectEntries = getTrimmedClasspathElements(projectEntries);
+        }
+        Iterator uniqueIter = projectEntries.iterator();
+        while (uniqueIter.hasNext())
+        {
+            String entry = (String)uniqueIter.next();
+            if (!cpEntries.contains(entry))
+            {
+                cpEntries.add(entry);
+            }
+        }
+        return cpEntries;
+    }
+
+    /**
+     * Method to trim the project CLASSPATH entries to those the tool can need, using the cached result where the
+     * entries and classes are unchanged.
+     * @param entries The project CLASSPATH entries
+     * @return The trimmed entries
+     * @throws MojoExecutionException If an error occurs reading an entry
+     */
+    private List getTrimmedClasspathElements(List entries)
+    throws MojoExecutionException
+    {
+        File cacheFile = new File(workDirectory, "trimmed-classpath-" + Integer.toHexString(entries.hashCode()) + ".txt");
+        try
+        {
+            String key = ClasspathTrimmer.getKey(entries);
+            if (cacheFile.exists())
+            {
+                List<String> lines = Files.readAllLines(cacheFile.toPath(), StandardCharsets.UTF_8);
+                if (!lines.isEmpty() && key.equals(lines.get(0)))
+                {
+                    getLog().debug("Using trimmed CLASSPATH of " + (lines.size() - 1) + " of " + entries.size() + " entries from " + cacheFile);
+                    return new ArrayList(lines.subList(1, lines.size()));
+                }
+            }
+
+            long startTime = System.currentTimeMillis();
+            ClasspathTrimmer trimmer = new ClasspathTrimmer(entries);
+            List<String> trimmed = trimmer.trim();
+            getLog().info("Trimmed CLASSPATH of DataNucleus tool " + getToolName() + " to " + trimmed.size() + " of " + entries.size() +
+                " entries, reading " + trimmer.getClassesRead() + " classes in " + (System.currentTimeMillis() - startTime) + " ms");
+
+            List<String> lines = new ArrayList<>();
+            lines.add(key);
+            lines.addAll(trimmed);
+            cacheFile.getParentFile().mkdirs();
+            Files.write(cacheFile.toPath(), lines, StandardCharsets.UTF_8);
+            return trimmed;
+        }
+        catch (IOException e)
+        {
+            throw new MojoExecutionException("Error trimming the CLASSPATH of DataNucleus tool " + getToolName(), e);
+        }
+    }
+
+    /**
+     * Method to add the arguments naming the tool class to invoke to a command line, using the launcher when the
+     * input files are to be streamed.
+     * @param cl The command line
+     * @param toolClassName Name of the tool class
+     */
+    protected void addToolClassArguments(Commandline cl, String toolClassName)
+    {
+        if (isUsingLauncher())
+        {
+            cl.createArg().setValue(ForkedToolLauncher.class.getName());
+            if (isPipelined())
+            {
+                cl.createArg().setValue(ForkedToolLauncher.OPTION_STDIN);
+            }
+            if (profileFork)
+            {
+                cl.createArg().setValue(ForkedToolLauncher.OPTION_PROFILE);
+                cl.createArg().setValue(getProfileFile().getAbsolutePath());
+            }
+            File runsFile = getToolRunsFile();
+            if (runsFile != null)
+            {
+                if (getToolRunsParallelism() > 1)
+                {
+                    cl.createArg().setValue(ForkedToolLauncher.OPTION_PARALLEL);
+                    cl.createArg().setValue(String.valueOf(getToolRunsParallelism()));
+                }
+                cl.createArg().setValue(ForkedToolLauncher.OPTION_RUNS);
+                cl.createArg().setValue(runsFile.getAbsolutePath());
+            }
+        }
+        cl.createArg().setValue(toolClassName);
+    }
+
+    /**
+     * Accessor for the file defining several runs of the tool in the forked tool JVM, for the {@link ForkedToolLauncher}.
+     * Extensions that use this also override {@link #isUsingLauncher()}.
+     * @return The file, or null if the tool is run once
+     */
+    protected File getToolRunsFile()
+    {
+        return null;
+    }
+
+    /**
+     * Accessor for the number of runs of the {@link #getToolRunsFile()} to invoke concurrently in the forked tool JVM.
+     * @return The number of concurrent runs
+     */
+    protected int getToolRunsParallelism()
+    {
+        return 1;
+    }
+
+    /**
+     * Whether the forked tool JVM is started through the {@link ForkedToolLauncher}, for streaming input files,
+     * profiling, or running the tool several times.
+     * @return Whether the launcher is used
+     */
+    protected boolean isUsingLauncher()
+    {
+        return fork && (isPipelined() || profileFork);
+    }
+
+    private File getProfileFile()
+    {
+        return new File(workDirectory, "fork-profile.properties");
+    }
+
     /**
      * <p>
-     * Return the set of classpath elements, ensuring that {@link #metadataDirectory}
-     * location is first, and that no entry is duplicated in the classpath.
-     * </p>
-     * <p>
+     * Return the set of classpath elements, ensuring that {@link #metadataDirectory}
+     * location is first, and that no entry is duplicated in the classpath.
+     * </p>
+     * <p>
      * The ability of the user to specify an alternate {@link #metadataDirectory} location
      * facilitates the need for this. <br>
      * Example: Users that want to DataNucleusEnhance their test classes.
@@ -249,6 +1061,17 @@ public abstract class AbstractDataNucleusMojo extends AbstractMojo
     {
         List ret = new ArrayList();
         ret.add(this.metadataDirectory.getAbsolutePath());
+        if (isUsingMetadataDirectories())
+        {
+            for (Iterator it = metadataDirectories.iterator(); it.hasNext();)
+            {
+                File dir = ((MetadataDirectory) it.next()).getDirectory();
+                if (dir != null && !ret.contains(dir.getAbsolutePath()))
+                {
+                    ret.add(dir.getAbsolutePath());
+                }
+            }
+        }
         Iterator it = getClasspathElements().iterator();
 
         while (it.hasNext())
@@ -287,9 +1110,26 @@ public abstract class AbstractDataNucleusMojo extends AbstractMojo
     {
         CommandLineUtils.StringStreamConsumer stdout = new CommandLineUtils.StringStreamConsumer();
         CommandLineUtils.StringStreamConsumer stderr = new CommandLineUtils.StringStreamConsumer();
+        File profileFile = profileFork ? getProfileFile() : null;
+        if (profileFile != null)
+        {
+            profileFile.getParentFile().mkdirs();
+            profileFile.delete();
+        }
         getLog().debug("Executing command line:");
         getLog().debug(cl.toString());
-        int exitCode = CommandLineUtils.executeCommandLine(cl, stdout, stderr);
+        boolean acquired = acquireToolPermit();
+        long startTime = System.currentTimeMillis();
+        int exitCode;
+        try
+        {
+            exitCode = CommandLineUtils.executeCommandLine(cl, pipelineInput, stdout, stderr);
+        }
+        finally
+        {
+            releaseToolPermit(acquired);
+        }
+        long wallTime = System.currentTimeMillis() - startTime;
 
         getLog().debug("Exit code: " + exitCode);
         getLog().debug("--------------------");
@@ -307,84 +1147,217 @@ public abstract class AbstractDataNucleusMojo extends AbstractMojo
             getLog().error("--------------------");
         }
 
+        if (profileFile != null)
+        {
+            reportProfile(profileFile, wallTime, exitCode);
+        }
+
         if (exitCode != 0)
         {
             throw new MojoExecutionException("The DataNucleus tool " + getToolName() + " exited with a non-null exit code.");
         }
     }
 
-    protected void executeInJvm(String className, List args, List cpEntries, boolean quiet)
-    throws MojoExecutionException
+    /**
+     * Method to log the resource usage written by the forked tool JVM, and append it to the profile report.
+     * @param profileFile File written by the {@link ForkedToolLauncher}
+     * @param wallTime Elapsed time of the tool JVM (ms)
+     * @param exitCode Exit code of the tool JVM
+     */
+    private void reportProfile(File profileFile, long wallTime, int exitCode)
     {
-        try
+        Properties profile = new Properties();
+        try (InputStream in = new FileInputStream(profileFile))
+        {
+            profile.load(in);
+        }
+        catch (IOException e)
+        {
+            getLog().warn("No resource usage available from the DataNucleus tool " + getToolName() + " : " + e.getMessage());
+            return;
+        }
+        finally
         {
-            URL[] urls = new URL[cpEntries.size()];
-            int urlIdx=0;
-            for (Iterator it = cpEntries.iterator(); it.hasNext(); )
+            profileFile.delete();
+        }
+        long cpuTime = getProfileValue(profile, ForkedToolLauncher.PROFILE_CPU_TIME);
+        long peakRss = getProfileValue(profile, ForkedToolLauncher.PROFILE_PEAK_RSS);
+        long gcCount = getProfileValue(profile, ForkedToolLauncher.PROFILE_GC_COUNT);
+        long gcTime = getProfileValue(profile, ForkedToolLauncher.PROFILE_GC_TIME);
+
+        String cpuStr = "n/a";
+        if (cpuTime >= 0)
+        {
+            cpuStr = cpuTime + " ms" + (wallTime > 0 ? String.format(" (%.1f cores)", (double) cpuTime / wallTime) : "");
+        }
+        getLog().info("DataNucleus tool " + getToolName() + " JVM : wall " + wallTime + " ms, CPU " + cpuStr +
+            ", peak RSS " + (peakRss >= 0 ? (peakRss / 1024) + " MB" : "n/a") +
+            ", GC " + (gcCount >= 0 ? gcCount + " collections in " + gcTime + " ms" : "n/a"));
+
+        File reportFile = new File(workDirectory, "fork-profile.csv");
+        boolean newReport = !reportFile.exists();
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(reportFile, true), "UTF-8"))
+        {
+            if (newReport)
             {
-                String n  = (String) it.next();
-                try
-                {
-                    if (!quiet && verbose)
-                    {
-                        getLog().info("  CP: " + n);
-                    }
-                    urls[urlIdx++] = new File(n).toURI().toURL();
-                }
-                catch (Exception e)
-                {
-                    throw new MojoExecutionException("Cannot convert to url: " + n, e );
-                }
+                w.write("timestamp,tool,exitCode,wallTimeMs,cpuTimeMs,peakRssKb,gcCount,gcTimeMs\n");
             }
+            w.write(System.currentTimeMillis() + "," + getToolName() + "," + exitCode + "," + wallTime + "," + cpuTime + "," +
+                peakRss + "," + gcCount + "," + gcTime + "\n");
+        }
+        catch (IOException e)
+        {
+            getLog().warn("Unable to write resource usage report " + reportFile + " : " + e.getMessage());
+        }
+    }
 
-            ClassLoader parent = null;
+    private static long getProfileValue(Properties profile, String name)
+    {
+        try
+        {
+            return Long.parseLong(profile.getProperty(name, "-1").trim());
+        }
+        catch (NumberFormatException e)
+        {
+            return -1;
+        }
+    }
+
+    /**
+     * Method to create a class loader for the specified CLASSPATH entries, isolated from the classes of Maven and
+     * this plugin.
+     * @param cpEntries CLASSPATH entries
+     * @param quiet Whether to suppress logging of the CLASSPATH
+     * @return The class loader
+     * @throws MojoExecutionException Thrown if an entry cannot be converted to a URL
+     */
+    protected URLClassLoader createIsolatedClassLoader(List cpEntries, boolean quiet)
+    throws MojoExecutionException
+    {
+        URL[] urls = new URL[cpEntries.size()];
+        int urlIdx=0;
+        for (Iterator it = cpEntries.iterator(); it.hasNext(); )
+        {
+            String n  = (String) it.next();
             try
             {
-                Method method = ClassLoader.class.getMethod("getPlatformClassLoader");
-                parent = (ClassLoader)method.invoke(null);
-                getLog().debug("Java 9 or higher detected. Using modern classloader strategy.");
+                if (!quiet && verbose)
+                {
+                    getLog().info("  CP: " + n);
+                }
+                urls[urlIdx++] = new File(n).toURI().toURL();
             }
-            catch (Throwable thr)
+            catch (Exception e)
             {
-                getLog().debug("Java 8 or older detected. Using legacy classloader strategy.");
+                throw new MojoExecutionException("Cannot convert to url: " + n, e );
             }
-            URLClassLoader loader = new URLClassLoader(urls, parent);
+        }
+
+        ClassLoader parent = null;
+        try
+        {
+            Method method = ClassLoader.class.getMethod("getPlatformClassLoader");
+            parent = (ClassLoader)method.invoke(null);
+            getLog().debug("Java 9 or higher detected. Using modern classloader strategy.");
+        }
+        catch (Throwable thr)
+        {
+            getLog().debug("Java 8 or older detected. Using legacy classloader strategy.");
+        }
+        return new URLClassLoader(urls, parent);
+    }
+
+    protected void executeInJvm(String className, List args, List cpEntries, boolean quiet)
+    throws MojoExecutionException
+    {
+        executeInJvm(className, args, cpEntries, quiet, null);
+    }
+
+    /**
+     * Method to execute the tool in the current JVM, using an isolated class loader.
+     * @param className Name of the tool class to invoke
+     * @param args Arguments for the tool
+     * @param cpEntries CLASSPATH entries for the isolated class loader
+     * @param quiet Whether to suppress logging of the CLASSPATH
+     * @param sysProps Any system properties to apply for the duration of the invocation (or null)
+     * @throws MojoExecutionException Thrown if an error occurs invoking the tool
+     */
+    protected void executeInJvm(String className, List args, List cpEntries, boolean quiet, Properties sysProps)
+    throws MojoExecutionException
+    {
+        executeInJvm(className, args, createIsolatedClassLoader(cpEntries, quiet), sysProps);
+    }
+
+    /**
+     * Method to execute the tool in the current JVM, using the specified class loader, so that several invocations
+     * can share the loaded classes.
+     * @param className Name of the tool class to invoke
+     * @param args Arguments for the tool
+     * @param loader Class loader for the tool (see {@link #createIsolatedClassLoader(List, boolean)})
+     * @param sysProps Any system properties to apply for the duration of the invocation (or null)
+     * @throws MojoExecutionException Thrown if an error occurs invoking the tool
+     */
+    protected void executeInJvm(String className, List args, ClassLoader loader, Properties sysProps)
+    throws MojoExecutionException
+    {
+        Map<String, String> oldSysProps = setToolSystemProperties(sysProps);
+        try
+        {
+            invokeInJvm(className, args, loader);
+        }
+        finally
+        {
+            restoreSystemProperties(oldSysProps);
+        }
+    }
+
+    /**
+     * Method to invoke the tool in the current JVM, using the specified class loader, without changing any system
+     * properties (see {@link #setToolSystemProperties(Properties)}). Waits for a permit to run a tool.
+     * @param className Name of the tool class to invoke
+     * @param args Arguments for the tool
+     * @param loader Class loader for the tool (see {@link #createIsolatedClassLoader(List, boolean)})
+     * @throws MojoExecutionException Thrown if an error occurs invoking the tool
+     */
+    protected void invokeInJvm(String className, List args, ClassLoader loader)
+    throws MojoExecutionException
+    {
+        boolean acquired = acquireToolPermit();
+        try
+        {
+            invokeToolMain(className, args, loader);
+        }
+        finally
+        {
+            releaseToolPermit(acquired);
+        }
+    }
 
+    /**
+     * Method to invoke the tool in the current JVM as {@link #invokeInJvm(String, List, ClassLoader)}, without
+     * waiting for a permit, so that invocations can run concurrently as one tool. The caller is to hold a permit
+     * (see {@link #acquireToolPermit()}).
+     * @param className Name of the tool class to invoke
+     * @param args Arguments for the tool
+     * @param loader Class loader for the tool (see {@link #createIsolatedClassLoader(List, boolean)})
+     * @throws MojoExecutionException Thrown if an error occurs invoking the tool
+     */
+    protected void invokeToolMain(String className, List args, ClassLoader loader)
+    throws MojoExecutionException
+    {
+        try
+        {
             Class c = loader.loadClass(className);
             Method m = c.getMethod("main", new Class[] { String[].class });
             ClassLoader tl = Thread.currentThread().getContextClassLoader();
-            String oldProp = System.getProperty("log4j.configuration");
             try
             {
                 Thread.currentThread().setContextClassLoader(loader);
-
-                URL log4jURL = getLog4JConfiguration();
-                if (log4jURL != null)
-                {
-                    System.setProperty("log4j.configuration", log4jURL.toString());
-                }
-                else
-                {
-                    URL jdkLogURL = getJdkLogConfiguration();
-                    if (jdkLogURL != null)
-                    {
-                        System.setProperty("java.util.logging.config.file", jdkLogURL.toString());
-                    }
-                }
-
                 m.invoke(null, new Object[] {(String[])args.toArray(new String[args.size()])});
             }
             finally
             {
                 Thread.currentThread().setContextClassLoader(tl);
-                if (oldProp != null)
-                {
-                    System.setProperty("log4j.configuration", oldProp);
-                }
-                else
-                {
-                    System.getProperties().remove("log4j.configuration");
-                }
             }
         }
         catch (Exception e)
@@ -392,4 +1365,109 @@ public abstract class AbstractDataNucleusMojo extends AbstractMojo
             throw new MojoExecutionException("Error executing DataNucleus tool " + getToolName(), e);
         }
     }
+
+    /**
+     * Method to set the system properties for invocations of the tool in the current JVM, being those specified and
+     * the logging configuration. Since system properties are global to the JVM this is done once around any
+     * concurrent invocations, and undone by {@link #restoreSystemProperties(Map)}.
+     * @param sysProps Any system properties to apply (or null)
+     * @return Previous values of the properties set, with null for those not set before
+     */
+    protected Map<String, String> setToolSystemProperties(Properties sysProps)
+    {
+        Map<String, String> oldSysProps = new LinkedHashMap<>();
+        if (sysProps != null)
+        {
+            for (Iterator it = sysProps.keySet().iterator(); it.hasNext();)
+            {
+                String key = (String) it.next();
+                setSystemProperty(key, sysProps.getProperty(key), oldSysProps);
+            }
+        }
+
+        URL log4jURL = getLog4JConfiguration();
+        if (log4jURL != null)
+        {
+            setSystemProperty("log4j.configuration", log4jURL.toString(), oldSysProps);
+        }
+        else
+        {
+            URL jdkLogURL = getJdkLogConfiguration();
+            if (jdkLogURL != null)
+            {
+                setSystemProperty("java.util.logging.config.file", jdkLogURL.toString(), oldSysProps);
+            }
+        }
+        return oldSysProps;
+    }
+
+    private static void setSystemProperty(String key, String value, Map<String, String> oldSysProps)
+    {
+        if (!oldSysProps.containsKey(key))
+        {
+            oldSysProps.put(key, System.getProperty(key));
+        }
+        System.setProperty(key, value);
+    }
+
+    /**
+     * Method to restore system properties set by {@link #setToolSystemProperties(Properties)}.
+     * @param oldSysProps Previous values of the properties, with null for those not set before
+     */
+    protected void restoreSystemProperties(Map<String, String> oldSysProps)
+    {
+        for (Map.Entry<String, String> entry : oldSysProps.entrySet())
+        {
+            if (entry.getValue() != null)
+            {
+                System.setProperty(entry.getKey(), entry.getValue());
+            }
+            else
+            {
+                System.getProperties().remove(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Method to wait for a permit to run a tool, so that at most "maxConcurrentTools" tools run at the same time.
+     * Must be followed by {@link #releaseToolPermit(boolean)}.
+     * @return Whether a permit was acquired (false if there is no limit)
+     * @throws MojoExecutionException Thrown if interrupted while waiting
+     */
+    protected boolean acquireToolPermit()
+    throws MojoExecutionException
+    {
+        int limit = maxConcurrentTools == 0 ? Math.max(1, Runtime.getRuntime().availableProcessors() / 2) : maxConcurrentTools;
+        if (limit < 0)
+        {
+            return false;
+        }
+        try
+        {
+            long waitTime = ToolConcurrencyLimiter.acquire(limit);
+            if (waitTime > 0)
+            {
+                getLog().info("Waited " + waitTime + " ms to run DataNucleus tool " + getToolName() + " (at most " + limit + " tools run at the same time)");
+            }
+            return true;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while waiting to run DataNucleus tool " + getToolName(), e);
+        }
+    }
+
+    /**
+     * Method to release a permit acquired by {@link #acquireToolPermit()}.
+     * @param acquired Whether the permit was acquired
+     */
+    protected void releaseToolPermit(boolean acquired)
+    {
+        if (acquired)
+        {
+            ToolConcurrencyLimiter.release();
+        }
+    }
 }
\ No newline at end of file
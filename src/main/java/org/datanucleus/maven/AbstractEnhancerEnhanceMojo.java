@@ -17,8 +17,32 @@ Contributors:
 **********************************************************************/
 package org.datanucleus.maven;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.cli.CommandLineException;
 import org.codehaus.plexus.util.cli.Commandline;
 
 public abstract class AbstractEnhancerEnhanceMojo extends AbstractEnhancerMojo
@@ -28,6 +52,75 @@ public abstract class AbstractEnhancerEnhanceMojo extends AbstractEnhancerMojo
      */
     private String targetDirectory;
 
+    /**
+     * Whether to write an index of the persistable classes (and mapping files) to the output directory after
+     * enhancement. The index is in persistence.xml format, so can be used at runtime in place of class scanning
+     * by setting <code>datanucleus.persistenceXmlFilename</code> to its location.
+     * @parameter property="generatePersistenceIndex" default-value="false"
+     */
+    protected boolean generatePersistenceIndex;
+
+    /**
+     * Location of the persistable class index, relative to the output directory.
+     * @parameter property="persistenceIndexFile" default-value="META-INF/datanucleus-persistence.xml"
+     */
+    protected String persistenceIndexFile;
+
+    /**
+     * Name of the persistence-unit in the persistable class index, when "persistenceUnitName" is not specified.
+     * @parameter property="persistenceIndexUnitName" default-value="datanucleus-index"
+     */
+    protected String persistenceIndexUnitName;
+
+    /**
+     * Whether to write a snapshot of the JDO XML metadata to the output directory after enhancement, merging the
+     * metadata files into a single compact document per type. When used with "generatePersistenceIndex" the index
+     * refers to the snapshot in place of the individual metadata files.
+     * @parameter property="generateMetadataSnapshot" default-value="false"
+     */
+    protected boolean generateMetadataSnapshot;
+
+    /**
+     * Location of the metadata snapshot, relative to the output directory and without extension.
+     * @parameter property="metadataSnapshotFile" default-value="META-INF/datanucleus-metadata"
+     */
+    protected String metadataSnapshotFile;
+
+    /**
+     * Whether to verify that the enhancement is reproducible, by enhancing the input classes a second time from the
+     * original class files and comparing the SHA-256 hashes of the enhanced classes of the two runs. The build fails
+     * if any class differs. The hashes are written to "enhanced-classes.sha256" in the work directory, for comparison
+     * across machines.
+     * @parameter property="verifyReproducible" default-value="false"
+     */
+    protected boolean verifyReproducible;
+
+    /**
+     * Whether to have the enhancer write to a staging directory, and only write an enhanced class to the output when its
+     * bytes differ from the existing output, so that unchanged classes keep their modification time. Changed classes
+     * are written atomically, by renaming a temporary file. Off by default, since the classes are then written after
+     * the enhancer has run rather than by the enhancer.
+     * @parameter property="preserveUnchangedClasses" default-value="false"
+     */
+    protected boolean preserveUnchangedClasses;
+
+    /** Directory the enhancer is writing to for publishing to the output, during a run. */
+    private File stagingDirectory;
+
+    /** Whether the hashes of the enhanced classes have been written by an earlier run of this execution. */
+    private boolean hashesWritten = false;
+
+    /**
+     * {@inheritDoc}
+     * The enhanced classes of each of the "metadataDirectories" can be written to its own output directory.
+     * @see org.datanucleus.maven.AbstractDataNucleusMojo#supportsOutputDirectory()
+     */
+    @Override
+    protected boolean supportsOutputDirectory()
+    {
+        return true;
+    }
+
     /**
      * Method to add on any additional command line arguments for this mode of invoking the
      * DataNucleus Enhancer.
@@ -36,20 +129,521 @@ public abstract class AbstractEnhancerEnhanceMojo extends AbstractEnhancerMojo
      */
     protected void prepareModeSpecificCommandLineArguments(Commandline cl, List args)
     {
-        if (targetDirectory != null && targetDirectory.trim().length() > 0)
+        String outputDir = getRunOutputDirectory() != null ? getRunOutputDirectory().getAbsolutePath() : targetDirectory;
+        if (stagingDirectory != null)
+        {
+            outputDir = stagingDirectory.getAbsolutePath();
+        }
+        if (outputDir != null && outputDir.trim().length() > 0)
         {
             // Output the enhanced classes to a different location
             if (fork)
             {
                 cl.createArg().setValue("-d");
-                cl.createArg().setValue(targetDirectory);
+                cl.createArg().setValue(outputDir);
             }
             else
             {
                 args.add("-d");
-                args.add(targetDirectory);
+                args.add(outputDir);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Omits any metadata snapshot written by a previous run, since it duplicates the metadata files.
+     * @see org.datanucleus.maven.AbstractDataNucleusMojo#acceptMetadataFile(java.io.File)
+     */
+    @Override
+    protected boolean acceptMetadataFile(File file)
+    {
+        if (generateMetadataSnapshot)
+        {
+            List<File> outputDirs = new ArrayList<>();
+            outputDirs.add(getOutputDirectory());
+            if (isUsingMetadataDirectories())
+            {
+                for (Iterator it = metadataDirectories.iterator(); it.hasNext();)
+                {
+                    File outputDir = ((MetadataDirectory) it.next()).getOutputDirectory();
+                    outputDirs.add(outputDir != null ? outputDir : getOutputDirectory());
+                }
+            }
+            for (File outputDir : outputDirs)
+            {
+                if (file.getAbsolutePath().startsWith(new File(outputDir, metadataSnapshotFile).getAbsolutePath()))
+                {
+                    return false;
+                }
+            }
+        }
+        return super.acceptMetadataFile(file);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The input files are held in memory when generating a metadata snapshot or persistence index, verifying that
+     * enhancement is reproducible, or preserving unchanged classes, since these need the input files again.
+     * @see org.datanucleus.maven.AbstractEnhancerMojo#getFileListFileForScan()
+     */
+    @Override
+    protected File getFileListFileForScan()
+    {
+        if (generateMetadataSnapshot || generatePersistenceIndex || verifyReproducible || preserveUnchangedClasses)
+        {
+            return null;
+        }
+        return super.getFileListFileForScan();
+    }
+
+    /**
+     * Method to execute the enhancer using the provided artifacts and input files, and then generate any
+     * metadata snapshot and index of the persistable classes.
+     * @param pluginArtifacts Artifacts to use in CLASSPATH generation
+     * @param files Input files
+     */
+    @Override
+    protected void executeDataNucleusTool(List pluginArtifacts, List files)
+    throws CommandLineException, MojoExecutionException
+    {
+        if (verifyReproducible && isPipelined())
+        {
+            getLog().warn("Reproducible enhancement is not verified when the input files are streamed to the enhancer (pipelineFork)");
+            super.executeDataNucleusTool(pluginArtifacts, files);
+        }
+        else if (verifyReproducible)
+        {
+            enhanceAndVerifyReproducible(pluginArtifacts, files);
+        }
+        else
+        {
+            super.executeDataNucleusTool(pluginArtifacts, files);
+        }
+
+        if (isRunForPersistenceUnit() && (generateMetadataSnapshot || generatePersistenceIndex))
+        {
+            // Enhancer was given the persistence-unit name, so find the files it covered
+            files = findMetadataFiles();
+        }
+
+        List<String> snapshotResources = new ArrayList<>();
+        Set<File> snapshotFiles = new HashSet<>();
+        if (generateMetadataSnapshot)
+        {
+            writeMetadataSnapshot(files, snapshotResources, snapshotFiles);
+        }
+
+        if (generatePersistenceIndex)
+        {
+            writePersistenceIndex(files, snapshotResources, snapshotFiles);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * When "preserveUnchangedClasses" is set, the enhancer writes to a staging directory, and the classes are then
+     * published to the output.
+     * @see org.datanucleus.maven.AbstractEnhancerMojo#enhance(java.util.List, java.util.List)
+     */
+    @Override
+    protected void enhance(List pluginArtifacts, List files)
+    throws CommandLineException, MojoExecutionException
+    {
+        if (!preserveUnchangedClasses)
+        {
+            super.enhance(pluginArtifacts, files);
+            return;
+        }
+
+        stagingDirectory = new File(workDirectory, "enhance-staging" + (isTestGoal() ? "-test" : ""));
+        try
+        {
+            FileUtils.deleteDirectory(stagingDirectory);
+            stagingDirectory.mkdirs();
+            super.enhance(pluginArtifacts, files);
+            publishStagedClasses(files);
+        }
+        catch (IOException e)
+        {
+            throw new MojoExecutionException("Error publishing enhanced classes from " + stagingDirectory, e);
+        }
+        finally
+        {
+            try
+            {
+                FileUtils.deleteDirectory(stagingDirectory);
             }
+            catch (IOException e)
+            {
+                getLog().debug("Unable to delete " + stagingDirectory + " : " + e.getMessage());
+            }
+            stagingDirectory = null;
+        }
+    }
+
+    /**
+     * Method to move the files written by the enhancer to the staging directory to the output. A file with the same
+     * bytes as the existing output is not written, and other files are written by renaming a temporary file.
+     * @param files Input files
+     * @throws IOException If an error occurs reading or writing
+     */
+    private void publishStagedClasses(List files)
+    throws IOException
+    {
+        boolean inPlace = isEnhancingInPlace();
+        Map<String, File> inputFiles = new HashMap<>();
+        if (inPlace)
+        {
+            // Input directory of each class, for when there are several in place
+            for (Iterator it = files.iterator(); it.hasNext();)
+            {
+                File file = (File) it.next();
+                String relativePath = getInputRelativePath(file);
+                if (relativePath != null)
+                {
+                    inputFiles.put(relativePath, file);
+                }
+            }
+        }
+
+        int numWritten = 0;
+        int numUnchanged = 0;
+        for (Object o : FileUtils.getFileNames(stagingDirectory, "**/*", null, false))
+        {
+            String relativePath = (String) o;
+            File stagedFile = new File(stagingDirectory, relativePath);
+            File outputFile = inputFiles.get(relativePath);
+            if (outputFile == null)
+            {
+                outputFile = new File(getOutputDirectory(), relativePath);
+            }
+
+            if (outputFile.exists() && outputFile.length() == stagedFile.length() &&
+                Arrays.equals(Files.readAllBytes(outputFile.toPath()), Files.readAllBytes(stagedFile.toPath())))
+            {
+                numUnchanged++;
+                continue;
+            }
+
+            outputFile.getParentFile().mkdirs();
+            Path tmpPath = new File(outputFile.getParentFile(), outputFile.getName() + ".dntmp").toPath();
+            Files.copy(stagedFile.toPath(), tmpPath, StandardCopyOption.REPLACE_EXISTING);
+            try
+            {
+                Files.move(tmpPath, outputFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (AtomicMoveNotSupportedException e)
+            {
+                Files.move(tmpPath, outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            numWritten++;
         }
+        getLog().info("Wrote " + numWritten + " enhanced classes, and kept " + numUnchanged + " unchanged classes");
     }
 
+    /**
+     * Whether the enhanced classes of this run replace the input classes.
+     * @return Whether enhancing in place
+     */
+    private boolean isEnhancingInPlace()
+    {
+        return getRunOutputDirectory() == null && (targetDirectory == null || targetDirectory.trim().length() == 0);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Gives the output file of the class when the enhancer is writing to the staging directory.
+     * @see org.datanucleus.maven.AbstractEnhancerMojo#getPublishedEnhancedFile(java.io.File, java.lang.String)
+     */
+    @Override
+    protected File getPublishedEnhancedFile(File file, String outputDir)
+    {
+        if (stagingDirectory == null)
+        {
+            return super.getPublishedEnhancedFile(file, outputDir);
+        }
+        String relativePath = getInputRelativePath(file);
+        return isEnhancingInPlace() || relativePath == null ? file : new File(getOutputDirectory(), relativePath);
+    }
+
+    /**
+     * Method to enhance the input files twice, the second time from the original class files, and check that the
+     * enhanced classes of the two runs are identical.
+     * @param pluginArtifacts Artifacts to use in CLASSPATH generation
+     * @param files Input files
+     * @throws CommandLineException If an error occurs invoking the enhancer
+     * @throws MojoExecutionException If an error occurs enhancing, or the enhanced classes differ
+     */
+    protected void enhanceAndVerifyReproducible(List pluginArtifacts, List files)
+    throws CommandLineException, MojoExecutionException
+    {
+        boolean inPlace = isEnhancingInPlace();
+        File outputDir = getOutputDirectory();
+        List<File> classFiles = new ArrayList<>();
+        List<String> relativePaths = new ArrayList<>();
+        List<File> enhancedFiles = new ArrayList<>();
+        for (Iterator it = (isRunForPersistenceUnit() ? findMetadataFiles() : files).iterator(); it.hasNext();)
+        {
+            File file = (File) it.next();
+            String relativePath = getInputRelativePath(file);
+            if (relativePath != null && relativePath.endsWith(".class"))
+            {
+                classFiles.add(file);
+                relativePaths.add(relativePath.replace(File.separatorChar, '/'));
+                enhancedFiles.add(inPlace ? file : new File(outputDir, relativePath));
+            }
+        }
+
+        File originalsDir = new File(workDirectory, "reproducible-originals");
+        try
+        {
+            if (inPlace)
+            {
+                // Keep the original class files, since they are overwritten by the enhancement
+                FileUtils.deleteDirectory(originalsDir);
+                originalsDir.mkdirs();
+                for (int i = 0; i < classFiles.size(); i++)
+                {
+                    Files.copy(classFiles.get(i).toPath(), new File(originalsDir, i + ".class").toPath(), StandardCopyOption.COPY_ATTRIBUTES);
+                }
+            }
+
+            super.executeDataNucleusTool(pluginArtifacts, files);
+            List<String> firstHashes = hashFiles(enhancedFiles);
+
+            for (int i = 0; i < classFiles.size(); i++)
+            {
+                if (inPlace)
+                {
+                    Files.copy(new File(originalsDir, i + ".class").toPath(), classFiles.get(i).toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                }
+                else
+                {
+                    Files.deleteIfExists(enhancedFiles.get(i).toPath());
+                }
+            }
+            super.executeDataNucleusTool(pluginArtifacts, files);
+            List<String> secondHashes = hashFiles(enhancedFiles);
+
+            File hashFile = new File(workDirectory, "enhanced-classes" + (isTestGoal() ? "-test" : "") + ".sha256");
+            hashFile.getParentFile().mkdirs();
+            try (Writer w = new OutputStreamWriter(new FileOutputStream(hashFile, hashesWritten), "UTF-8"))
+            {
+                for (int i = 0; i < classFiles.size(); i++)
+                {
+                    w.write(secondHashes.get(i) + "  " + relativePaths.get(i) + "\n");
+                }
+            }
+            hashesWritten = true;
+
+            List<String> differing = new ArrayList<>();
+            for (int i = 0; i < classFiles.size(); i++)
+            {
+                if (!firstHashes.get(i).equals(secondHashes.get(i)))
+                {
+                    differing.add(relativePaths.get(i));
+                }
+            }
+            if (!differing.isEmpty())
+            {
+                throw new MojoExecutionException("Enhancement is not reproducible : " + differing.size() + " of " + classFiles.size() +
+                    " enhanced classes differ between two runs, e.g " + differing.subList(0, Math.min(10, differing.size())));
+            }
+            getLog().info("Verified reproducible enhancement of " + classFiles.size() + " classes. Hashes written to " + hashFile);
+        }
+        catch (IOException e)
+        {
+            throw new MojoExecutionException("Error verifying reproducible enhancement", e);
+        }
+        finally
+        {
+            try
+            {
+                FileUtils.deleteDirectory(originalsDir);
+            }
+            catch (IOException e)
+            {
+                getLog().debug("Unable to delete " + originalsDir + " : " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Method to generate the SHA-256 hash of each of the files.
+     * @param files The files
+     * @return The hashes (hex), with "-" for any file that doesn't exist
+     * @throws IOException If an error occurs reading a file
+     */
+    private static List<String> hashFiles(List<File> files)
+    throws IOException
+    {
+        MessageDigest digest;
+        try
+        {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IOException(e);
+        }
+
+        List<String> hashes = new ArrayList<>(files.size());
+        for (File file : files)
+        {
+            if (!file.exists())
+            {
+                hashes.add("-");
+                continue;
+            }
+            StringBuilder str = new StringBuilder();
+            for (byte b : digest.digest(Files.readAllBytes(file.toPath())))
+            {
+                str.append(String.format("%02x", b));
+            }
+            hashes.add(str.toString());
+        }
+        return hashes;
+    }
+
+    /**
+     * Method to write the snapshot of the JDO XML metadata files in the input files.
+     * @param files Input files
+     * @param snapshotResources Resource paths of the snapshot documents written (appended to)
+     * @param snapshotFiles Input files merged into the snapshot (appended to)
+     * @throws MojoExecutionException If an error occurs reading the metadata or writing the snapshot
+     */
+    protected void writeMetadataSnapshot(List files, List<String> snapshotResources, Set<File> snapshotFiles)
+    throws MojoExecutionException
+    {
+        try
+        {
+            MetadataSnapshotWriter writer = new MetadataSnapshotWriter();
+            for (Iterator it = files.iterator(); it.hasNext();)
+            {
+                File file = (File) it.next();
+                String name = file.getName();
+                if (name.endsWith(".jdo") || name.endsWith(".orm"))
+                {
+                    writer.add(file);
+                }
+            }
+
+            snapshotResources.addAll(writer.write(getOutputDirectory(), metadataSnapshotFile));
+            snapshotFiles.addAll(writer.getMergedFiles());
+            getLog().info("Wrote metadata snapshot of " + writer.getMergedFiles().size() + " metadata files to " + snapshotResources);
+        }
+        catch (IOException | ParserConfigurationException e)
+        {
+            throw new MojoExecutionException("Error writing metadata snapshot", e);
+        }
+    }
+
+    /**
+     * Accessor for the directory where the enhanced classes are written.
+     * @return The output directory
+     */
+    protected File getOutputDirectory()
+    {
+        if (getRunOutputDirectory() != null)
+        {
+            return getRunOutputDirectory();
+        }
+        if (targetDirectory != null && targetDirectory.trim().length() > 0)
+        {
+            return new File(targetDirectory.trim());
+        }
+        return metadataDirectory;
+    }
+
+    /**
+     * Method to write the index of persistable classes and mapping files for the enhanced input files.
+     * @param files Input files
+     * @param snapshotResources Resource paths of any metadata snapshot documents
+     * @param snapshotFiles Input files merged into the metadata snapshot, so omitted from the index
+     * @throws MojoExecutionException If an error occurs reading the classes or writing the index
+     */
+    protected void writePersistenceIndex(List files, List<String> snapshotResources, Set<File> snapshotFiles)
+    throws MojoExecutionException
+    {
+        File outputDir = getOutputDirectory();
+
+        List<String> classNames = new ArrayList<>();
+        List<String> mappingFiles = new ArrayList<>(snapshotResources);
+        for (Iterator it = files.iterator(); it.hasNext();)
+        {
+            File file = (File) it.next();
+            String relativePath = getInputRelativePath(file);
+            if (relativePath == null || snapshotFiles.contains(file))
+            {
+                continue;
+            }
+
+            if (relativePath.endsWith(".class"))
+            {
+                // Check the enhanced version of the class, falling back to the input if not written to the output
+                File enhancedFile = new File(outputDir, relativePath);
+                try
+                {
+                    ClassFileInfo classInfo = ClassFileInfo.read(enhancedFile.exists() ? enhancedFile : file);
+                    if (classInfo.isPersistable())
+                    {
+                        classNames.add(classInfo.getClassName());
+                    }
+                }
+                catch (IOException e)
+                {
+                    throw new MojoExecutionException("Error reading class file '" + file.getAbsolutePath() + "' for the persistence index", e);
+                }
+            }
+            else
+            {
+                mappingFiles.add(relativePath.replace(File.separatorChar, '/'));
+            }
+        }
+        Collections.sort(classNames);
+        Collections.sort(mappingFiles);
+
+        String unitName = (persistenceUnitName != null && persistenceUnitName.trim().length() > 0) ? persistenceUnitName.trim() : persistenceIndexUnitName;
+        boolean jakarta = "Jakarta".equalsIgnoreCase(api);
+        File indexFile = new File(outputDir, persistenceIndexFile);
+        indexFile.getParentFile().mkdirs();
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(indexFile), "UTF-8"))
+        {
+            w.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            w.write("<!-- Index of persistable classes generated by the DataNucleus Maven plugin, for API " + api + " -->\n");
+            if (jakarta)
+            {
+                w.write("<persistence xmlns=\"https://jakarta.ee/xml/ns/persistence\" version=\"3.0\">\n");
+            }
+            else
+            {
+                w.write("<persistence xmlns=\"http://xmlns.jcp.org/xml/ns/persistence\" version=\"2.1\">\n");
+            }
+            w.write("    <persistence-unit name=\"" + escapeXml(unitName) + "\">\n");
+            for (String mappingFile : mappingFiles)
+            {
+                w.write("        <mapping-file>" + escapeXml(mappingFile) + "</mapping-file>\n");
+            }
+            for (String className : classNames)
+            {
+                w.write("        <class>" + escapeXml(className) + "</class>\n");
+            }
+            w.write("        <exclude-unlisted-classes>true</exclude-unlisted-classes>\n");
+            w.write("    </persistence-unit>\n");
+            w.write("</persistence>\n");
+        }
+        catch (IOException e)
+        {
+            throw new MojoExecutionException("Error writing persistence index '" + indexFile.getAbsolutePath() + "'", e);
+        }
+
+        getLog().info("Wrote persistence index for " + classNames.size() + " persistable classes to " + indexFile.getAbsolutePath());
+    }
+
+    private static String escapeXml(String str)
+    {
+        return str.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
 }
\ No newline at end of file
@@ -17,17 +17,24 @@ Contributors:
 **********************************************************************/
 package org.datanucleus.maven;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
 
-import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.codehaus.plexus.util.cli.CommandLineException;
 import org.codehaus.plexus.util.cli.Commandline;
@@ -39,6 +46,9 @@ public abstract class AbstractEnhancerMojo extends AbstractDataNucleusMojo
 {
     private static final String TOOL_NAME_DATANUCLEUS_ENHANCER = "org.datanucleus.enhancer.DataNucleusEnhancer";
 
+    /** Name of the file (in the work directory) recording the input files processed by the "enhance" goal. */
+    protected static final String MAIN_ENHANCEMENT_RECORD = "enhance-main.rec";
+
     /**
      * @parameter property="quiet" default-value="false"
      */
@@ -65,10 +75,173 @@ public abstract class AbstractEnhancerMojo extends AbstractDataNucleusMojo
     protected boolean detachListener;
 
     /**
+     * Whether to pass the input files to the enhancer in a file list ("true"), or as individual arguments ("false").
+     * "auto" uses a file list, so that the command line (or argument list) does not grow with the number of inputs.
      * @parameter property="useFileListFile" default-value="auto"
      */
     protected String useFileListFile;
 
+    /**
+     * Whether, when not forking, to drive the enhancer through its API rather than its command line entry point.
+     * The input files are registered in bulk, the result for each class is written to a report in the work directory,
+     * and classes unchanged since they were last processed (with the same options) are skipped, unless a metadata
+     * file has changed.
+     * @parameter property="useEnhancerApi" default-value="false"
+     */
+    protected boolean useEnhancerApi;
+
+    /**
+     * @parameter default-value="${project.build.outputDirectory}"
+     * @readonly
+     */
+    protected File mainOutputDirectory;
+
+    /**
+     * @parameter default-value="${project.build.testOutputDirectory}"
+     * @readonly
+     */
+    protected File testOutputDirectory;
+
+    /** Record of the files processed by the "enhance" goal, when running a test goal. */
+    private EnhancementRecord mainEnhancementRecord;
+
+    /** Properties of the persistence-unit, when resolved into the input files, for passing to the enhancer API. */
+    private Properties persistenceUnitProperties;
+
+    /**
+     * Whether this goal processes the test classes. Test goals default to processing the test output directory,
+     * treating the main classes as already enhanced dependencies.
+     * @return Whether this is a test goal
+     */
+    protected boolean isTestGoal()
+    {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * For test goals where the metadata directory is left at the main output directory, the test output directory
+     * is processed instead.
+     * @see org.datanucleus.maven.AbstractDataNucleusMojo#execute()
+     */
+    @Override
+    public void execute() throws MojoExecutionException
+    {
+        if (isTestGoal() && testOutputDirectory != null && metadataDirectory.getAbsoluteFile().equals(mainOutputDirectory.getAbsoluteFile()))
+        {
+            getLog().debug("Processing test output directory " + testOutputDirectory.getAbsolutePath() + " in place of " + metadataDirectory.getAbsolutePath());
+            metadataDirectory = testOutputDirectory;
+        }
+        super.execute();
+    }
+
+    /**
+     * {@inheritDoc}
+     * For test goals, any files already processed by the "enhance" goal, and unchanged since, are omitted.
+     * @see org.datanucleus.maven.AbstractDataNucleusMojo#acceptMetadataFile(java.io.File)
+     */
+    @Override
+    protected boolean acceptMetadataFile(File file)
+    {
+        if (isTestGoal())
+        {
+            if (mainEnhancementRecord == null)
+            {
+                mainEnhancementRecord = EnhancementRecord.read(new File(workDirectory, MAIN_ENHANCEMENT_RECORD));
+            }
+            if (mainEnhancementRecord.isUnchanged(file))
+            {
+                getLog().debug("Omitting " + file + " since already processed by the enhance goal");
+                return false;
+            }
+        }
+        return super.acceptMetadataFile(file);
+    }
+
+    /**
+     * {@inheritDoc}
+     * The persistence-unit is resolved into the class files and mapping files that it lists, when it lists all of its
+     * classes (<i>exclude-unlisted-classes</i>) and they are all in the metadata directory. Otherwise the enhancer is
+     * given the persistence-unit name. Since only the enhancer API is given properties, the unit is also given by name
+     * when it has properties other than connection properties and the enhancer is run through its command line.
+     * @see org.datanucleus.maven.AbstractDataNucleusMojo#findPersistenceUnitFiles()
+     */
+    @Override
+    protected List findPersistenceUnitFiles() throws MojoExecutionException
+    {
+        PersistenceUnitReader.PersistenceUnit unit = findPersistenceUnit();
+        if (unit == null)
+        {
+            getLog().debug("Persistence-unit '" + persistenceUnitName + "' not found in the CLASSPATH, so passing its name to the enhancer");
+            return null;
+        }
+        if (!unit.excludeUnlistedClasses || !unit.jarFiles.isEmpty())
+        {
+            getLog().debug("Persistence-unit '" + persistenceUnitName + "' includes unlisted classes or jar files, so passing its name to the enhancer");
+            return null;
+        }
+        Properties unitProps = getEnhancementProperties(unit.properties);
+        if (!unitProps.isEmpty() && (fork || !useEnhancerApi))
+        {
+            getLog().debug("Persistence-unit '" + persistenceUnitName + "' has properties " + unitProps.keySet() + ", so passing its name to the enhancer");
+            return null;
+        }
+
+        List files = new ArrayList();
+        for (String className : unit.classNames)
+        {
+            File classFile = new File(metadataDirectory, className.replace('.', File.separatorChar) + ".class");
+            if (!classFile.isFile())
+            {
+                getLog().debug("Class " + className + " of persistence-unit '" + persistenceUnitName + "' not in the metadata directory, so passing its name to the enhancer");
+                return null;
+            }
+            files.add(classFile);
+        }
+        List<String> mappingFiles = new ArrayList<>(unit.mappingFiles);
+        if (("JPA".equalsIgnoreCase(api) || "Jakarta".equalsIgnoreCase(api)) && !mappingFiles.contains("META-INF/orm.xml") &&
+            new File(metadataDirectory, "META-INF" + File.separator + "orm.xml").isFile())
+        {
+            // Default mapping file of the unit
+            mappingFiles.add("META-INF/orm.xml");
+        }
+        for (String mappingFile : mappingFiles)
+        {
+            File file = new File(metadataDirectory, mappingFile.replace('/', File.separatorChar));
+            if (!file.isFile())
+            {
+                getLog().debug("Mapping file " + mappingFile + " of persistence-unit '" + persistenceUnitName + "' not in the metadata directory, so passing its name to the enhancer");
+                return null;
+            }
+            files.add(file);
+        }
+        getLog().debug("Persistence-unit '" + persistenceUnitName + "' resolved to " + files.size() + " input files");
+        persistenceUnitProperties = unitProps;
+        return files;
+    }
+
+    /**
+     * Method to return the properties of a persistence-unit that can affect enhancement, being all but the
+     * connection properties, since the enhancer never connects to the datastore.
+     * @param unitProps Properties of the persistence-unit
+     * @return The properties affecting enhancement
+     */
+    private static Properties getEnhancementProperties(Properties unitProps)
+    {
+        Properties props = new Properties();
+        props.putAll(unitProps);
+        String[][] connectionPropNames = {JdbcConnectionFactory.URL_PROPERTIES, JdbcConnectionFactory.DRIVER_PROPERTIES,
+            JdbcConnectionFactory.USER_PROPERTIES, JdbcConnectionFactory.PASSWORD_PROPERTIES};
+        for (String[] names : connectionPropNames)
+        {
+            for (String name : names)
+            {
+                props.remove(name);
+            }
+        }
+        return props;
+    }
+
     /**
      * Method to execute the enhancer using the provided artifacts and input files.
      * @param pluginArtifacts Artifacts to use in CLASSPATH generation
@@ -92,33 +265,7 @@ public abstract class AbstractEnhancerMojo extends AbstractDataNucleusMojo
     throws CommandLineException, MojoExecutionException
     {
         // Generate a set of CLASSPATH entries (avoiding dups)
-        // Put plugin deps first so they are found before any project-specific artifacts
-        List cpEntries = new ArrayList();
-        for (Iterator it = pluginArtifacts.iterator(); it.hasNext();)
-        {
-            Artifact artifact = (Artifact) it.next();
-            try
-            {
-                String artifactPath = artifact.getFile().getCanonicalPath();
-                if (!cpEntries.contains(artifactPath))
-                {
-                    cpEntries.add(artifactPath);
-                }
-            }
-            catch (IOException e)
-            {
-                throw new MojoExecutionException("Error while creating the canonical path for '" + artifact.getFile() + "'.", e);
-            }
-        }
-        Iterator uniqueIter = getUniqueClasspathElements().iterator();
-        while (uniqueIter.hasNext())
-        {
-            String entry = (String)uniqueIter.next();
-            if (!cpEntries.contains(entry))
-            {
-                cpEntries.add(entry);
-            }
-        }
+        List cpEntries = getToolClasspathEntries(pluginArtifacts);
 
         // Set the CLASSPATH of the java process
         StringBuffer cpBuffer = new StringBuffer();
@@ -166,7 +313,7 @@ public abstract class AbstractEnhancerMojo extends AbstractDataNucleusMojo
                 }
             }
 
-            cl.createArg().setValue(TOOL_NAME_DATANUCLEUS_ENHANCER);
+            addToolClassArguments(cl, TOOL_NAME_DATANUCLEUS_ENHANCER);
 
             // allow extensions to prepare Mode specific arguments
             prepareModeSpecificCommandLineArguments(cl, null);
@@ -181,7 +328,7 @@ public abstract class AbstractEnhancerMojo extends AbstractDataNucleusMojo
             }
 
             boolean usingPU = false;
-            if (persistenceUnitName != null && persistenceUnitName.trim().length() > 0)
+            if (isRunForPersistenceUnit())
             {
                 usingPU = true;
                 cl.createArg().setLine("-pu " + persistenceUnitName);
@@ -213,13 +360,22 @@ public abstract class AbstractEnhancerMojo extends AbstractDataNucleusMojo
                 cl.createArg().setLine("-detachListener true");
             }
 
-            if (!usingPU)
+            File fileListFile = null;
+            if (!usingPU && !isPipelined())
             {
-                if (determineUseFileListFile()) {
-                    File fileListFile = writeFileListFile(files);
-                    cl.createArg().setLine("-flf \"" + fileListFile.getAbsolutePath() + '"');
+                if (getScannedFileListFile() != null)
+                {
+                    cl.createArg().setValue("-flf");
+                    cl.createArg().setValue(getScannedFileListFile().getAbsolutePath());
                 }
-                else {
+                else if (determineUseFileListFile())
+                {
+                    fileListFile = writeFileListFile(files);
+                    cl.createArg().setValue("-flf");
+                    cl.createArg().setValue(fileListFile.getAbsolutePath());
+                }
+                else
+                {
                     for (Iterator it = files.iterator(); it.hasNext();)
                     {
                         File file = (File) it.next();
@@ -228,7 +384,18 @@ public abstract class AbstractEnhancerMojo extends AbstractDataNucleusMojo
                 }
             }
 
-            executeCommandLine(cl);
+            try
+            {
+                executeCommandLine(cl);
+            }
+            finally
+            {
+                deleteFileListFile(fileListFile);
+            }
+        }
+        else if (useEnhancerApi)
+        {
+            enhanceUsingApi(cpEntries, files);
         }
         else
         {
@@ -248,7 +415,7 @@ public abstract class AbstractEnhancerMojo extends AbstractDataNucleusMojo
             }
 
             boolean usingPU = false;
-            if (persistenceUnitName != null && persistenceUnitName.trim().length() > 0)
+            if (isRunForPersistenceUnit())
             {
                 usingPU = true;
                 args.add("-pu");
@@ -285,17 +452,358 @@ public abstract class AbstractEnhancerMojo extends AbstractDataNucleusMojo
                 args.add("true");
             }
 
+            File fileListFile = null;
             if (!usingPU)
             {
-                for (Iterator it = files.iterator(); it.hasNext();)
+                if (getScannedFileListFile() != null)
+                {
+                    args.add("-flf");
+                    args.add(getScannedFileListFile().getAbsolutePath());
+                }
+                else if (determineUseFileListFile())
+                {
+                    fileListFile = writeFileListFile(files);
+                    args.add("-flf");
+                    args.add(fileListFile.getAbsolutePath());
+                }
+                else
+                {
+                    for (Iterator it = files.iterator(); it.hasNext();)
+                    {
+                        File file = (File) it.next();
+                        args.add(file.getAbsolutePath());
+                    }
+                }
+            }
+
+            try
+            {
+                executeInJvm(TOOL_NAME_DATANUCLEUS_ENHANCER, args, cpEntries, quiet);
+            }
+            finally
+            {
+                deleteFileListFile(fileListFile);
+            }
+        }
+    }
+
+    /**
+     * Run the DataNucleus Enhancer in the current JVM through its API, skipping classes unchanged since they were
+     * last processed, and reporting the result for each class. A class that was persistable before the run is
+     * reported as "already-enhanced", rather than "enhanced". Since a class carries metadata (annotations and fields)
+     * that its subclasses inherit, an unchanged class is not skipped when one of its superclasses has changed, and no
+     * class is skipped when a metadata file has changed.
+     * @param cpEntries CLASSPATH entries for the enhancer
+     * @param files input file list
+     * @throws MojoExecutionException If an error occurs running the enhancer
+     */
+    protected void enhanceUsingApi(List cpEntries, List files)
+    throws MojoExecutionException
+    {
+        // Mode specific options, as for the command line
+        List modeArgs = new ArrayList();
+        prepareModeSpecificCommandLineArguments(null, modeArgs);
+        boolean checkOnly = modeArgs.contains("-checkonly");
+        int outputDirIdx = modeArgs.indexOf("-d");
+        String outputDir = outputDirIdx >= 0 ? (String) modeArgs.get(outputDirIdx + 1) : null;
+        boolean usingPU = isRunForPersistenceUnit();
+
+        String options = api + "," + alwaysDetachable + "," + ignoreMetaDataForMissingClasses + "," + generatePK + "," +
+            generateConstructor + "," + detachListener + "," + outputDir;
+        String resultsName = "enhancer-" + (checkOnly ? "check" : "enhance") + (isTestGoal() ? "-test" : "-main");
+        File recordFile = new File(workDirectory, resultsName + "-" + Integer.toHexString(options.hashCode()) + ".rec");
+        EnhancementRecord record = EnhancementRecord.read(recordFile);
+
+        // Metadata files are always passed. Class files are skipped if unchanged, unless metadata has changed
+        boolean metadataChanged = false;
+        for (Iterator it = files.iterator(); it.hasNext();)
+        {
+            File file = (File) it.next();
+            if (!file.getName().endsWith(".class") && !record.isUnchanged(file))
+            {
+                metadataChanged = true;
+            }
+        }
+        Set<File> changedSuperclassFiles = metadataChanged ? new HashSet<File>() : getClassFilesWithChangedSuperclass(files, record);
+        List<File> inputFiles = new ArrayList<>();
+        List<File> processedClassFiles = new ArrayList<>();
+        List<File> skippedClassFiles = new ArrayList<>();
+        for (Iterator it = files.iterator(); it.hasNext();)
+        {
+            File file = (File) it.next();
+            if (!file.getName().endsWith(".class"))
+            {
+                inputFiles.add(file);
+            }
+            else if (!metadataChanged && record.isUnchanged(file) && !changedSuperclassFiles.contains(file) &&
+                getPublishedEnhancedFile(file, outputDir).exists())
+            {
+                skippedClassFiles.add(file);
+            }
+            else
+            {
+                inputFiles.add(file);
+                processedClassFiles.add(file);
+            }
+        }
+        if (!usingPU && processedClassFiles.isEmpty() && !metadataChanged)
+        {
+            getLog().info("DataNucleus Enhancer : all " + skippedClassFiles.size() + " classes unchanged since last processed");
+            return;
+        }
+
+        Properties props = new Properties();
+        if (persistenceUnitProperties != null)
+        {
+            // Persistence-unit resolved into the input files, so the enhancer still needs its properties
+            props.putAll(persistenceUnitProperties);
+        }
+        if (alwaysDetachable)
+        {
+            props.setProperty("datanucleus.metadata.alwaysDetachable", "true");
+        }
+        if (ignoreMetaDataForMissingClasses)
+        {
+            props.setProperty("datanucleus.metadata.ignoreMetaDataForMissingClasses", "true");
+        }
+
+        // Classes already enhanced before the run, to report them apart from those it enhances
+        Set<File> alreadyEnhancedFiles = new HashSet<>();
+        if (!checkOnly)
+        {
+            for (File file : processedClassFiles)
+            {
+                try
+                {
+                    if (ClassFileInfo.read(file).isPersistable())
+                    {
+                        alreadyEnhancedFiles.add(file);
+                    }
+                }
+                catch (IOException e)
+                {
+                    // Reported as unreadable after the run
+                }
+            }
+        }
+
+        URLClassLoader loader = createIsolatedClassLoader(cpEntries, quiet);
+        ClassLoader tl = Thread.currentThread().getContextClassLoader();
+        boolean acquired = acquireToolPermit();
+        long startTime = System.currentTimeMillis();
+        int numReported;
+        try
+        {
+            Thread.currentThread().setContextClassLoader(loader);
+
+            EnhancerInvoker enhancer = new EnhancerInvoker(loader, api, props);
+            enhancer.setVerbose(verbose);
+            enhancer.setSystemOut(!quiet);
+            enhancer.setGeneratePK(generatePK);
+            enhancer.setGenerateConstructor(generateConstructor);
+            enhancer.setDetachListener(detachListener);
+            if (outputDir != null)
+            {
+                enhancer.setOutputDirectory(outputDir);
+            }
+            if (usingPU)
+            {
+                enhancer.addPersistenceUnit(persistenceUnitName);
+            }
+            else
+            {
+                String[] fileNames = new String[inputFiles.size()];
+                for (int i = 0; i < fileNames.length; i++)
+                {
+                    fileNames[i] = inputFiles.get(i).getAbsolutePath();
+                }
+                enhancer.addFiles(fileNames);
+            }
+
+            numReported = checkOnly ? enhancer.validate() : enhancer.enhance();
+        }
+        catch (Exception e)
+        {
+            throw new MojoExecutionException("Error executing DataNucleus tool " + getToolName(), e);
+        }
+        finally
+        {
+            Thread.currentThread().setContextClassLoader(tl);
+            releaseToolPermit(acquired);
+        }
+        long time = System.currentTimeMillis() - startTime;
+
+        // Result of each class, from the class files written. The enhancer only times the run, so each class has the average time
+        int numPersistable = 0;
+        int numAlreadyEnhanced = 0;
+        int numOther = 0;
+        String averageTime = processedClassFiles.isEmpty() ? "" : String.valueOf(time / processedClassFiles.size());
+        File resultsFile = new File(workDirectory, resultsName + ".csv");
+        resultsFile.getParentFile().mkdirs();
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(resultsFile), "UTF-8"))
+        {
+            w.write("class,result,averageTimeMs,file\n");
+            for (File file : processedClassFiles)
+            {
+                String result;
+                String className = file.getName();
+                try
+                {
+                    // The enhancer only writes the classes it enhances, so a class with no enhanced file is as input
+                    File enhancedFile = getEnhancedFile(file, outputDir);
+                    ClassFileInfo info = ClassFileInfo.read(enhancedFile.exists() ? enhancedFile : file);
+                    className = info.getClassName();
+                    if (info.isPersistable() && alreadyEnhancedFiles.contains(file))
+                    {
+                        result = "already-enhanced";
+                        numAlreadyEnhanced++;
+                    }
+                    else if (info.isPersistable())
+                    {
+                        result = "enhanced";
+                        numPersistable++;
+                    }
+                    else
+                    {
+                        result = checkOnly ? "not-enhanced" : "not-persistable";
+                        numOther++;
+                    }
+                }
+                catch (IOException e)
+                {
+                    result = "unreadable";
+                    numOther++;
+                }
+                w.write(className + "," + result + "," + averageTime + "," + file.getAbsolutePath() + "\n");
+            }
+            for (File file : skippedClassFiles)
+            {
+                w.write(file.getName() + ",unchanged,," + file.getAbsolutePath() + "\n");
+            }
+        }
+        catch (IOException e)
+        {
+            getLog().warn("Unable to write enhancer results : " + e.getMessage());
+        }
+
+        getLog().info("DataNucleus Enhancer : " + (checkOnly ? "validated " : "enhanced ") + numReported + " classes in " + time + " ms (" +
+            numPersistable + " persistable, " + (checkOnly ? "" : numAlreadyEnhanced + " already enhanced, ") + numOther + " other, " +
+            skippedClassFiles.size() + " unchanged and skipped" +
+            (processedClassFiles.isEmpty() ? "" : ", average " + averageTime + " ms per class processed") + "). Results in " + resultsFile);
+
+        record.addAll(inputFiles);
+        try
+        {
+            record.write(recordFile);
+        }
+        catch (IOException e)
+        {
+            getLog().warn("Unable to write enhancement record : " + e.getMessage());
+        }
+    }
+
+    /**
+     * Method to find the unchanged input class files that have a changed input class file as a superclass (directly or
+     * not), and so are to be processed again with the metadata they inherit.
+     * @param files The input files
+     * @param record Record of the input files last processed
+     * @return The unchanged class files with a changed superclass
+     */
+    private Set<File> getClassFilesWithChangedSuperclass(List files, EnhancementRecord record)
+    {
+        Set<File> changedSuperclassFiles = new HashSet<>();
+        List<File> unchangedClassFiles = new ArrayList<>();
+        boolean classChanged = false;
+        for (Iterator it = files.iterator(); it.hasNext();)
+        {
+            File file = (File) it.next();
+            if (file.getName().endsWith(".class"))
+            {
+                if (record.isUnchanged(file))
                 {
-                    File file = (File) it.next();
-                    args.add(file.getAbsolutePath());
+                    unchangedClassFiles.add(file);
+                }
+                else
+                {
+                    classChanged = true;
                 }
             }
+        }
+        if (!classChanged || unchangedClassFiles.isEmpty())
+        {
+            return changedSuperclassFiles;
+        }
 
-            executeInJvm(TOOL_NAME_DATANUCLEUS_ENHANCER, args, cpEntries, quiet);
+        // Superclass of each input class, and the classes changed
+        Map<String, String> superclassNames = new HashMap<>();
+        Map<File, String> unchangedClassNames = new HashMap<>();
+        Set<String> changedClassNames = new HashSet<>();
+        for (Iterator it = files.iterator(); it.hasNext();)
+        {
+            File file = (File) it.next();
+            if (!file.getName().endsWith(".class"))
+            {
+                continue;
+            }
+            try
+            {
+                ClassFileInfo info = ClassFileInfo.read(file);
+                superclassNames.put(info.getClassName(), info.getSuperclassName());
+                if (record.isUnchanged(file))
+                {
+                    unchangedClassNames.put(file, info.getClassName());
+                }
+                else
+                {
+                    changedClassNames.add(info.getClassName());
+                }
+            }
+            catch (IOException e)
+            {
+                // Unreadable, so processed again
+                changedSuperclassFiles.add(file);
+            }
         }
+
+        for (Map.Entry<File, String> entry : unchangedClassNames.entrySet())
+        {
+            Set<String> ancestors = new HashSet<>();
+            String superclassName = superclassNames.get(entry.getValue());
+            while (superclassName != null && ancestors.add(superclassName))
+            {
+                if (changedClassNames.contains(superclassName))
+                {
+                    changedSuperclassFiles.add(entry.getKey());
+                    break;
+                }
+                superclassName = superclassNames.get(superclassName);
+            }
+        }
+        return changedSuperclassFiles;
+    }
+
+    /**
+     * Accessor for the enhanced version of an input class file that remains after the run. Extensions that have the
+     * enhancer write to a staging directory override this to give the file the class is published to.
+     * @param file The input class file
+     * @param outputDir Output directory of the enhancer, or null if enhancing in place
+     * @return The enhanced class file
+     */
+    protected File getPublishedEnhancedFile(File file, String outputDir)
+    {
+        return getEnhancedFile(file, outputDir);
+    }
+
+    /**
+     * Accessor for the enhanced version of an input class file.
+     * @param file The input class file
+     * @param outputDir Output directory of the enhancer, or null if enhancing in place
+     * @return The enhanced class file
+     */
+    private File getEnhancedFile(File file, String outputDir)
+    {
+        String relativePath = outputDir != null ? getInputRelativePath(file) : null;
+        return relativePath != null ? new File(outputDir, relativePath) : file;
     }
 
     /**
@@ -330,57 +838,71 @@ public abstract class AbstractEnhancerMojo extends AbstractDataNucleusMojo
             }
             else if (!"auto".equalsIgnoreCase(useFileListFile))
             {
-                System.err.println("WARNING: useFileListFile is an unknown value! Falling back to default!");
+                getLog().warn("useFileListFile has unknown value '" + useFileListFile + "', so using the default (auto)");
             }
         }
-        // 'auto' means true on Windows and false on other systems. Maybe we'll change this in the
-        // future to always be true as the command line might be limited on other systems, too.
+        // 'auto' means true, so that neither the command line of a forked enhancer nor the arguments of an
+        // in-JVM enhancer grow with the number of input files. Command lines are limited on all systems.
         // See: http://www.cyberciti.biz/faq/argument-list-too-long-error-solution/
-        // See: http://serverfault.com/questions/69430/what-is-the-maximum-length-of-a-command-line-in-mac-os-x
-        return File.separatorChar == '\\';
+        return true;
     }
 
     /**
-     * Writes the given {@code files} into a temporary file. The file is deleted by the enhancer.
-     * @param files the list of files to be written into the file (UTF-8-encoded). Must not be
-     * <code>null</code>.
-     * @return the temporary file.
+     * {@inheritDoc}
+     * The metadata directory is scanned straight into the file list file of this goal when the input files are only
+     * passed to the enhancer (forked, or through its command line entry point) in a file list.
+     * @see org.datanucleus.maven.AbstractDataNucleusMojo#getFileListFileForScan()
      */
-    private static File writeFileListFile(Collection<File> files)
+    @Override
+    protected File getFileListFileForScan()
     {
-        try
+        if ((fork || !useEnhancerApi) && determineUseFileListFile())
         {
-            File fileListFile = File.createTempFile("enhancer-", ".flf");
-            System.out.println("Writing fileListFile: " + fileListFile);
-            FileOutputStream out = new FileOutputStream(fileListFile);
-            try
-            {
-                OutputStreamWriter w = new OutputStreamWriter(out, "UTF-8");
-                try
-                {
-                    for (File file : files)
-                    {
-                        w.write(file.getAbsolutePath());
-                        // The enhancer uses a BufferedReader, which accepts all types of line feeds (CR, LF,
-                        // CRLF).
-                        // Therefore a single \n is fine.
-                        w.write('\n');
-                    }
-                }
-                finally
-                {
-                    w.close();
-                }
-            }
-            finally
+            return getFileListFile();
+        }
+        return null;
+    }
+
+    private File getFileListFile()
+    {
+        return new File(workDirectory, "enhancer-files" + (isTestGoal() ? "-test" : "") + ".flf");
+    }
+
+    /**
+     * Writes the given {@code files} into the file list file of this goal in the work directory, streaming each path
+     * straight to the file. The file is reused by subsequent runs, and deleted once the enhancer has completed.
+     * @param files the list of files to be written into the file (UTF-8-encoded). Must not be <code>null</code>.
+     * @return the file list file.
+     * @throws MojoExecutionException If an error occurs writing the file
+     */
+    private File writeFileListFile(Collection<File> files)
+    throws MojoExecutionException
+    {
+        File fileListFile = getFileListFile();
+        fileListFile.getParentFile().mkdirs();
+        getLog().debug("Writing fileListFile: " + fileListFile);
+        try (Writer w = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fileListFile), "UTF-8")))
+        {
+            for (File file : files)
             {
-                out.close();
+                w.write(file.getAbsolutePath());
+                // The enhancer uses a BufferedReader, which accepts all types of line feeds (CR, LF, CRLF).
+                // Therefore a single \n is fine.
+                w.write('\n');
             }
-            return fileListFile;
         }
         catch (IOException e)
         {
-            throw new RuntimeException(e);
+            throw new MojoExecutionException("Error writing enhancer file list " + fileListFile.getAbsolutePath(), e);
+        }
+        return fileListFile;
+    }
+
+    private void deleteFileListFile(File fileListFile)
+    {
+        if (fileListFile != null && fileListFile.exists() && !fileListFile.delete())
+        {
+            getLog().debug("Unable to delete fileListFile: " + fileListFile);
         }
     }
-}
\ No newline at end of file
+}
@@ -19,19 +19,41 @@ Contributors:
 **********************************************************************/
 package org.datanucleus.maven;
 
-import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.codehaus.plexus.util.cli.CommandLineException;
 import org.codehaus.plexus.util.cli.Commandline;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Extensions of this class implement the
@@ -89,6 +111,15 @@ public abstract class AbstractSchemaToolMojo extends AbstractDataNucleusMojo
     /** Qualified name for SchemaTool main class. */
     private static final String TOOL_NAME_SCHEMA_TOOL = "org.datanucleus.store.schema.SchemaTool";
 
+    /** Persistence property for the default schema of the datastore tables. */
+    private static final String PROPERTY_MAPPING_SCHEMA = "datanucleus.mapping.Schema";
+
+    /** Persistence property for the default catalog of the datastore tables. */
+    private static final String PROPERTY_MAPPING_CATALOG = "datanucleus.mapping.Catalog";
+
+    /** Range in a schema name, such as "{1..200}". */
+    private static final Pattern SCHEMA_RANGE = Pattern.compile("\\{(\\d+)\\.\\.(\\d+)\\}");
+
     /**
      * @parameter property="props" default-value=""
      */
@@ -112,6 +143,23 @@ public abstract class AbstractSchemaToolMojo extends AbstractDataNucleusMojo
      */
     protected String schemaName;
 
+    /**
+     * Schemas to run the goal for, in one tool process, as comma-separated names in which a range "{m..n}" expands to
+     * each number of the range (for example "tenant_{1..200}", or "tenant_{001..200}" for zero-padded numbers).
+     * Each schema is run with its own persistence properties file, setting "datanucleus.mapping.Schema" (and
+     * "datanucleus.mapping.Catalog" from "catalogName"), and is the schema of the createdatabase/deletedatabase goals.
+     * The result of each schema is written to "schema-runs.csv" in the work directory.
+     * @parameter property="tenantSchemas"
+     */
+    protected String tenantSchemas;
+
+    /**
+     * Maximum number of "tenantSchemas" run concurrently, each using its own datastore connections. The schemas
+     * count as one tool for "maxConcurrentTools", whether forked or not.
+     * @parameter property="tenantParallelism" default-value="4"
+     */
+    protected int tenantParallelism;
+
     /**
      * File to which DDL SQL is written.
      * @parameter property="ddlFile" default-value=""
@@ -128,12 +176,36 @@ public abstract class AbstractSchemaToolMojo extends AbstractDataNucleusMojo
      */
     protected boolean includeAutoStart;
 
+    /**
+     * Maximum number of connections used to run independent statements concurrently, when applying a DDL script.
+     * @parameter property="applyConnections" default-value="4"
+     */
+    protected int applyConnections;
+
+    /**
+     * Maximum number of statements in a JDBC batch when applying a DDL script (1 to not use batches).
+     * @parameter property="applyBatchSize" default-value="100"
+     */
+    protected int applyBatchSize;
+
     /**
      * @parameter property="classpath" default-value="${project.compileClasspathElements}"
      * @required
      */
     private List classpathElements;
 
+    /** Target being run, when run for several targets. */
+    private SchemaTarget currentTarget;
+
+    /** Schema being run, when run for several "tenantSchemas". */
+    private String currentSchema;
+
+    /** Persistence properties file generated for the run, for a schema or for properties of the <b>mode</b> invoked. */
+    private File currentPropsFile;
+
+    /** File defining the runs in the forked tool JVM, while it is executing. */
+    private File runsFile;
+
     @Override
     List getClasspathElements()
     {
@@ -147,7 +219,25 @@ public abstract class AbstractSchemaToolMojo extends AbstractDataNucleusMojo
     protected void executeDataNucleusTool(List pluginArtifacts, List files)
     throws CommandLineException, MojoExecutionException
     {
-        executeSchemaTool(pluginArtifacts, files);
+        if (isRunSeveralTimes() || !isModePropertiesOverriding() || getModeSpecificToolProperties() == null)
+        {
+            executeSchemaTool(pluginArtifacts, files);
+            return;
+        }
+
+        // Properties of the mode are passed in a properties file, since those of "props" or the persistence-unit override system properties
+        File propsFile = new File(new File(workDirectory, "schema-runs"), "schema-tool.properties");
+        writeRunPropsFile(propsFile, getDatastoreProperties(), "Persistence properties of DataNucleus tool " + getToolName());
+        currentPropsFile = propsFile;
+        try
+        {
+            executeSchemaTool(pluginArtifacts, files);
+        }
+        finally
+        {
+            currentPropsFile = null;
+            propsFile.delete();
+        }
     }
 
     /**
@@ -165,33 +255,7 @@ public abstract class AbstractSchemaToolMojo extends AbstractDataNucleusMojo
     throws CommandLineException, MojoExecutionException
     {
         // Generate a set of CLASSPATH entries (avoiding dups)
-        // Put plugin deps first so they are found before any project-specific artifacts
-        List cpEntries = new ArrayList();
-        for (Iterator it = pluginArtifacts.iterator(); it.hasNext();)
-        {
-            Artifact artifact = (Artifact) it.next();
-            try
-            {
-                String artifactPath = artifact.getFile().getCanonicalPath();
-                if (!cpEntries.contains(artifactPath))
-                {
-                    cpEntries.add(artifactPath);
-                }
-            }
-            catch (IOException e)
-            {
-                throw new MojoExecutionException("Error while creating the canonical path for '" + artifact.getFile() + "'.", e);
-            }
-        }
-        Iterator uniqueIter = getUniqueClasspathElements().iterator();
-        while (uniqueIter.hasNext())
-        {
-            String entry = (String)uniqueIter.next();
-            if (!cpEntries.contains(entry))
-            {
-                cpEntries.add(entry);
-            }
-        }
+        List cpEntries = getToolClasspathEntries(pluginArtifacts);
 
         // Set the CLASSPATH of the java process
         StringBuffer cpBuffer = new StringBuffer();
@@ -236,6 +300,18 @@ public abstract class AbstractSchemaToolMojo extends AbstractDataNucleusMojo
                 }
             }
 
+            // Add on any properties required by the mode of SchemaTool (set for each run when run several times)
+            List<SchemaRun> runs = isRunSeveralTimes() ? prepareRuns(null) : null;
+            Properties modeProperties = runs != null ? null : getModeSpecificToolProperties();
+            if (modeProperties != null)
+            {
+                for (Iterator it = modeProperties.keySet().iterator(); it.hasNext();)
+                {
+                    String key = (String) it.next();
+                    cl.createArg().setValue("-D" + key + "=" + modeProperties.getProperty(key));
+                }
+            }
+
             // Logging - check for Log4j, else Log4j2, else JDK1.4
             URL log4jURL = getLog4JConfiguration();
             if (log4jURL != null)
@@ -259,89 +335,748 @@ public abstract class AbstractSchemaToolMojo extends AbstractDataNucleusMojo
                 }
             }
 
-            cl.createArg().setValue(TOOL_NAME_SCHEMA_TOOL);
+            if (runs != null)
+            {
+                // The options of each run are in the runs file, with only the input files common
+                runsFile = writeRuns(runs);
+            }
+            addToolClassArguments(cl, TOOL_NAME_SCHEMA_TOOL);
+
+            boolean usingPU = isRunForPersistenceUnit();
+            if (runs == null)
+            {
+                // allow extensions to prepare Mode specific arguments
+                prepareModeSpecificCommandLineArguments(cl, null);
+
+                if (verbose)
+                {
+                    cl.createArg().setValue("-v");
+                }
+
+                if (usingPU)
+                {
+                    cl.createArg().setLine("-pu " + persistenceUnitName);
+                }
+                if (ignoreMetaDataForMissingClasses)
+                {
+                    cl.createArg().setValue("-ignoreMetaDataForMissingClasses");
+                }
+
+                cl.createArg().setLine("-api " + api);
 
-            // allow extensions to prepare Mode specific arguments
-            prepareModeSpecificCommandLineArguments(cl, null);
+                String propsFile = getPropsFile();
+                if (propsFile != null)
+                {
+                    cl.createArg().setValue("-props");
+                    cl.createArg().setValue(propsFile);
+                }
+            }
 
-            if (verbose)
+            if (!usingPU && !isPipelined())
             {
-                cl.createArg().setValue("-v");
+                for (Iterator it = files.iterator(); it.hasNext();)
+                {
+                    File file = (File) it.next();
+                    cl.createArg().setValue(file.getAbsolutePath());
+                }
             }
 
-            boolean usingPU = false;
-            if (persistenceUnitName != null && persistenceUnitName.trim().length() > 0)
+            if (runs == null)
             {
-                usingPU = true;
-                cl.createArg().setLine("-pu " + persistenceUnitName);
+                executeCommandLine(cl);
+                return;
             }
-            if (ignoreMetaDataForMissingClasses)
+
+            MojoExecutionException failure = null;
+            try
+            {
+                executeCommandLine(cl);
+            }
+            catch (MojoExecutionException e)
+            {
+                // Failed runs are reported from their results
+                failure = e;
+            }
+            List<String[]> results;
+            try
+            {
+                results = readRunResults(runs);
+            }
+            finally
+            {
+                new File(runsFile.getPath() + ForkedToolLauncher.RESULTS_SUFFIX).delete();
+                runsFile.delete();
+                runsFile = null;
+                deleteRunPropsFiles(runs);
+            }
+            reportRunResults(results, failure);
+        }
+        else if (isRunSeveralTimes())
+        {
+            // Execute each run in the current JVM, sharing the loaded classes
+            List<SchemaRun> runs = prepareRuns(files);
+            URLClassLoader loader = createIsolatedClassLoader(cpEntries, false);
+            try
+            {
+                reportRunResults(executeRunsInJvm(runs, loader), null);
+            }
+            finally
+            {
+                deleteRunPropsFiles(runs);
+                try
+                {
+                    loader.close();
+                }
+                catch (IOException e)
+                {
+                    getLog().debug("Error closing class loader of DataNucleus tool " + getToolName() + " : " + e.getMessage());
+                }
+            }
+        }
+        else
+        {
+            // Execute in the current JVM, so build up list of arguments to the method invoke
+            executeInJvm(TOOL_NAME_SCHEMA_TOOL, getRunArguments(files), cpEntries, false, getInJvmSystemProperties(true));
+        }
+    }
+
+    /**
+     * Method to generate the arguments of an invocation of SchemaTool in the current JVM, or of a run of a target
+     * in the forked tool JVM.
+     * @param files Input files, or null to omit them
+     * @return The arguments
+     */
+    private List getRunArguments(List files)
+    {
+        List args = new ArrayList();
+
+        // allow extensions to prepare Mode specific arguments (to the command line when forking)
+        Commandline modeCl = new Commandline();
+        prepareModeSpecificCommandLineArguments(modeCl, args);
+        args.addAll(Arrays.asList(modeCl.getArguments()));
+
+        if (verbose)
+        {
+            args.add("-v");
+        }
+
+        boolean usingPU = false;
+        if (isRunForPersistenceUnit())
+        {
+            usingPU = true;
+            args.add("-pu");
+            args.add(persistenceUnitName);
+        }
+        if (ignoreMetaDataForMissingClasses)
+        {
+            args.add("-ignoreMetaDataForMissingClasses");
+        }
+
+        args.add("-api");
+        args.add(api);
+
+        String propsFile = getPropsFile();
+        if (propsFile != null)
+        {
+            args.add("-props");
+            args.add(propsFile);
+        }
+
+        if (!usingPU && files != null)
+        {
+            for (Iterator it = files.iterator(); it.hasNext();)
             {
-                cl.createArg().setValue("-ignoreMetaDataForMissingClasses");
+                File file = (File) it.next();
+                args.add(file.getAbsolutePath());
             }
+        }
+        return args;
+    }
 
-            cl.createArg().setLine("-api " + api);
+    /**
+     * Accessor for the system properties of an invocation of SchemaTool for the current target, being those of the
+     * <b>mode</b> invoked and the properties of the target.
+     * @return The properties
+     */
+    private Properties getRunSystemProperties()
+    {
+        Properties runProps = new Properties();
+        Properties modeProperties = getModeSpecificToolProperties();
+        if (modeProperties != null)
+        {
+            runProps.putAll(modeProperties);
+        }
+        if (currentTarget != null && currentTarget.getProperties() != null)
+        {
+            runProps.putAll(currentTarget.getProperties());
+        }
+        return runProps;
+    }
 
-            if (props != null)
+    /**
+     * Method to prepare the runs of SchemaTool, for each target or for each of the "tenantSchemas".
+     * @param files Input files, or null to omit them from the arguments
+     * @return The runs
+     * @throws MojoExecutionException If both targets and schemas are specified, or an error occurs writing the
+     *     properties file of a target or schema
+     */
+    List<SchemaRun> prepareRuns(List files)
+    throws MojoExecutionException
+    {
+        List<SchemaRun> runs = new ArrayList<>();
+        List targets = getSchemaTargets();
+        if (targets != null && !targets.isEmpty())
+        {
+            if (tenantSchemas != null && tenantSchemas.trim().length() > 0)
             {
-                cl.createArg().setLine("-props " + props);
+                throw new MojoExecutionException("The 'tenantSchemas' cannot be combined with several targets");
             }
+            try
+            {
+                for (Iterator it = targets.iterator(); it.hasNext();)
+                {
+                    currentTarget = (SchemaTarget) it.next();
 
-            if (!usingPU)
+                    // Properties of the target and mode are passed in a properties file, since those of "props" or the persistence-unit override system properties
+                    File targetPropsFile = new File(new File(workDirectory, "schema-runs"), "target-" + (runs.size() + 1) + ".properties");
+                    writeRunPropsFile(targetPropsFile, getDatastoreProperties(), "Persistence properties of target " + currentTarget);
+                    currentPropsFile = targetPropsFile;
+                    runs.add(new SchemaRun(currentTarget.toString(), getRunArguments(files), getRunSystemProperties(), targetPropsFile));
+                    currentPropsFile = null;
+                }
+            }
+            catch (MojoExecutionException e)
             {
-                for (Iterator it = files.iterator(); it.hasNext();)
+                deleteRunPropsFiles(runs);
+                throw e;
+            }
+            finally
+            {
+                currentTarget = null;
+                currentPropsFile = null;
+            }
+            return runs;
+        }
+
+        File schemaPropsDir = new File(workDirectory, "schema-runs");
+        Properties datastoreProps = getDatastoreProperties();
+        try
+        {
+            for (String schema : expandSchemaNames(tenantSchemas))
+            {
+                // Each schema has its own properties file, rather than system properties, so that schemas can run concurrently
+                Properties schemaProps = new Properties();
+                schemaProps.putAll(datastoreProps);
+                schemaProps.setProperty(PROPERTY_MAPPING_SCHEMA, schema);
+                if (catalogName != null && catalogName.length() > 0)
                 {
-                    File file = (File) it.next();
-                    cl.createArg().setValue(file.getAbsolutePath());
+                    schemaProps.setProperty(PROPERTY_MAPPING_CATALOG, catalogName);
                 }
+                File schemaPropsFile = new File(schemaPropsDir, schema + ".properties");
+                writeRunPropsFile(schemaPropsFile, schemaProps, "Persistence properties of schema " + schema);
+
+                currentSchema = schema;
+                currentPropsFile = schemaPropsFile;
+                runs.add(new SchemaRun(schema, getRunArguments(files), null, schemaPropsFile));
             }
+        }
+        catch (MojoExecutionException e)
+        {
+            deleteRunPropsFiles(runs);
+            throw e;
+        }
+        finally
+        {
+            currentSchema = null;
+            currentPropsFile = null;
+        }
+        return runs;
+    }
 
-            executeCommandLine(cl);
+    /**
+     * Method to write the persistence properties of a run to a file, which SchemaTool is then given by "-props".
+     * @param file The file
+     * @param runProps The properties
+     * @param comment Comment for the file
+     * @throws MojoExecutionException If an error occurs writing the file
+     */
+    private static void writeRunPropsFile(File file, Properties runProps, String comment)
+    throws MojoExecutionException
+    {
+        file.getParentFile().mkdirs();
+        try (OutputStream os = new FileOutputStream(file))
+        {
+            runProps.store(os, comment);
         }
-        else
+        catch (IOException e)
         {
-            // Execute in the current JVM, so build up list of arguments to the method invoke
-            List args = new ArrayList();
+            throw new MojoExecutionException("Error writing properties file '" + file.getAbsolutePath() + "'.", e);
+        }
+    }
+
+    /**
+     * Method to expand the "tenantSchemas" to the names of the schemas.
+     * @param schemaNames Comma-separated names, with optional ranges "{m..n}"
+     * @return The schema names, in order and without duplicates
+     * @throws MojoExecutionException If a range is invalid
+     */
+    static List<String> expandSchemaNames(String schemaNames)
+    throws MojoExecutionException
+    {
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : schemaNames.split(","))
+        {
+            name = name.trim();
+            if (name.length() > 0)
+            {
+                expandSchemaName(name, names);
+            }
+        }
+        return new ArrayList<>(names);
+    }
 
-            // allow extensions to prepare Mode specific arguments
-            prepareModeSpecificCommandLineArguments(null, args);
+    private static void expandSchemaName(String name, Set<String> names)
+    throws MojoExecutionException
+    {
+        Matcher matcher = SCHEMA_RANGE.matcher(name);
+        if (!matcher.find())
+        {
+            names.add(name);
+            return;
+        }
+        String first = matcher.group(1);
+        long from = Long.parseLong(first);
+        long to = Long.parseLong(matcher.group(2));
+        if (to < from)
+        {
+            throw new MojoExecutionException("Invalid range in schema name '" + name + "'");
+        }
+        String format = first.length() > 1 && first.startsWith("0") ? "%0" + first.length() + "d" : "%d";
+        for (long i = from; i <= to; i++)
+        {
+            expandSchemaName(name.substring(0, matcher.start()) + String.format(format, i) + name.substring(matcher.end()), names);
+        }
+    }
 
-            if (verbose)
+    /**
+     * Method to write the runs file for the {@link ForkedToolLauncher}, with the system properties and arguments of
+     * each run.
+     * @param runs The runs
+     * @return The runs file
+     * @throws MojoExecutionException If an error occurs writing the file
+     */
+    private File writeRuns(List<SchemaRun> runs)
+    throws MojoExecutionException
+    {
+        File file = new File(workDirectory, "schema.runs");
+        file.getParentFile().mkdirs();
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(file), "UTF-8"))
+        {
+            for (SchemaRun run : runs)
             {
-                args.add("-v");
+                w.write(ForkedToolLauncher.RUN_START + " " + run.name + "\n");
+                if (run.systemProperties != null)
+                {
+                    for (Iterator propIter = run.systemProperties.keySet().iterator(); propIter.hasNext();)
+                    {
+                        String key = (String) propIter.next();
+                        w.write("-D" + key + "=" + run.systemProperties.getProperty(key) + "\n");
+                    }
+                }
+                for (Iterator argIter = run.arguments.iterator(); argIter.hasNext();)
+                {
+                    w.write(argIter.next() + "\n");
+                }
             }
+        }
+        catch (IOException e)
+        {
+            throw new MojoExecutionException("Error writing the runs of DataNucleus tool " + getToolName() + " to " + file, e);
+        }
+        return file;
+    }
 
-            boolean usingPU = false;
-            if (persistenceUnitName != null && persistenceUnitName.trim().length() > 0)
+    /**
+     * Method to read the results of the runs in the forked tool JVM, written by the {@link ForkedToolLauncher}.
+     * Runs without a result (where the JVM exited during a run) are reported as failed.
+     * @param runs The runs
+     * @return The result of each run, as {name, OK|FAILED, time in ms, message}
+     */
+    private List<String[]> readRunResults(List<SchemaRun> runs)
+    {
+        Map<String, String[]> resultsByName = new HashMap<>();
+        File resultsFile = new File(runsFile.getPath() + ForkedToolLauncher.RESULTS_SUFFIX);
+        if (resultsFile.exists())
+        {
+            try
             {
-                usingPU = true;
-                args.add("-pu");
-                args.add(persistenceUnitName);
+                for (String line : Files.readAllLines(resultsFile.toPath(), StandardCharsets.UTF_8))
+                {
+                    String[] result = line.split("\t", 4);
+                    if (result.length == 4)
+                    {
+                        resultsByName.put(result[0], result);
+                    }
+                }
             }
-            if (ignoreMetaDataForMissingClasses)
+            catch (IOException e)
             {
-                args.add("-ignoreMetaDataForMissingClasses");
+                getLog().warn("Unable to read the results of DataNucleus tool " + getToolName() + " from " + resultsFile + " : " + e);
             }
+        }
 
-            args.add("-api");
-            args.add(api);
+        List<String[]> results = new ArrayList<>();
+        for (SchemaRun run : runs)
+        {
+            String[] result = resultsByName.get(run.name);
+            results.add(result != null ? result : new String[] {run.name, ForkedToolLauncher.RESULT_FAILED, "", "no result"});
+        }
+        return results;
+    }
 
-            if (props != null)
+    /**
+     * Accessor for the system properties of SchemaTool when run in the current JVM, matching the -D arguments of a
+     * forked run: the "toolProperties" (overridden by any system property of the same name), and optionally those
+     * of the <b>mode</b> invoked.
+     * @param withModeProperties Whether to include the properties of the mode
+     * @return The system properties
+     */
+    Properties getInJvmSystemProperties(boolean withModeProperties)
+    {
+        Properties sysProps = new Properties();
+        if (toolProperties != null)
+        {
+            Properties systemProperties = System.getProperties();
+            for (Iterator it = toolProperties.keySet().iterator(); it.hasNext();)
             {
-                args.add("-props");
-                args.add(props);
+                String key = (String) it.next();
+                String val = systemProperties.containsKey(key) ? systemProperties.getProperty(key) : toolProperties.getProperty(key);
+                sysProps.setProperty(key, val != null ? val : "");
             }
+        }
+        Properties modeProperties = withModeProperties ? getModeSpecificToolProperties() : null;
+        if (modeProperties != null)
+        {
+            sysProps.putAll(modeProperties);
+        }
+        return sysProps;
+    }
 
-            if (!usingPU)
+    /**
+     * Method to execute the runs of SchemaTool in the current JVM, running up to "tenantParallelism" schemas
+     * concurrently (targets are run one at a time, since they have system properties). As for the runs in a forked
+     * tool JVM, all runs take one permit of "maxConcurrentTools" between them.
+     * @param runs The runs
+     * @param loader Loader for the tool, shared by the runs
+     * @return The result of each run, as {name, OK|FAILED, time in ms, message}
+     * @throws MojoExecutionException If interrupted
+     */
+    List<String[]> executeRunsInJvm(List<SchemaRun> runs, ClassLoader loader)
+    throws MojoExecutionException
+    {
+        int parallelism = getRunParallelism(runs);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+
+        // System properties are global, so the tool properties and logging configuration are set once for all runs
+        boolean acquired = acquireToolPermit();
+        Map<String, String> oldSysProps = setToolSystemProperties(getInJvmSystemProperties(false));
+        try
+        {
+            List<Future<String[]>> futures = new ArrayList<>();
+            for (final SchemaRun run : runs)
             {
-                for (Iterator it = files.iterator(); it.hasNext();)
+                futures.add(executor.submit(new Callable<String[]>()
                 {
-                    File file = (File) it.next();
-                    args.add(file.getAbsolutePath());
+                    public String[] call()
+                    {
+                        long startTime = System.currentTimeMillis();
+                        try
+                        {
+                            if (run.systemProperties != null)
+                            {
+                                // Run of a target, not run concurrently
+                                Map<String, String> oldRunSysProps = setToolSystemProperties(run.systemProperties);
+                                try
+                                {
+                                    invokeToolMain(TOOL_NAME_SCHEMA_TOOL, run.arguments, loader);
+                                }
+                                finally
+                                {
+                                    restoreSystemProperties(oldRunSysProps);
+                                }
+                            }
+                            else
+                            {
+                                invokeToolMain(TOOL_NAME_SCHEMA_TOOL, run.arguments, loader);
+                            }
+                            return new String[] {run.name, ForkedToolLauncher.RESULT_OK, String.valueOf(System.currentTimeMillis() - startTime), ""};
+                        }
+                        catch (MojoExecutionException e)
+                        {
+                            getLog().debug(e);
+                            Throwable cause = e.getCause() != null ? e.getCause() : e;
+                            return new String[] {run.name, ForkedToolLauncher.RESULT_FAILED, String.valueOf(System.currentTimeMillis() - startTime),
+                                String.valueOf(cause)};
+                        }
+                    }
+                }));
+            }
+
+            List<String[]> results = new ArrayList<>();
+            for (Future<String[]> future : futures)
+            {
+                results.add(future.get());
+            }
+            return results;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted running DataNucleus tool " + getToolName(), e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new MojoExecutionException("Error running DataNucleus tool " + getToolName(), e.getCause());
+        }
+        finally
+        {
+            executor.shutdownNow();
+            restoreSystemProperties(oldSysProps);
+            releaseToolPermit(acquired);
+        }
+    }
+
+    /**
+     * Method to report the results of the runs, logging each failed run and writing the result of each run to
+     * "schema-runs.csv" in the work directory.
+     * @param results The result of each run
+     * @param failure Failure of the forked tool JVM, if any
+     * @throws MojoExecutionException If any run failed
+     */
+    private void reportRunResults(List<String[]> results, MojoExecutionException failure)
+    throws MojoExecutionException
+    {
+        int failed = 0;
+        long totalTime = 0;
+        File reportFile = new File(workDirectory, "schema-runs.csv");
+        reportFile.getParentFile().mkdirs();
+        try (Writer w = new OutputStreamWriter(new FileOutputStream(reportFile), "UTF-8"))
+        {
+            w.write("run,result,timeMs,message\n");
+            for (String[] result : results)
+            {
+                boolean ok = ForkedToolLauncher.RESULT_OK.equals(result[1]);
+                if (!ok)
+                {
+                    failed++;
+                    getLog().error("DataNucleus tool " + getToolName() + " failed for " + result[0] + " : " + result[3]);
+                }
+                else
+                {
+                    getLog().debug("DataNucleus tool " + getToolName() + " completed for " + result[0] + " in " + result[2] + " ms");
                 }
+                if (result[2].length() > 0)
+                {
+                    totalTime += Long.parseLong(result[2]);
+                }
+                w.write(result[0].replace(',', ';') + "," + result[1] + "," + result[2] + "," + result[3].replace(',', ';') + "\n");
+            }
+        }
+        catch (IOException e)
+        {
+            getLog().warn("Unable to write the results of DataNucleus tool " + getToolName() + " to " + reportFile + " : " + e);
+        }
+
+        getLog().info("DataNucleus tool " + getToolName() + " completed for " + (results.size() - failed) + " of " + results.size() +
+            " runs (total " + totalTime + " ms), results in " + reportFile);
+        if (failed > 0)
+        {
+            throw new MojoExecutionException("DataNucleus tool " + getToolName() + " failed for " + failed + " of " + results.size() + " runs", failure);
+        }
+        if (failure != null)
+        {
+            throw failure;
+        }
+    }
+
+    /**
+     * Accessor for the number of runs to execute concurrently, being "tenantParallelism" when run for several schemas.
+     * @param runs The runs
+     * @return The number of concurrent runs
+     */
+    private int getRunParallelism(List<SchemaRun> runs)
+    {
+        return runs.isEmpty() || runs.get(0).systemProperties != null ? 1 : Math.max(1, Math.min(tenantParallelism, runs.size()));
+    }
+
+    private static void deleteRunPropsFiles(List<SchemaRun> runs)
+    {
+        for (SchemaRun run : runs)
+        {
+            if (run.propsFile != null)
+            {
+                run.propsFile.delete();
             }
+        }
+    }
+
+    /**
+     * Accessor for the targets when the goal is run for several target datastores in one tool process.
+     * @return The targets ({@link SchemaTarget}), or null if run for the configured datastore
+     */
+    protected List getSchemaTargets()
+    {
+        return null;
+    }
+
+    /**
+     * Accessor for the target being run, when run for several targets.
+     * @return The target, or null
+     */
+    protected SchemaTarget getCurrentTarget()
+    {
+        return currentTarget;
+    }
 
-            executeInJvm(TOOL_NAME_SCHEMA_TOOL, args, cpEntries, false);
+    /**
+     * Accessor for the schema name, being the schema being run when run for several "tenantSchemas".
+     * @return The schema name
+     */
+    protected String getSchemaName()
+    {
+        return currentSchema != null ? currentSchema : schemaName;
+    }
+
+    /**
+     * Accessor for the DDL file of the run, being the file given suffixed by the schema when run for several
+     * "tenantSchemas", so that each schema writes its own file (e.g "schema.sql" becomes "schema-tenant_1.sql").
+     * @param file The DDL file (defaulting to "ddlFile" if null)
+     * @return The file path, or null if not writing DDL
+     */
+    protected String getSchemaDdlFile(String file)
+    {
+        if (file == null)
+        {
+            file = ddlFile;
+        }
+        if (file == null || file.trim().length() == 0)
+        {
+            return null;
+        }
+        file = file.trim();
+        if (currentSchema == null)
+        {
+            return file;
+        }
+        int extIdx = file.lastIndexOf('.');
+        return extIdx > Math.max(file.lastIndexOf('/'), file.lastIndexOf('\\')) ?
+            file.substring(0, extIdx) + "-" + currentSchema + file.substring(extIdx) : file + "-" + currentSchema;
+    }
+
+    /**
+     * Accessor for the schema being run, when run for several "tenantSchemas".
+     * @return The schema, or null
+     */
+    protected String getCurrentSchema()
+    {
+        return currentSchema;
+    }
+
+    /**
+     * Whether SchemaTool is run several times in one tool process, for several targets or several "tenantSchemas".
+     * @return Whether run several times
+     */
+    private boolean isRunSeveralTimes()
+    {
+        List targets = getSchemaTargets();
+        return (targets != null && !targets.isEmpty()) || (tenantSchemas != null && tenantSchemas.trim().length() > 0);
+    }
+
+    /**
+     * Accessor for the persistence properties file of the run, being that of the current schema or target if it has one.
+     * @return The file path, or null if none
+     */
+    private String getPropsFile()
+    {
+        if (currentPropsFile != null)
+        {
+            return currentPropsFile.getAbsolutePath();
+        }
+        if (currentTarget != null && currentTarget.getProps() != null && currentTarget.getProps().trim().length() > 0)
+        {
+            return currentTarget.getProps().trim();
+        }
+        return props;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The launcher is also used to run several targets or schemas.
+     * @see org.datanucleus.maven.AbstractDataNucleusMojo#isUsingLauncher()
+     */
+    @Override
+    protected boolean isUsingLauncher()
+    {
+        return super.isUsingLauncher() || (fork && isRunSeveralTimes());
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see org.datanucleus.maven.AbstractDataNucleusMojo#getToolRunsFile()
+     */
+    @Override
+    protected File getToolRunsFile()
+    {
+        return runsFile;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Schemas are run concurrently, up to "tenantParallelism".
+     * @see org.datanucleus.maven.AbstractDataNucleusMojo#getToolRunsParallelism()
+     */
+    @Override
+    protected int getToolRunsParallelism()
+    {
+        return tenantSchemas != null && tenantSchemas.trim().length() > 0 ? Math.max(1, tenantParallelism) : 1;
+    }
+
+    /**
+     * Method to apply a DDL script to the datastore.
+     * @param scriptFile The script
+     * @throws MojoExecutionException If an error occurs reading the script, connecting or executing a statement
+     */
+    protected void applyScript(File scriptFile) throws MojoExecutionException
+    {
+        List<DDLScript.Statement> statements;
+        try
+        {
+            statements = DDLScript.parse(scriptFile);
+        }
+        catch (IOException e)
+        {
+            throw new MojoExecutionException("Error reading DDL script '" + scriptFile.getAbsolutePath() + "'.", e);
+        }
+        if (statements.isEmpty())
+        {
+            getLog().warn("No statements in DDL script '" + scriptFile.getAbsolutePath() + "'");
+            return;
+        }
+
+        try (JdbcConnectionFactory connectionFactory = getConnectionFactory())
+        {
+            DDLScriptExecutor executor = new DDLScriptExecutor(connectionFactory, applyConnections, applyBatchSize, getLog());
+            try
+            {
+                executor.execute(statements);
+            }
+            catch (SQLException e)
+            {
+                throw new MojoExecutionException("Error applying DDL script '" + scriptFile.getAbsolutePath() + "' to " + connectionFactory.getURL() +
+                    " after " + executor.getStatementCount() + " of " + statements.size() + " statements : " + e.getMessage(), e);
+            }
+            getLog().info("Applied " + executor.getStatementCount() + " statements of DDL script '" + scriptFile.getAbsolutePath() + "' to " +
+                connectionFactory.getURL() + " in " + executor.getLevelCount() + " steps using " + executor.getConnectionCount() + " connections");
         }
     }
 
@@ -353,6 +1088,144 @@ public abstract class AbstractSchemaToolMojo extends AbstractDataNucleusMojo
      */
     protected abstract void prepareModeSpecificCommandLineArguments(Commandline cl, List args);
 
+    /**
+     * Accessor for any properties that the <b>mode</b> invoked needs to pass to SchemaTool, in addition
+     * to those specified by the user. These are passed as system properties to the SchemaTool execution.
+     * @return The properties, or null if none are required
+     */
+    protected Properties getModeSpecificToolProperties()
+    {
+        return null;
+    }
+
+    /**
+     * Whether the properties of the <b>mode</b> invoked (such as a connection URL) have to take precedence over those
+     * of the "props" file and persistence-unit. If so they are passed to SchemaTool in a persistence properties file
+     * generated from {@link #getDatastoreProperties()}, rather than only as system properties.
+     * @return Whether the properties of the mode override the datastore definition
+     */
+    protected boolean isModePropertiesOverriding()
+    {
+        return false;
+    }
+
+    /**
+     * Accessor for the persistence properties that SchemaTool would use, for goals that connect to the datastore
+     * themselves. In increasing precedence these are the properties of the persistence-unit (if specified), of the
+     * "props" file, the "toolProperties" (overridden by any system property of the same name), any connection
+     * properties specified as system properties, those of the <b>mode</b> invoked, and those of the target being run.
+     * @return The properties
+     * @throws MojoExecutionException If an error occurs reading the properties
+     */
+    protected Properties getDatastoreProperties()
+    throws MojoExecutionException
+    {
+        Properties datastoreProps = new Properties();
+        if (isUsingPersistenceUnit())
+        {
+            PersistenceUnitReader.PersistenceUnit unit = findPersistenceUnit();
+            if (unit == null)
+            {
+                throw new MojoExecutionException("Persistence-unit '" + persistenceUnitName + "' not found in the CLASSPATH.");
+            }
+            datastoreProps.putAll(unit.properties);
+        }
+
+        String propsPath = getPropsFile();
+        if (propsPath != null && propsPath.trim().length() > 0)
+        {
+            File propsFile = new File(propsPath.trim());
+            try (InputStream is = new FileInputStream(propsFile))
+            {
+                datastoreProps.load(is);
+            }
+            catch (IOException e)
+            {
+                throw new MojoExecutionException("Error reading properties file '" + propsFile.getAbsolutePath() + "'.", e);
+            }
+        }
+
+        Properties systemProperties = System.getProperties();
+        if (toolProperties != null)
+        {
+            for (Iterator it = toolProperties.keySet().iterator(); it.hasNext();)
+            {
+                String key = (String) it.next();
+                String val = systemProperties.containsKey(key) ? systemProperties.getProperty(key) : toolProperties.getProperty(key);
+                datastoreProps.setProperty(key, val != null ? val : "");
+            }
+        }
+        String[][] connectionPropNames = {JdbcConnectionFactory.URL_PROPERTIES, JdbcConnectionFactory.DRIVER_PROPERTIES,
+            JdbcConnectionFactory.USER_PROPERTIES, JdbcConnectionFactory.PASSWORD_PROPERTIES};
+        for (String[] names : connectionPropNames)
+        {
+            for (String name : names)
+            {
+                if (systemProperties.containsKey(name))
+                {
+                    datastoreProps.setProperty(name, systemProperties.getProperty(name));
+                }
+            }
+        }
+
+        Properties modeProperties = getModeSpecificToolProperties();
+        if (modeProperties != null)
+        {
+            datastoreProps.putAll(modeProperties);
+        }
+        if (currentTarget != null && currentTarget.getProperties() != null)
+        {
+            datastoreProps.putAll(currentTarget.getProperties());
+        }
+        return datastoreProps;
+    }
+
+    /**
+     * Method to add the settings that shape the DDL of the schema to a digest : the API, the catalog and schema, and
+     * the persistence properties (of the persistence-unit, "props" file and "toolProperties"), in name order.
+     * @param digest The digest
+     * @throws MojoExecutionException If an error occurs reading the persistence properties
+     */
+    protected void updateDigestWithSchemaSettings(MessageDigest digest)
+    throws MojoExecutionException
+    {
+        Properties props = getDatastoreProperties();
+        digest.update((api + "\n" + catalogName + "\n" + schemaName + "\n").getBytes(StandardCharsets.UTF_8));
+        for (String name : new TreeSet<>(props.stringPropertyNames()))
+        {
+            digest.update((name + "=" + props.getProperty(name) + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Method to create a factory for JDBC connections to the datastore, loading the JDBC driver from the
+     * CLASSPATH of the tool. The factory must be closed, to release the loader of the driver.
+     * @return The connection factory
+     * @throws MojoExecutionException If the connection is not defined or the driver cannot be loaded
+     */
+    JdbcConnectionFactory getConnectionFactory()
+    throws MojoExecutionException
+    {
+        Properties datastoreProps = getDatastoreProperties();
+        URLClassLoader loader = createIsolatedClassLoader(getToolClasspathEntries(pluginArtifacts), true);
+        try
+        {
+            return new JdbcConnectionFactory(datastoreProps, loader, true);
+        }
+        catch (SQLException e)
+        {
+            try
+            {
+                loader.close();
+            }
+            catch (IOException closeException)
+            {
+                e.addSuppressed(closeException);
+            }
+            throw new MojoExecutionException("Error creating connection to the datastore : " + e.getMessage(), e);
+        }
+    }
+
     /**
      * {@inheritDoc}
      * @see org.datanucleus.maven.AbstractDataNucleusMojo#getToolName()
@@ -361,4 +1234,30 @@ public abstract class AbstractSchemaToolMojo extends AbstractDataNucleusMojo
     {
         return TOOL_NAME_SCHEMA_TOOL;
     }
-}
\ No newline at end of file
+
+    /**
+     * Run of SchemaTool, when run several times in one tool process.
+     */
+    static class SchemaRun
+    {
+        /** Name of the run (the target or schema). */
+        final String name;
+
+        /** Arguments of the run, excluding the input files when forked. */
+        final List arguments;
+
+        /** System properties of the run, or null if none. */
+        final Properties systemProperties;
+
+        /** Persistence properties file written for the run, or null. */
+        final File propsFile;
+
+        SchemaRun(String name, List arguments, Properties systemProperties, File propsFile)
+        {
+            this.name = name;
+            this.arguments = arguments;
+            this.systemProperties = systemProperties;
+            this.propsFile = propsFile;
+        }
+    }
+}
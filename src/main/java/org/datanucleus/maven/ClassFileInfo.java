@@ -0,0 +1,309 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Minimal reader of a class file, providing the class name, superclass, interfaces and fields, without loading the class.
+ */
+class ClassFileInfo
+{
+    /** Name of the interface that DataNucleus enhancement adds to persistable classes. */
+    static final String PERSISTABLE_INTERFACE = "org.datanucleus.enhancement.Persistable";
+
+    /** Name of the static field that DataNucleus enhancement adds to every persistable class, including subclasses. */
+    static final String PERSISTABLE_FIELD_NAMES = "dnFieldNames";
+
+    private static final int CLASS_FILE_MAGIC = 0xCAFEBABE;
+
+    /** Class in a type descriptor or signature, such as "Ljava/util/List;" or "Ljava/util/List&lt;...&gt;;". */
+    private static final Pattern DESCRIPTOR_CLASS = Pattern.compile("L([\\p{javaJavaIdentifierPart}]+(?:/[\\p{javaJavaIdentifierPart}]+)+)[;<]");
+
+    private final String className;
+
+    private final String superclassName;
+
+    private final String[] interfaceNames;
+
+    private final String[] fieldNames;
+
+    private ClassFileInfo(String className, String superclassName, String[] interfaceNames, String[] fieldNames)
+    {
+        this.className = className;
+        this.superclassName = superclassName;
+        this.interfaceNames = interfaceNames;
+        this.fieldNames = fieldNames;
+    }
+
+    /**
+     * Read the information for the specified class file.
+     * @param file The class file
+     * @return The class information
+     * @throws IOException If the file cannot be read or is not a valid class file
+     */
+    static ClassFileInfo read(File file)
+    throws IOException
+    {
+        try (InputStream is = new FileInputStream(file))
+        {
+            return read(is);
+        }
+    }
+
+    /**
+     * Read the information for the class file provided by the stream. The stream is not closed.
+     * @param is Stream for the class file
+     * @return The class information
+     * @throws IOException If the stream cannot be read or is not a valid class file
+     */
+    static ClassFileInfo read(InputStream is)
+    throws IOException
+    {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(is));
+        if (in.readInt() != CLASS_FILE_MAGIC)
+        {
+            throw new IOException("Not a valid class file");
+        }
+        in.readUnsignedShort(); // minor version
+        in.readUnsignedShort(); // major version
+
+        Object[] cp = readConstantPool(in);
+
+        in.readUnsignedShort(); // access flags
+        String name = getClassName(cp, in.readUnsignedShort());
+        String superName = getClassName(cp, in.readUnsignedShort());
+        int interfaceCount = in.readUnsignedShort();
+        String[] interfaces = new String[interfaceCount];
+        for (int i = 0; i < interfaceCount; i++)
+        {
+            interfaces[i] = getClassName(cp, in.readUnsignedShort());
+        }
+
+        int fieldCount = in.readUnsignedShort();
+        String[] fields = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++)
+        {
+            in.readUnsignedShort(); // access flags
+            fields[i] = (String) cp[in.readUnsignedShort()];
+            in.readUnsignedShort(); // descriptor
+            int attributeCount = in.readUnsignedShort();
+            for (int j = 0; j < attributeCount; j++)
+            {
+                in.readUnsignedShort(); // attribute name
+                int length = in.readInt();
+                if (in.skipBytes(length) != length)
+                {
+                    throw new IOException("Truncated class file");
+                }
+            }
+        }
+
+        return new ClassFileInfo(name, superName, interfaces, fields);
+    }
+
+    /**
+     * Read the names of the classes referenced by the class file provided by the stream, being the classes of its
+     * constant pool and the classes in the type descriptors and signatures of its members and annotations.
+     * The stream is not closed.
+     * @param is Stream for the class file
+     * @return Internal names ("a/b/C") of the referenced classes, including the class itself
+     * @throws IOException If the stream cannot be read or is not a valid class file
+     */
+    static Set<String> readReferencedClassNames(InputStream is)
+    throws IOException
+    {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(is));
+        if (in.readInt() != CLASS_FILE_MAGIC)
+        {
+            throw new IOException("Not a valid class file");
+        }
+        in.readUnsignedShort(); // minor version
+        in.readUnsignedShort(); // major version
+        Object[] cp = readConstantPool(in);
+
+        Set<String> names = new HashSet<>();
+        for (int i = 1; i < cp.length; i++)
+        {
+            if (cp[i] instanceof Integer)
+            {
+                String name = (String) cp[((Integer) cp[i]).intValue()];
+                if (name.charAt(0) != '[')
+                {
+                    names.add(name);
+                }
+            }
+        }
+        for (int i = 1; i < cp.length; i++)
+        {
+            if (cp[i] instanceof String)
+            {
+                Matcher m = DESCRIPTOR_CLASS.matcher((String) cp[i]);
+                while (m.find())
+                {
+                    names.add(m.group(1));
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Read the constant pool, keeping the Utf8 entries (as String) and the name indexes of the Class entries
+     * (as Integer).
+     * @param in The class file stream, positioned at the constant pool count
+     * @return The constant pool
+     * @throws IOException If the stream cannot be read or is not a valid class file
+     */
+    private static Object[] readConstantPool(DataInputStream in)
+    throws IOException
+    {
+        int cpCount = in.readUnsignedShort();
+        Object[] cp = new Object[cpCount];
+        for (int i = 1; i < cpCount; i++)
+        {
+            int tag = in.readUnsignedByte();
+            switch (tag)
+            {
+                case 1: // Utf8
+                    cp[i] = in.readUTF();
+                    break;
+                case 7: // Class
+                    cp[i] = Integer.valueOf(in.readUnsignedShort());
+                    break;
+                case 8: // String
+                case 16: // MethodType
+                case 19: // Module
+                case 20: // Package
+                    in.skipBytes(2);
+                    break;
+                case 15: // MethodHandle
+                    in.skipBytes(3);
+                    break;
+                case 3: // Integer
+                case 4: // Float
+                case 9: // Fieldref
+                case 10: // Methodref
+                case 11: // InterfaceMethodref
+                case 12: // NameAndType
+                case 17: // Dynamic
+                case 18: // InvokeDynamic
+                    in.skipBytes(4);
+                    break;
+                case 5: // Long
+                case 6: // Double
+                    in.skipBytes(8);
+                    i++; // Takes two entries
+                    break;
+                default:
+                    throw new IOException("Invalid constant pool tag " + tag);
+            }
+        }
+        return cp;
+    }
+
+    private static String getClassName(Object[] cp, int classIndex)
+    {
+        if (classIndex == 0)
+        {
+            return null;
+        }
+        int nameIndex = ((Integer) cp[classIndex]).intValue();
+        return ((String) cp[nameIndex]).replace('/', '.');
+    }
+
+    /**
+     * Accessor for the fully-qualified name of the class.
+     * @return Class name
+     */
+    String getClassName()
+    {
+        return className;
+    }
+
+    /**
+     * Accessor for the fully-qualified name of the superclass.
+     * @return Superclass name (null for java.lang.Object)
+     */
+    String getSuperclassName()
+    {
+        return superclassName;
+    }
+
+    /**
+     * Accessor for the fully-qualified names of the interfaces directly implemented.
+     * @return Interface names
+     */
+    String[] getInterfaceNames()
+    {
+        return interfaceNames;
+    }
+
+    /**
+     * Whether the class directly implements the specified interface.
+     * @param interfaceName Fully-qualified name of the interface
+     * @return Whether it is implemented
+     */
+    boolean implementsInterface(String interfaceName)
+    {
+        for (String name : interfaceNames)
+        {
+            if (name.equals(interfaceName))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the class declares a field with the specified name.
+     * @param fieldName Name of the field
+     * @return Whether it is declared
+     */
+    boolean declaresField(String fieldName)
+    {
+        for (String name : fieldNames)
+        {
+            if (name.equals(fieldName))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the class has been enhanced as persistable. Only the root of an inheritance tree directly implements
+     * Persistable, so the field added to every enhanced class is also checked.
+     * @return Whether it is persistable
+     */
+    boolean isPersistable()
+    {
+        return implementsInterface(PERSISTABLE_INTERFACE) || declaresField(PERSISTABLE_FIELD_NAMES);
+    }
+}
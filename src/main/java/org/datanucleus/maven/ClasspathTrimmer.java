@@ -0,0 +1,352 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Trimmer of the project part of a tool CLASSPATH to the entries that the tool can need. Directories (holding the
+ * input classes) are always kept, as is any DataNucleus or persistence API jar, DataNucleus plugin, or jar providing
+ * persistence metadata or a JDBC driver. A jar is kept if it provides a class reachable from the classes of the
+ * directories or of those jars through constant pool references, type descriptors and signatures, or if it provides
+ * an implementation (<i>META-INF/services</i>) of a reachable service. So the jars used by a DataNucleus plugin, such
+ * as a connection pool, logging library or L2 cache provider, are kept when the plugin class supporting them is
+ * present. A class loaded only by a name in the configuration, and not referenced by any such class, is not found.
+ */
+class ClasspathTrimmer
+{
+    /** Packages whose jars are always kept. */
+    private static final String[] MANDATORY_PACKAGES = {"org/datanucleus/", "javax/jdo/", "javax/persistence/", "jakarta/persistence/"};
+
+    /** Version of the trimming, in the key of the CLASSPATH so that a change of the trimming invalidates cached results. */
+    private static final String KEY_VERSION = "v2";
+
+    /** Directory of the service provider files of a jar. */
+    private static final String SERVICES_PREFIX = "META-INF/services/";
+
+    /** Resources whose jars are always kept. */
+    private static final String[] MANDATORY_RESOURCES = {"plugin.xml", "META-INF/persistence.xml", "META-INF/orm.xml",
+        "META-INF/services/java.sql.Driver"};
+
+    private final List<String> entries;
+
+    /** Jar providing each class, by internal class name, the first on the CLASSPATH taking precedence. */
+    private final Map<String, File> classJars = new HashMap<>();
+
+    /** Jars providing implementations of each service, by internal name of the service class. */
+    private final Map<String, List<File>> serviceJars = new HashMap<>();
+
+    private int classesRead = 0;
+
+    /**
+     * Constructor.
+     * @param entries The CLASSPATH entries, in order
+     */
+    ClasspathTrimmer(List<String> entries)
+    {
+        this.entries = entries;
+    }
+
+    /**
+     * Method to compute a key for the CLASSPATH, changing when any entry or any class in a directory entry changes.
+     * @param entries The CLASSPATH entries
+     * @return The key (hex)
+     * @throws IOException If an error occurs listing a directory
+     */
+    static String getKey(List<String> entries)
+    throws IOException
+    {
+        MessageDigest digest;
+        try
+        {
+            digest = MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IOException(e);
+        }
+        digest.update((KEY_VERSION + "\n").getBytes(StandardCharsets.UTF_8));
+        for (String entry : entries)
+        {
+            File file = new File(entry);
+            digest.update((entry + "|" + file.length() + "|" + file.lastModified() + "\n").getBytes(StandardCharsets.UTF_8));
+            if (file.isDirectory())
+            {
+                for (Object o : FileUtils.getFiles(file, "**/*.class", null, false))
+                {
+                    File classFile = new File(file, o.toString());
+                    digest.update((o + "|" + classFile.length() + "|" + classFile.lastModified() + "\n").getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+        StringBuilder str = new StringBuilder();
+        for (byte b : digest.digest())
+        {
+            str.append(String.format("%02x", b));
+        }
+        return str.toString();
+    }
+
+    /**
+     * Method to compute the trimmed CLASSPATH.
+     * @return The entries to keep, in CLASSPATH order
+     * @throws IOException If an error occurs reading an entry
+     */
+    List<String> trim()
+    throws IOException
+    {
+        Set<File> keptJars = new HashSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+        Set<String> visited = new HashSet<>();
+
+        // Index the jars, and start from the classes of the directories
+        for (String entry : entries)
+        {
+            File file = new File(entry);
+            if (file.isDirectory())
+            {
+                for (Object o : FileUtils.getFiles(file, "**/*.class", null))
+                {
+                    try (InputStream in = new FileInputStream((File) o))
+                    {
+                        addReferences(ClassFileInfo.readReferencedClassNames(in), visited, pending);
+                    }
+                    classesRead++;
+                }
+            }
+            else if (file.isFile())
+            {
+                List<String> classNames = new ArrayList<>();
+                if (indexJar(file, classNames))
+                {
+                    // Start from all classes of the jar, so that the jars used by DataNucleus and its plugins are kept
+                    keptJars.add(file);
+                    addReferences(classNames, visited, pending);
+                }
+            }
+        }
+
+        // Follow the references into the jars
+        Map<File, ZipFile> openJars = new HashMap<>();
+        try
+        {
+            while (!pending.isEmpty())
+            {
+                String className = pending.pop();
+                List<File> providerJars = serviceJars.get(className);
+                if (providerJars != null)
+                {
+                    // Service loaded through ServiceLoader, so keep its implementations
+                    for (File providerJar : providerJars)
+                    {
+                        keptJars.add(providerJar);
+                        addReferences(readServiceProviders(getZip(providerJar, openJars), className), visited, pending);
+                    }
+                }
+
+                File jar = classJars.get(className);
+                if (jar == null)
+                {
+                    // JDK class, or a class of a directory (already read)
+                    continue;
+                }
+                keptJars.add(jar);
+
+                ZipFile zip = getZip(jar, openJars);
+                ZipEntry zipEntry = zip.getEntry(className + ".class");
+                try (InputStream in = zip.getInputStream(zipEntry))
+                {
+                    addReferences(ClassFileInfo.readReferencedClassNames(in), visited, pending);
+                }
+                catch (IOException e)
+                {
+                    // Invalid class file, so the jar is kept but the class not followed
+                }
+                classesRead++;
+            }
+        }
+        finally
+        {
+            for (ZipFile zip : openJars.values())
+            {
+                zip.close();
+            }
+        }
+
+        Set<String> trimmed = new LinkedHashSet<>();
+        for (String entry : entries)
+        {
+            File file = new File(entry);
+            if (!file.isFile() || keptJars.contains(file))
+            {
+                trimmed.add(entry);
+            }
+        }
+        return new ArrayList<>(trimmed);
+    }
+
+    /**
+     * Accessor for the number of class files read by {@link #trim()}.
+     * @return Number of classes read
+     */
+    int getClassesRead()
+    {
+        return classesRead;
+    }
+
+    private static ZipFile getZip(File jar, Map<File, ZipFile> openJars)
+    throws IOException
+    {
+        ZipFile zip = openJars.get(jar);
+        if (zip == null)
+        {
+            zip = new ZipFile(jar);
+            openJars.put(jar, zip);
+        }
+        return zip;
+    }
+
+    /**
+     * Method to read the implementations of a service provided by a jar.
+     * @param zip The jar
+     * @param serviceName Internal name of the service class
+     * @return Internal names of the implementation classes
+     * @throws IOException If an error occurs reading the jar
+     */
+    private static List<String> readServiceProviders(ZipFile zip, String serviceName)
+    throws IOException
+    {
+        List<String> classNames = new ArrayList<>();
+        ZipEntry zipEntry = zip.getEntry(SERVICES_PREFIX + serviceName.replace('/', '.'));
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(zip.getInputStream(zipEntry), StandardCharsets.UTF_8)))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                int commentIdx = line.indexOf('#');
+                String name = (commentIdx >= 0 ? line.substring(0, commentIdx) : line).trim();
+                if (name.length() > 0)
+                {
+                    classNames.add(name.replace('.', '/'));
+                }
+            }
+        }
+        return classNames;
+    }
+
+    private static void addReferences(Collection<String> classNames, Set<String> visited, Deque<String> pending)
+    {
+        for (String className : classNames)
+        {
+            if (visited.add(className))
+            {
+                pending.push(className);
+            }
+        }
+    }
+
+    /**
+     * Method to add the classes and services of a jar to the index.
+     * @param jar The jar
+     * @param classNames Internal names of the classes of the jar (appended to)
+     * @return Whether the jar is always to be kept
+     * @throws IOException If an error occurs reading the jar
+     */
+    private boolean indexJar(File jar, List<String> classNames)
+    throws IOException
+    {
+        boolean mandatory = false;
+        try (ZipFile zip = new ZipFile(jar))
+        {
+            for (Enumeration<? extends ZipEntry> en = zip.entries(); en.hasMoreElements();)
+            {
+                String name = en.nextElement().getName();
+                if (name.endsWith(".class"))
+                {
+                    String className = name.substring(0, name.length() - 6);
+                    classNames.add(className);
+                    if (!classJars.containsKey(className))
+                    {
+                        classJars.put(className, jar);
+                    }
+                    if (!mandatory)
+                    {
+                        for (String pkg : MANDATORY_PACKAGES)
+                        {
+                            if (name.startsWith(pkg))
+                            {
+                                mandatory = true;
+                                break;
+                            }
+                        }
+                    }
+                }
+                else
+                {
+                    if (name.startsWith(SERVICES_PREFIX) && name.length() > SERVICES_PREFIX.length() && !name.endsWith("/"))
+                    {
+                        String serviceName = name.substring(SERVICES_PREFIX.length()).replace('.', '/');
+                        List<File> jars = serviceJars.get(serviceName);
+                        if (jars == null)
+                        {
+                            jars = new ArrayList<>();
+                            serviceJars.put(serviceName, jars);
+                        }
+                        jars.add(jar);
+                    }
+                    for (String resource : MANDATORY_RESOURCES)
+                    {
+                        if (name.equals(resource))
+                        {
+                            mandatory = true;
+                            break;
+                        }
+                    }
+                    if (name.endsWith(".jdo") || name.endsWith(".orm"))
+                    {
+                        mandatory = true;
+                    }
+                }
+            }
+        }
+        return mandatory;
+    }
+}
@@ -0,0 +1,322 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parser for an SQL DDL script, such as that written by SchemaTool to a "ddlFile", splitting it into statements and
+ * classifying each statement by the table it acts on and the tables it depends on.
+ */
+class DDLScript
+{
+    /** Kind of DDL statement. */
+    enum Kind
+    {
+        /** CREATE TABLE, depending on the tables it references. */
+        CREATE_TABLE,
+        /** CREATE INDEX, depending on its table. */
+        CREATE_INDEX,
+        /** ALTER TABLE ... ADD of a key or constraint. */
+        ADD_CONSTRAINT,
+        /** Any other statement, which has to be run in script order. */
+        OTHER
+    }
+
+    /** Statement of the script. */
+    static class Statement
+    {
+        final String sql;
+
+        final Kind kind;
+
+        /** Normalised name of the table created or altered, or null if not known. */
+        final String tableName;
+
+        /** Name of the table created or altered as written in the statement, or null if not known. */
+        final String tableIdentifier;
+
+        /** Normalised names of the tables referenced by a CREATE TABLE, or by a foreign key added to a table. */
+        final Set<String> referencedTables;
+
+        Statement(String sql, Kind kind, String tableIdentifier, Set<String> referencedTables)
+        {
+            this.sql = sql;
+            this.kind = kind;
+            this.tableName = tableIdentifier != null ? normaliseName(tableIdentifier) : null;
+            this.tableIdentifier = tableIdentifier;
+            this.referencedTables = referencedTables;
+        }
+
+        @Override
+        public String toString()
+        {
+            return sql;
+        }
+    }
+
+    private static final String NAME = "((?:\"[^\"]+\"|`[^`]+`|\\[[^\\]]+\\]|[\\w$#]+)(?:\\s*\\.\\s*(?:\"[^\"]+\"|`[^`]+`|\\[[^\\]]+\\]|[\\w$#]+))*)";
+
+    private static final Pattern CREATE_TABLE = Pattern.compile(
+        "^CREATE\\s+(?:(?:GLOBAL|LOCAL)\\s+)?(?:(?:TEMPORARY|TEMP|CACHED|MEMORY)\\s+)?TABLE\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?" + NAME,
+        Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern REFERENCES = Pattern.compile("\\bREFERENCES\\s+" + NAME, Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern CREATE_INDEX = Pattern.compile(
+        "^CREATE\\s+(?:UNIQUE\\s+)?INDEX\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?" + NAME + "\\s+ON\\s+" + NAME,
+        Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern ADD_CONSTRAINT = Pattern.compile(
+        "^ALTER\\s+TABLE\\s+" + NAME + "\\s+ADD\\s+(?:CONSTRAINT\\s+" + NAME + "\\s+)?(?:FOREIGN\\s+KEY|PRIMARY\\s+KEY|UNIQUE|CHECK)\\b",
+        Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern ALTER_TABLE = Pattern.compile("^ALTER\\s+TABLE\\s+" + NAME, Pattern.CASE_INSENSITIVE);
+
+    private DDLScript()
+    {
+    }
+
+    /**
+     * Method to parse the statements of a script file (UTF-8).
+     * @param file The script file
+     * @return The statements, in script order
+     * @throws IOException If an error occurs reading the file
+     */
+    static List<Statement> parse(File file)
+    throws IOException
+    {
+        return parse(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Method to parse the statements of a script.
+     * @param script The script
+     * @return The statements, in script order
+     */
+    static List<Statement> parse(String script)
+    {
+        List<Statement> statements = new ArrayList<>();
+        for (String sql : split(script))
+        {
+            statements.add(classify(sql));
+        }
+        return statements;
+    }
+
+    /**
+     * Method to split a script into statements terminated by ';', omitting comments. Quoted literals and identifiers
+     * are respected.
+     * @param script The script
+     * @return The statements, without terminator
+     */
+    static List<String> split(String script)
+    {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int len = script.length();
+        int i = 0;
+        while (i < len)
+        {
+            char c = script.charAt(i);
+            if (c == '-' && i + 1 < len && script.charAt(i + 1) == '-')
+            {
+                // Line comment
+                while (i < len && script.charAt(i) != '\n')
+                {
+                    i++;
+                }
+                current.append(' ');
+            }
+            else if (c == '/' && i + 1 < len && script.charAt(i + 1) == '*')
+            {
+                // Block comment
+                int end = script.indexOf("*/", i + 2);
+                i = end < 0 ? len : end + 2;
+                current.append(' ');
+            }
+            else if (c == '\'' || c == '"' || c == '`')
+            {
+                // Quoted literal or identifier, with doubled quote as escape
+                int start = i++;
+                while (i < len)
+                {
+                    if (script.charAt(i) == c)
+                    {
+                        if (i + 1 < len && script.charAt(i + 1) == c)
+                        {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                i = Math.min(i + 1, len);
+                current.append(script, start, i);
+            }
+            else if (c == ';')
+            {
+                addStatement(statements, current);
+                i++;
+            }
+            else
+            {
+                current.append(c);
+                i++;
+            }
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder current)
+    {
+        String sql = current.toString().trim();
+        if (sql.length() > 0)
+        {
+            statements.add(sql);
+        }
+        current.setLength(0);
+    }
+
+    /**
+     * Method to find the tables created by the statements of a script.
+     * @param statements The statements
+     * @return The tables, keyed by normalised name, with the name as written in the script, in script order
+     */
+    static Map<String, String> getTables(List<Statement> statements)
+    {
+        Map<String, String> tables = new LinkedHashMap<>();
+        for (Statement statement : statements)
+        {
+            if (statement.kind == Kind.CREATE_TABLE && !tables.containsKey(statement.tableName))
+            {
+                tables.put(statement.tableName, statement.tableIdentifier.trim());
+            }
+        }
+        return tables;
+    }
+
+    /**
+     * Method to find the tables referenced by the foreign keys of each table of a script, whether declared in the
+     * CREATE TABLE or added after it.
+     * @param statements The statements
+     * @return Normalised names of the referenced tables, keyed by normalised table name
+     */
+    static Map<String, Set<String>> getTableReferences(List<Statement> statements)
+    {
+        Map<String, Set<String>> references = new HashMap<>();
+        for (Statement statement : statements)
+        {
+            if (statement.kind == Kind.CREATE_TABLE || statement.kind == Kind.ADD_CONSTRAINT)
+            {
+                Set<String> tableRefs = references.get(statement.tableName);
+                if (tableRefs == null)
+                {
+                    tableRefs = new LinkedHashSet<>();
+                    references.put(statement.tableName, tableRefs);
+                }
+                tableRefs.addAll(statement.referencedTables);
+            }
+        }
+        return references;
+    }
+
+    /**
+     * Method to classify a statement.
+     * @param sql The statement
+     * @return The classified statement
+     */
+    static Statement classify(String sql)
+    {
+        Matcher m = CREATE_TABLE.matcher(sql);
+        if (m.find())
+        {
+            return new Statement(sql, Kind.CREATE_TABLE, m.group(1), getReferencedTables(sql, normaliseName(m.group(1))));
+        }
+
+        m = CREATE_INDEX.matcher(sql);
+        if (m.find())
+        {
+            return new Statement(sql, Kind.CREATE_INDEX, m.group(2), new LinkedHashSet<String>());
+        }
+
+        m = ADD_CONSTRAINT.matcher(sql);
+        if (m.find())
+        {
+            return new Statement(sql, Kind.ADD_CONSTRAINT, m.group(1), getReferencedTables(sql, normaliseName(m.group(1))));
+        }
+
+        m = ALTER_TABLE.matcher(sql);
+        return new Statement(sql, Kind.OTHER, m.find() ? m.group(1) : null, new LinkedHashSet<String>());
+    }
+
+    /**
+     * Method to find the tables referenced by the foreign keys of a statement, other than its own table.
+     * @param sql The statement
+     * @param tableName Normalised name of the table of the statement
+     * @return Normalised names of the referenced tables
+     */
+    private static Set<String> getReferencedTables(String sql, String tableName)
+    {
+        Set<String> referencedTables = new LinkedHashSet<>();
+        Matcher refMatcher = REFERENCES.matcher(sql);
+        while (refMatcher.find())
+        {
+            String referencedTable = normaliseName(refMatcher.group(1));
+            if (!referencedTable.equals(tableName))
+            {
+                referencedTables.add(referencedTable);
+            }
+        }
+        return referencedTables;
+    }
+
+    /**
+     * Method to normalise a (possibly qualified and quoted) table name for comparison.
+     * @param name The name
+     * @return The normalised name
+     */
+    static String normaliseName(String name)
+    {
+        StringBuilder str = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++)
+        {
+            char c = name.charAt(i);
+            if (c != '"' && c != '`' && c != '[' && c != ']' && !Character.isWhitespace(c))
+            {
+                str.append(c);
+            }
+        }
+        return str.toString().toUpperCase(Locale.ENGLISH);
+    }
+}
@@ -0,0 +1,414 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Executor of the statements of a DDL script over JDBC.
+ * <p>
+ * Statements other than CREATE TABLE, CREATE INDEX and ALTER TABLE ... ADD {constraint} are run in script order,
+ * and separate the script into groups. Within a group the CREATE TABLE statements are ordered into levels by the
+ * tables they reference, with each CREATE INDEX in the level after its table. The statements of a level are
+ * independent, so are shared out over a pool of connections and run concurrently, each connection running its
+ * share as JDBC batches. The constraints of the group are added last, on a single connection, since concurrently
+ * adding foreign keys that share a table can deadlock.
+ */
+class DDLScriptExecutor
+{
+    private final JdbcConnectionFactory connectionFactory;
+
+    private final int maxConnections;
+
+    private final int batchSize;
+
+    private final Log log;
+
+    private final List<Connection> connections = new ArrayList<>();
+
+    private ExecutorService executor;
+
+    private int statementCount;
+
+    private int levelCount;
+
+    private int connectionCount;
+
+    /**
+     * Constructor.
+     * @param connectionFactory Factory for the connections
+     * @param maxConnections Maximum number of connections to use concurrently
+     * @param batchSize Maximum number of statements per JDBC batch (1 to not use batches)
+     * @param log Log
+     */
+    DDLScriptExecutor(JdbcConnectionFactory connectionFactory, int maxConnections, int batchSize, Log log)
+    {
+        this.connectionFactory = connectionFactory;
+        this.maxConnections = Math.max(1, maxConnections);
+        this.batchSize = Math.max(1, batchSize);
+        this.log = log;
+    }
+
+    /**
+     * Method to execute the statements, closing all connections on completion.
+     * @param statements The statements in script order
+     * @throws SQLException If a statement fails. Statements not yet started are not run.
+     */
+    void execute(List<DDLScript.Statement> statements)
+    throws SQLException
+    {
+        try
+        {
+            List<DDLScript.Statement> group = new ArrayList<>();
+            for (DDLScript.Statement statement : statements)
+            {
+                if (statement.kind == DDLScript.Kind.OTHER)
+                {
+                    executeGroup(group);
+                    group.clear();
+                    executeLevel(Collections.singletonList(statement), 1);
+                }
+                else
+                {
+                    group.add(statement);
+                }
+            }
+            executeGroup(group);
+        }
+        finally
+        {
+            close();
+        }
+    }
+
+    /**
+     * Accessor for the number of statements executed.
+     * @return Number of statements
+     */
+    int getStatementCount()
+    {
+        return statementCount;
+    }
+
+    /**
+     * Accessor for the number of levels of statements executed, each level after the previous.
+     * @return Number of levels
+     */
+    int getLevelCount()
+    {
+        return levelCount;
+    }
+
+    /**
+     * Accessor for the number of connections opened.
+     * @return Number of connections
+     */
+    int getConnectionCount()
+    {
+        return connectionCount;
+    }
+
+    private void executeGroup(List<DDLScript.Statement> group)
+    throws SQLException
+    {
+        if (group.isEmpty())
+        {
+            return;
+        }
+
+        Map<String, DDLScript.Statement> tables = new HashMap<>();
+        List<DDLScript.Statement> constraints = new ArrayList<>();
+        for (DDLScript.Statement statement : group)
+        {
+            if (statement.kind == DDLScript.Kind.CREATE_TABLE)
+            {
+                tables.put(statement.tableName, statement);
+            }
+            else if (statement.kind == DDLScript.Kind.ADD_CONSTRAINT)
+            {
+                constraints.add(statement);
+            }
+        }
+
+        Map<String, Integer> tableLevels = new HashMap<>();
+        TreeMap<Integer, List<DDLScript.Statement>> levels = new TreeMap<>();
+        for (DDLScript.Statement statement : group)
+        {
+            int level;
+            if (statement.kind == DDLScript.Kind.CREATE_TABLE)
+            {
+                level = getTableLevel(statement.tableName, tables, tableLevels, new HashSet<String>());
+            }
+            else if (statement.kind == DDLScript.Kind.CREATE_INDEX)
+            {
+                level = tables.containsKey(statement.tableName) ?
+                    getTableLevel(statement.tableName, tables, tableLevels, new HashSet<String>()) + 1 : 0;
+            }
+            else
+            {
+                continue;
+            }
+
+            List<DDLScript.Statement> levelStatements = levels.get(level);
+            if (levelStatements == null)
+            {
+                levelStatements = new ArrayList<>();
+                levels.put(level, levelStatements);
+            }
+            levelStatements.add(statement);
+        }
+
+        for (List<DDLScript.Statement> levelStatements : levels.values())
+        {
+            executeLevel(levelStatements, maxConnections);
+        }
+        if (!constraints.isEmpty())
+        {
+            executeLevel(constraints, 1);
+        }
+    }
+
+    /**
+     * Level of a table, being 0 if it references no table created in the group, else one more than the highest level
+     * of the tables it references. References forming a cycle are ignored.
+     */
+    private static int getTableLevel(String tableName, Map<String, DDLScript.Statement> tables, Map<String, Integer> tableLevels,
+            Set<String> visiting)
+    {
+        Integer level = tableLevels.get(tableName);
+        if (level != null)
+        {
+            return level;
+        }
+
+        visiting.add(tableName);
+        int tableLevel = 0;
+        for (String referencedTable : tables.get(tableName).referencedTables)
+        {
+            if (tables.containsKey(referencedTable) && !visiting.contains(referencedTable))
+            {
+                tableLevel = Math.max(tableLevel, getTableLevel(referencedTable, tables, tableLevels, visiting) + 1);
+            }
+        }
+        visiting.remove(tableName);
+        tableLevels.put(tableName, tableLevel);
+        return tableLevel;
+    }
+
+    /**
+     * Method to execute a set of independent statements, shared out over up to the specified number of connections.
+     */
+    private void executeLevel(List<DDLScript.Statement> statements, int parallelism)
+    throws SQLException
+    {
+        levelCount++;
+        int numConnections = Math.min(parallelism, statements.size());
+        while (connections.size() < numConnections)
+        {
+            connections.add(connectionFactory.getConnection());
+            connectionCount++;
+        }
+        if (log.isDebugEnabled())
+        {
+            log.debug("Executing " + statements.size() + " DDL statements over " + numConnections + " connections");
+        }
+
+        if (numConnections == 1)
+        {
+            executeStatements(connections.get(0), statements);
+            return;
+        }
+
+        // Share out the statements round-robin, so each connection gets a similar mix
+        List<List<DDLScript.Statement>> shares = new ArrayList<>();
+        for (int i = 0; i < numConnections; i++)
+        {
+            shares.add(new ArrayList<DDLScript.Statement>());
+        }
+        for (int i = 0; i < statements.size(); i++)
+        {
+            shares.get(i % numConnections).add(statements.get(i));
+        }
+
+        if (executor == null)
+        {
+            executor = Executors.newFixedThreadPool(maxConnections);
+        }
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < numConnections; i++)
+        {
+            final Connection conn = connections.get(i);
+            final List<DDLScript.Statement> share = shares.get(i);
+            futures.add(executor.submit(new Callable<Void>()
+            {
+                public Void call() throws SQLException
+                {
+                    executeStatements(conn, share);
+                    return null;
+                }
+            }));
+        }
+
+        SQLException error = null;
+        for (Future<Void> future : futures)
+        {
+            try
+            {
+                future.get();
+            }
+            catch (ExecutionException e)
+            {
+                if (error == null)
+                {
+                    error = e.getCause() instanceof SQLException ? (SQLException) e.getCause() : new SQLException(e.getCause());
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted executing DDL statements", e);
+            }
+        }
+        if (error != null)
+        {
+            throw error;
+        }
+    }
+
+    /**
+     * Method to execute statements on a connection, as JDBC batches where supported.
+     */
+    private void executeStatements(Connection conn, List<DDLScript.Statement> statements)
+    throws SQLException
+    {
+        boolean useBatch = batchSize > 1 && statements.size() > 1 && conn.getMetaData().supportsBatchUpdates();
+        try (java.sql.Statement stmt = conn.createStatement())
+        {
+            if (!useBatch)
+            {
+                for (DDLScript.Statement statement : statements)
+                {
+                    try
+                    {
+                        stmt.execute(statement.sql);
+                    }
+                    catch (SQLException e)
+                    {
+                        throw statementFailed(statement, e);
+                    }
+                    countStatement();
+                }
+                return;
+            }
+
+            for (int start = 0; start < statements.size(); start += batchSize)
+            {
+                List<DDLScript.Statement> batch = statements.subList(start, Math.min(start + batchSize, statements.size()));
+                for (DDLScript.Statement statement : batch)
+                {
+                    stmt.addBatch(statement.sql);
+                }
+                try
+                {
+                    stmt.executeBatch();
+                }
+                catch (BatchUpdateException e)
+                {
+                    throw statementFailed(batch.get(getFailedIndex(e, batch.size())), e);
+                }
+                finally
+                {
+                    stmt.clearBatch();
+                }
+                for (int i = 0; i < batch.size(); i++)
+                {
+                    countStatement();
+                }
+            }
+        }
+    }
+
+    /**
+     * Index in the batch of the failed statement, being the first marked as failed, else the first with no count
+     * (for drivers that stop at the failure).
+     */
+    static int getFailedIndex(BatchUpdateException e, int batchSize)
+    {
+        int[] counts = e.getUpdateCounts();
+        if (counts == null)
+        {
+            return 0;
+        }
+        for (int i = 0; i < counts.length; i++)
+        {
+            if (counts[i] == java.sql.Statement.EXECUTE_FAILED)
+            {
+                return i;
+            }
+        }
+        return Math.min(counts.length, batchSize - 1);
+    }
+
+    private static SQLException statementFailed(DDLScript.Statement statement, SQLException e)
+    {
+        return new SQLException("Error executing DDL statement \"" + statement.sql + "\" : " + e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+    }
+
+    private synchronized void countStatement()
+    {
+        statementCount++;
+    }
+
+    private void close()
+    {
+        if (executor != null)
+        {
+            executor.shutdownNow();
+            executor = null;
+        }
+        for (Connection conn : connections)
+        {
+            try
+            {
+                conn.close();
+            }
+            catch (SQLException e)
+            {
+                log.debug("Error closing connection : " + e.getMessage());
+            }
+        }
+        connections.clear();
+    }
+}
@@ -0,0 +1,194 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Record of the input files processed by a run of the enhancer, holding the length and modification time of each
+ * file once processed. A file whose length and modification time still match the record needs no further processing.
+ */
+class EnhancementRecord
+{
+    private static final String RECORD_HEADER = "# DataNucleus enhancement record v1";
+
+    /** Length and modification time of each file, keyed by absolute path. */
+    private final Map<String, long[]> entries = new HashMap<>();
+
+    /**
+     * Read the record from the specified file. A missing or unreadable file gives an empty record.
+     * @param recordFile The record file
+     * @return The record
+     */
+    static EnhancementRecord read(File recordFile)
+    {
+        EnhancementRecord record = new EnhancementRecord();
+        if (!recordFile.exists())
+        {
+            return record;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(recordFile), "UTF-8")))
+        {
+            if (!RECORD_HEADER.equals(reader.readLine()))
+            {
+                return record;
+            }
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                int sep1 = line.indexOf('\t');
+                int sep2 = line.indexOf('\t', sep1 + 1);
+                if (sep1 > 0 && sep2 > sep1)
+                {
+                    record.entries.put(line.substring(sep2 + 1),
+                        new long[] {Long.parseLong(line.substring(0, sep1)), Long.parseLong(line.substring(sep1 + 1, sep2))});
+                }
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            record.entries.clear();
+        }
+        return record;
+    }
+
+    /**
+     * Method to add the current state of the specified file to the record.
+     * @param file The file
+     */
+    void add(File file)
+    {
+        entries.put(file.getAbsolutePath(), new long[] {file.length(), file.lastModified()});
+    }
+
+    /**
+     * Method to add the current state of the specified files to the record.
+     * @param files The files
+     */
+    void addAll(List files)
+    {
+        for (Iterator it = files.iterator(); it.hasNext();)
+        {
+            add((File) it.next());
+        }
+    }
+
+    /**
+     * Whether the specified file is unchanged since it was recorded.
+     * @param file The file
+     * @return Whether it is recorded and unchanged
+     */
+    boolean isUnchanged(File file)
+    {
+        long[] entry = entries.get(file.getAbsolutePath());
+        return entry != null && entry[0] == file.length() && entry[1] == file.lastModified();
+    }
+
+    /**
+     * Accessor for the number of files in the record.
+     * @return Number of files
+     */
+    int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Method to write the record to the specified file.
+     * @param recordFile The record file
+     * @throws IOException If an error occurs writing
+     */
+    void write(File recordFile)
+    throws IOException
+    {
+        File tmpFile = createTempFile(recordFile);
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmpFile), "UTF-8")))
+        {
+            writer.write(RECORD_HEADER);
+            writer.write('\n');
+            for (Map.Entry<String, long[]> entry : entries.entrySet())
+            {
+                writeEntry(writer, entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+            }
+        }
+        replace(recordFile, tmpFile);
+    }
+
+    /**
+     * Method to write a record of the current state of the files listed in a file list (one absolute path per line)
+     * to the specified file, one file at a time, so that the files are never held in memory.
+     * @param recordFile The record file
+     * @param fileListFile The file list
+     * @throws IOException If an error occurs reading or writing
+     */
+    static void write(File recordFile, File fileListFile)
+    throws IOException
+    {
+        File tmpFile = createTempFile(recordFile);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(fileListFile), "UTF-8"));
+             BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmpFile), "UTF-8")))
+        {
+            writer.write(RECORD_HEADER);
+            writer.write('\n');
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                if (line.length() > 0)
+                {
+                    File file = new File(line);
+                    writeEntry(writer, file.getAbsolutePath(), file.length(), file.lastModified());
+                }
+            }
+        }
+        replace(recordFile, tmpFile);
+    }
+
+    private static File createTempFile(File recordFile)
+    {
+        recordFile.getParentFile().mkdirs();
+        return new File(recordFile.getParentFile(), recordFile.getName() + ".tmp");
+    }
+
+    private static void writeEntry(BufferedWriter writer, String path, long length, long lastModified)
+    throws IOException
+    {
+        writer.write(length + "\t" + lastModified + "\t" + path);
+        writer.write('\n');
+    }
+
+    private static void replace(File recordFile, File tmpFile)
+    throws IOException
+    {
+        if (recordFile.exists() && !recordFile.delete() || !tmpFile.renameTo(recordFile))
+        {
+            throw new IOException("Unable to replace enhancement record '" + recordFile.getAbsolutePath() + "'");
+        }
+    }
+}
@@ -19,8 +19,15 @@
  **********************************************************************/
 package org.datanucleus.maven;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
 
+import org.apache.maven.plugin.MojoExecutionException;
+import org.codehaus.plexus.util.cli.CommandLineException;
+
 /**
  * Goal to enhance the provided classes as per the input file definition.
  * @goal enhance
@@ -36,9 +43,68 @@ public class EnhancerEnhanceMojo extends AbstractEnhancerEnhanceMojo
      */
     private List classpathElements;
 
+    /** Record of the files processed by this execution. */
+    private EnhancementRecord record;
+
     @Override
     List getClasspathElements() 
     {
         return classpathElements;
     }
+
+    /**
+     * {@inheritDoc}
+     * Records the files processed, so that the test goals need not process them again.
+     * @see org.datanucleus.maven.AbstractEnhancerEnhanceMojo#executeDataNucleusTool(java.util.List, java.util.List)
+     */
+    @Override
+    protected void executeDataNucleusTool(List pluginArtifacts, List files)
+    throws CommandLineException, MojoExecutionException
+    {
+        File recordFile = new File(workDirectory, MAIN_ENHANCEMENT_RECORD);
+        if (getScannedFileListFile() == null)
+        {
+            super.executeDataNucleusTool(pluginArtifacts, files);
+
+            // Accumulate over the runs for each output directory
+            if (record == null)
+            {
+                record = new EnhancementRecord();
+            }
+            record.addAll(files);
+            try
+            {
+                record.write(recordFile);
+            }
+            catch (IOException e)
+            {
+                getLog().warn("Unable to write enhancement record : " + e.getMessage());
+            }
+            return;
+        }
+
+        // Input files are only in the file list, which the enhancer deletes, so keep a copy to record them from
+        File recordListFile = new File(workDirectory, MAIN_ENHANCEMENT_RECORD + ".flf");
+        try
+        {
+            Files.copy(getScannedFileListFile().toPath(), recordListFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (IOException e)
+        {
+            throw new MojoExecutionException("Error copying enhancer file list " + getScannedFileListFile().getAbsolutePath(), e);
+        }
+        try
+        {
+            super.executeDataNucleusTool(pluginArtifacts, files);
+            EnhancementRecord.write(recordFile, recordListFile);
+        }
+        catch (IOException e)
+        {
+            getLog().warn("Unable to write enhancement record : " + e.getMessage());
+        }
+        finally
+        {
+            recordListFile.delete();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Properties;
+
+/**
+ * Wrapper driving the programmatic API of <i>org.datanucleus.enhancer.DataNucleusEnhancer</i> by reflection, so that
+ * the enhancer can be loaded in a class loader separate from this plugin.
+ */
+class EnhancerInvoker
+{
+    static final String ENHANCER_CLASS_NAME = "org.datanucleus.enhancer.DataNucleusEnhancer";
+
+    private final Object enhancer;
+
+    /**
+     * Constructor, creating the enhancer.
+     * @param loader Loader providing the enhancer and the classes to be enhanced
+     * @param api The API (JDO, JPA, Jakarta)
+     * @param props Persistence properties for the enhancer
+     * @throws Exception If the enhancer cannot be created
+     */
+    EnhancerInvoker(ClassLoader loader, String api, Properties props)
+    throws Exception
+    {
+        Class enhancerClass = loader.loadClass(ENHANCER_CLASS_NAME);
+        enhancer = enhancerClass.getConstructor(new Class[] {String.class, Properties.class}).newInstance(new Object[] {api, props});
+        invoke("setClassLoader", ClassLoader.class, loader);
+    }
+
+    void setVerbose(boolean verbose) throws Exception
+    {
+        invoke("setVerbose", boolean.class, verbose);
+    }
+
+    void setSystemOut(boolean systemOut) throws Exception
+    {
+        invoke("setSystemOut", boolean.class, systemOut);
+    }
+
+    void setGeneratePK(boolean generatePK) throws Exception
+    {
+        invoke("setGeneratePK", boolean.class, generatePK);
+    }
+
+    void setGenerateConstructor(boolean generateConstructor) throws Exception
+    {
+        invoke("setGenerateConstructor", boolean.class, generateConstructor);
+    }
+
+    void setDetachListener(boolean detachListener) throws Exception
+    {
+        invoke("setDetachListener", boolean.class, detachListener);
+    }
+
+    void setOutputDirectory(String outputDirectory) throws Exception
+    {
+        invoke("setOutputDirectory", String.class, outputDirectory);
+    }
+
+    /**
+     * Method to register input files (class files, metadata files, jars) in bulk.
+     * @param fileNames Paths of the files
+     * @throws Exception If an error occurs
+     */
+    void addFiles(String[] fileNames) throws Exception
+    {
+        invoke("addFiles", String[].class, fileNames);
+    }
+
+    void addPersistenceUnit(String persistenceUnitName) throws Exception
+    {
+        invoke("addPersistenceUnit", String.class, persistenceUnitName);
+    }
+
+    /**
+     * Method to enhance the registered classes.
+     * @return Number of classes enhanced
+     * @throws Exception If an error occurs
+     */
+    int enhance() throws Exception
+    {
+        return ((Number) invoke("enhance")).intValue();
+    }
+
+    /**
+     * Method to validate the enhancement of the registered classes.
+     * @return Number of classes correctly enhanced
+     * @throws Exception If an error occurs
+     */
+    int validate() throws Exception
+    {
+        return ((Number) invoke("validate")).intValue();
+    }
+
+    private Object invoke(String methodName, Class argType, Object arg) throws Exception
+    {
+        Method method = enhancer.getClass().getMethod(methodName, new Class[] {argType});
+        try
+        {
+            return method.invoke(enhancer, new Object[] {arg});
+        }
+        catch (InvocationTargetException e)
+        {
+            throw unwrap(e);
+        }
+    }
+
+    private Object invoke(String methodName) throws Exception
+    {
+        Method method = enhancer.getClass().getMethod(methodName);
+        try
+        {
+            return method.invoke(enhancer);
+        }
+        catch (InvocationTargetException e)
+        {
+            throw unwrap(e);
+        }
+    }
+
+    private static Exception unwrap(InvocationTargetException e)
+    {
+        Throwable cause = e.getCause();
+        if (cause instanceof Exception)
+        {
+            return (Exception) cause;
+        }
+        if (cause instanceof Error)
+        {
+            throw (Error) cause;
+        }
+        return e;
+    }
+}
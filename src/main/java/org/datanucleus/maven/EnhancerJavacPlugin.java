@@ -0,0 +1,221 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.tools.Diagnostic;
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.Plugin;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import com.sun.source.util.Trees;
+
+/**
+ * javac plugin that runs the DataNucleus Enhancer over the classes generated by the compilation, once the compilation
+ * completes, so that persistable classes are enhanced without a separate pass over the output directory.
+ * Only the classes generated by this compilation are enhanced, so an incremental compile only enhances what changed.
+ * <p>
+ * The plugin is configured by the "prepare-compile-enhance" goal, which writes the enhancer settings to a properties
+ * file and provides the javac argument <code>-Xplugin:DataNucleusEnhancer config={file URI}</code>.
+ * This plugin, datanucleus-core and the API jar need to be on the annotation processor path of the compiler.
+ * The result is reported as a javac note (unless "quiet"), against the last compilation unit generated.
+ * Requires javac from JDK 9 or later.
+ */
+public class EnhancerJavacPlugin implements Plugin
+{
+    /** Name of the plugin, as used with -Xplugin. */
+    public static final String PLUGIN_NAME = "DataNucleusEnhancer";
+
+    @Override
+    public String getName()
+    {
+        return PLUGIN_NAME;
+    }
+
+    @Override
+    public void init(JavacTask task, String... args)
+    {
+        Properties config = new Properties();
+        for (String arg : args)
+        {
+            if (arg.startsWith("config="))
+            {
+                File configFile = new File(URI.create(arg.substring(7)));
+                try (InputStream is = new FileInputStream(configFile))
+                {
+                    config.load(is);
+                }
+                catch (IOException e)
+                {
+                    throw new IllegalStateException("Unable to read DataNucleus enhancer configuration " + configFile, e);
+                }
+            }
+        }
+        if (config.getProperty("outputDirectory") == null)
+        {
+            throw new IllegalStateException("DataNucleus enhancer plugin requires argument config={file URI} as written by the prepare-compile-enhance goal");
+        }
+
+        task.addTaskListener(new EnhancerTaskListener(task.getElements(), Trees.instance(task), config));
+    }
+
+    /**
+     * Listener collecting the generated classes, and enhancing them when the compilation completes.
+     */
+    private static class EnhancerTaskListener implements TaskListener
+    {
+        private final Elements elements;
+
+        private final Trees trees;
+
+        private final Properties config;
+
+        private final Set<String> generatedClassNames = new LinkedHashSet<>();
+
+        /** Last compilation unit generated, for reporting against, since javac diagnostics need a position. */
+        private CompilationUnitTree lastUnit;
+
+        EnhancerTaskListener(Elements elements, Trees trees, Properties config)
+        {
+            this.elements = elements;
+            this.trees = trees;
+            this.config = config;
+        }
+
+        @Override
+        public void started(TaskEvent e)
+        {
+        }
+
+        @Override
+        public void finished(TaskEvent e)
+        {
+            if (e.getKind() == TaskEvent.Kind.GENERATE && e.getTypeElement() != null)
+            {
+                addClassNames(e.getTypeElement());
+                lastUnit = e.getCompilationUnit();
+            }
+            else if (e.getKind() == TaskEvent.Kind.COMPILATION && !generatedClassNames.isEmpty())
+            {
+                enhance();
+                generatedClassNames.clear();
+            }
+        }
+
+        private void addClassNames(TypeElement type)
+        {
+            generatedClassNames.add(elements.getBinaryName(type).toString());
+            for (Element enclosed : type.getEnclosedElements())
+            {
+                if (enclosed.getKind().isClass() || enclosed.getKind() == ElementKind.INTERFACE)
+                {
+                    addClassNames((TypeElement) enclosed);
+                }
+            }
+        }
+
+        private void enhance()
+        {
+            File outputDir = new File(config.getProperty("outputDirectory"));
+            List<String> classFiles = new ArrayList<>();
+            for (String className : generatedClassNames)
+            {
+                File classFile = new File(outputDir, className.replace('.', File.separatorChar) + ".class");
+                if (classFile.exists())
+                {
+                    classFiles.add(classFile.getAbsolutePath());
+                }
+            }
+
+            boolean quiet = Boolean.parseBoolean(config.getProperty("quiet"));
+            try
+            {
+                // Loader that can see the compiled classes and their dependencies, to read the metadata
+                List<URL> urls = new ArrayList<>();
+                urls.add(outputDir.toURI().toURL());
+                String classpath = config.getProperty("classpath", "");
+                for (String entry : classpath.split(File.pathSeparator))
+                {
+                    if (entry.length() > 0)
+                    {
+                        urls.add(new File(entry).toURI().toURL());
+                    }
+                }
+                ClassLoader pluginLoader = EnhancerJavacPlugin.class.getClassLoader();
+                URLClassLoader loader = new URLClassLoader(urls.toArray(new URL[urls.size()]), pluginLoader);
+
+                Properties props = new Properties();
+                if (Boolean.parseBoolean(config.getProperty("alwaysDetachable")))
+                {
+                    props.setProperty("datanucleus.metadata.alwaysDetachable", "true");
+                }
+                if (Boolean.parseBoolean(config.getProperty("ignoreMetaDataForMissingClasses")))
+                {
+                    props.setProperty("datanucleus.metadata.ignoreMetaDataForMissingClasses", "true");
+                }
+
+                ClassLoader tl = Thread.currentThread().getContextClassLoader();
+                try
+                {
+                    Thread.currentThread().setContextClassLoader(loader);
+
+                    EnhancerInvoker enhancer = new EnhancerInvoker(loader, config.getProperty("api", "JDO"), props);
+                    enhancer.setVerbose(Boolean.parseBoolean(config.getProperty("verbose")));
+                    enhancer.setSystemOut(false);
+                    enhancer.setGeneratePK(Boolean.parseBoolean(config.getProperty("generatePK", "true")));
+                    enhancer.setGenerateConstructor(Boolean.parseBoolean(config.getProperty("generateConstructor", "true")));
+                    enhancer.setDetachListener(Boolean.parseBoolean(config.getProperty("detachListener")));
+                    enhancer.addFiles(classFiles.toArray(new String[classFiles.size()]));
+
+                    int numEnhanced = enhancer.enhance();
+                    if (!quiet && lastUnit != null)
+                    {
+                        trees.printMessage(Diagnostic.Kind.NOTE, "DataNucleus Enhancer (javac plugin) : enhanced " + numEnhanced + " of " +
+                            classFiles.size() + " compiled classes", lastUnit, lastUnit);
+                    }
+                }
+                finally
+                {
+                    Thread.currentThread().setContextClassLoader(tl);
+                }
+            }
+            catch (Exception e)
+            {
+                throw new IllegalStateException("Error enhancing compiled classes with the DataNucleus Enhancer", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.cli.Commandline;
+
+/**
+ * Goal to configure enhancement at class load time in tests, using the DataNucleus enhancer agent of the plugin
+ * dependencies. Sets the surefire/failsafe "argLine" property (or the property named by "propertyName") to start the
+ * test JVM with the agent, so that only the classes loaded by the tests are enhanced, as in
+ * <pre>
+ *    &lt;execution&gt;
+ *      &lt;goals&gt;
+ *        &lt;goal&gt;prepare-agent&lt;/goal&gt;
+ *      &lt;/goals&gt;
+ *      &lt;configuration&gt;
+ *        &lt;agentClassNameFilters&gt;mydomain.model&lt;/agentClassNameFilters&gt;
+ *      &lt;/configuration&gt;
+ *    &lt;/execution&gt;
+ * </pre>
+ * Any existing value of the property is kept, after the agent argument. Unless "skipTestEnhance" is false, the
+ * "test-enhance" goal is skipped, since the test classes are enhanced by the agent.
+ * @goal prepare-agent
+ * @phase initialize
+ * @requiresDependencyResolution test
+ * @description Configures enhancement of the classes at class load time in tests.
+ */
+public class EnhancerPrepareAgentMojo extends AbstractEnhancerMojo
+{
+    /** Artifact of the plugin dependencies that provides the enhancer agent. */
+    private static final String AGENT_ARTIFACT_ID = "datanucleus-core";
+
+    /**
+     * @parameter property="classpath" default-value="${project.testClasspathElements}"
+     */
+    private List classpathElements;
+
+    /**
+     * @parameter default-value="${project}"
+     * @readonly
+     */
+    private MavenProject project;
+
+    /**
+     * Name of the project property to set with the agent argument.
+     * @parameter property="datanucleus.agent.propertyName" default-value="argLine"
+     */
+    private String propertyName;
+
+    /**
+     * Comma-separated names of the packages (or classes) for the agent to enhance. If not specified, the agent
+     * enhances any persistable class that is loaded.
+     * @parameter property="agentClassNameFilters"
+     */
+    private String agentClassNameFilters;
+
+    /**
+     * Whether to skip the "test-enhance" goal of the project, since the test classes are enhanced by the agent.
+     * @parameter property="skipTestEnhance" default-value="true"
+     */
+    private boolean skipTestEnhance;
+
+    @Override
+    List getClasspathElements()
+    {
+        return classpathElements;
+    }
+
+    /**
+     * Method to add the agent argument to the property for the test JVM.
+     * @throws MojoExecutionException If the enhancer agent is not in the plugin dependencies
+     */
+    @Override
+    public void execute() throws MojoExecutionException
+    {
+        Artifact agentArtifact = null;
+        for (Iterator it = pluginArtifacts.iterator(); it.hasNext();)
+        {
+            Artifact artifact = (Artifact) it.next();
+            if (AGENT_ARTIFACT_ID.equals(artifact.getArtifactId()) && artifact.getFile() != null)
+            {
+                agentArtifact = artifact;
+                break;
+            }
+        }
+        if (agentArtifact == null)
+        {
+            throw new MojoExecutionException("No " + AGENT_ARTIFACT_ID + " artifact in the dependencies of the plugin to provide the enhancer agent");
+        }
+
+        // The agent splits its arguments at commas, so the options and filters are passed as a single argument
+        StringBuilder agentArgs = new StringBuilder("-api=").append(api);
+        if (agentClassNameFilters != null)
+        {
+            for (String filter : agentClassNameFilters.split(","))
+            {
+                if (filter.trim().length() > 0)
+                {
+                    agentArgs.append(',').append(filter.trim());
+                }
+            }
+        }
+
+        String agentPath = agentArtifact.getFile().getAbsolutePath();
+        String agentArg = "-javaagent:" + agentPath + "=" + agentArgs;
+        if (agentPath.indexOf(' ') >= 0)
+        {
+            agentArg = '"' + agentArg + '"';
+        }
+
+        String existing = project.getProperties().getProperty(propertyName);
+        String value = (existing != null && existing.trim().length() > 0) ? agentArg + " " + existing.trim() : agentArg;
+        project.getProperties().setProperty(propertyName, value);
+        getLog().info(propertyName + " set to " + value);
+
+        if (skipTestEnhance)
+        {
+            project.getProperties().setProperty(EnhancerTestEnhanceMojo.SKIP_PROPERTY, "true");
+        }
+    }
+
+    /**
+     * Not used since the enhancer is invoked by the agent.
+     * @param cl The current CommandLine
+     * @param args Args that will be updated with anything appended here
+     */
+    protected void prepareModeSpecificCommandLineArguments(Commandline cl, List args)
+    {
+    }
+}
@@ -0,0 +1,134 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.cli.Commandline;
+
+/**
+ * Goal to configure enhancement during compilation, using the enhancer settings of this plugin.
+ * Writes the settings for {@link EnhancerJavacPlugin} and sets a project property with the javac argument to enable it,
+ * for use in the compiler configuration, as in
+ * <pre>
+ *    &lt;plugin&gt;
+ *      &lt;artifactId&gt;maven-compiler-plugin&lt;/artifactId&gt;
+ *      &lt;configuration&gt;
+ *        &lt;compilerArgs&gt;
+ *          &lt;arg&gt;${datanucleus.compilerArg}&lt;/arg&gt;
+ *        &lt;/compilerArgs&gt;
+ *        &lt;annotationProcessorPaths&gt;
+ *          (datanucleus-maven-plugin, datanucleus-core and the API jar)
+ *        &lt;/annotationProcessorPaths&gt;
+ *      &lt;/configuration&gt;
+ *    &lt;/plugin&gt;
+ * </pre>
+ * The persistable classes are then written already enhanced, and the "enhance" goal can be omitted.
+ * @goal prepare-compile-enhance
+ * @phase initialize
+ * @requiresDependencyResolution compile
+ * @description Configures enhancement of the classes during compilation.
+ */
+public class EnhancerPrepareCompileMojo extends AbstractEnhancerMojo
+{
+    /**
+     * @parameter property="classpath" default-value="${project.compileClasspathElements}"
+     * @required
+     */
+    private List classpathElements;
+
+    /**
+     * @parameter default-value="${project}"
+     * @readonly
+     */
+    private MavenProject project;
+
+    /**
+     * Name of the project property to set with the javac argument.
+     * @parameter property="compilerArgPropertyName" default-value="datanucleus.compilerArg"
+     */
+    private String compilerArgPropertyName;
+
+    @Override
+    List getClasspathElements()
+    {
+        return classpathElements;
+    }
+
+    /**
+     * Method to write the enhancer configuration for the javac plugin, and set the javac argument property.
+     * @throws MojoExecutionException If an error occurs writing the configuration
+     */
+    @Override
+    public void execute() throws MojoExecutionException
+    {
+        StringBuilder cp = new StringBuilder();
+        for (Iterator it = getClasspathElements().iterator(); it.hasNext();)
+        {
+            cp.append((String) it.next());
+            if (it.hasNext())
+            {
+                cp.append(File.pathSeparator);
+            }
+        }
+
+        Properties config = new Properties();
+        config.setProperty("outputDirectory", metadataDirectory.getAbsolutePath());
+        config.setProperty("classpath", cp.toString());
+        config.setProperty("api", api);
+        config.setProperty("verbose", String.valueOf(verbose));
+        config.setProperty("quiet", String.valueOf(quiet));
+        config.setProperty("alwaysDetachable", String.valueOf(alwaysDetachable));
+        config.setProperty("ignoreMetaDataForMissingClasses", String.valueOf(ignoreMetaDataForMissingClasses));
+        config.setProperty("generatePK", String.valueOf(generatePK));
+        config.setProperty("generateConstructor", String.valueOf(generateConstructor));
+        config.setProperty("detachListener", String.valueOf(detachListener));
+
+        File configFile = new File(workDirectory, "compile-enhancer.properties");
+        configFile.getParentFile().mkdirs();
+        try (OutputStream out = new FileOutputStream(configFile))
+        {
+            config.store(out, "DataNucleus Enhancer settings for the javac plugin");
+        }
+        catch (IOException e)
+        {
+            throw new MojoExecutionException("Error writing enhancer configuration '" + configFile.getAbsolutePath() + "'", e);
+        }
+
+        String compilerArg = "-Xplugin:" + EnhancerJavacPlugin.PLUGIN_NAME + " config=" + configFile.toURI();
+        project.getProperties().setProperty(compilerArgPropertyName, compilerArg);
+        getLog().info(compilerArgPropertyName + " set to " + compilerArg);
+    }
+
+    /**
+     * Not used since the enhancer is invoked by the compiler.
+     * @param cl The current CommandLine
+     * @param args Args that will be updated with anything appended here
+     */
+    protected void prepareModeSpecificCommandLineArguments(Commandline cl, List args)
+    {
+    }
+}
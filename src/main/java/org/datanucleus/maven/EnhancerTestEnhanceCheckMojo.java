@@ -40,4 +40,10 @@ public class EnhancerTestEnhanceCheckMojo extends AbstractEnhancerCheckMojo
     {
         return classpathElements;
     }
+
+    @Override
+    protected boolean isTestGoal()
+    {
+        return true;
+    }
 }
\ No newline at end of file
@@ -20,6 +20,8 @@ package org.datanucleus.maven;
 
 import java.util.List;
 
+import org.apache.maven.plugin.MojoExecutionException;
+
 /**
  * Goal to enhance the provided classes as per the input file definition.
  * @goal test-enhance
@@ -29,14 +31,46 @@ import java.util.List;
  */
 public class EnhancerTestEnhanceMojo extends AbstractEnhancerEnhanceMojo 
 {
+    /** Property to skip this goal, set by the "prepare-agent" goal when the test classes are enhanced by the agent. */
+    static final String SKIP_PROPERTY = "datanucleus.testEnhance.skip";
+
     /**
      * @parameter property="classpath" default-value="${project.testClasspathElements}"
      */
     private List classpathElements;
 
+    /**
+     * Whether to skip enhancement of the test classes, such as when they are enhanced at class load time by the agent
+     * configured by the "prepare-agent" goal.
+     * @parameter property="datanucleus.testEnhance.skip" default-value="false"
+     */
+    private boolean skip;
+
     @Override
     List getClasspathElements() 
     {
         return classpathElements;
     }
+
+    /**
+     * {@inheritDoc}
+     * Does nothing when skipped.
+     * @see org.datanucleus.maven.AbstractEnhancerMojo#execute()
+     */
+    @Override
+    public void execute() throws MojoExecutionException
+    {
+        if (skip)
+        {
+            getLog().info("Enhancement of the test classes is skipped");
+            return;
+        }
+        super.execute();
+    }
+
+    @Override
+    protected boolean isTestGoal()
+    {
+        return true;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,534 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.math.BigDecimal;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Loader of fixture files into tables over JDBC.
+ * <p>
+ * The tables are ordered into levels by their foreign keys, with each table after the tables it references. The
+ * tables of a level are independent, so are loaded concurrently over a pool of connections, each table on its own
+ * connection and in its own transaction. Rows are streamed from the file and inserted by a prepared statement as JDBC
+ * batches, with the values converted to the types of the columns. Where the datastore has a bulk-load path for CSV
+ * files this is used instead, being <code>CSVREAD</code> for an embedded H2 database and <code>COPY</code> for
+ * PostgreSQL.
+ */
+class FixtureLoader
+{
+    private final JdbcConnectionFactory connectionFactory;
+
+    private final int maxConnections;
+
+    private final int batchSize;
+
+    private final boolean bulkLoad;
+
+    private final Log log;
+
+    private long rowCount;
+
+    /**
+     * Constructor.
+     * @param connectionFactory Factory for the connections
+     * @param maxConnections Maximum number of tables to load concurrently
+     * @param batchSize Maximum number of rows per JDBC batch (1 to not use batches)
+     * @param bulkLoad Whether to use the bulk-load path of the datastore where available
+     * @param log Log
+     */
+    FixtureLoader(JdbcConnectionFactory connectionFactory, int maxConnections, int batchSize, boolean bulkLoad, Log log)
+    {
+        this.connectionFactory = connectionFactory;
+        this.maxConnections = Math.max(1, maxConnections);
+        this.batchSize = Math.max(1, batchSize);
+        this.bulkLoad = bulkLoad;
+        this.log = log;
+    }
+
+    /**
+     * Method to load fixture files into their tables.
+     * @param fixtures Fixture file of each table, keyed by normalised table name
+     * @param tables The tables, keyed by normalised name, with the name to use in SQL
+     * @param references Normalised names of the tables referenced by each table
+     * @throws SQLException If an error occurs loading a table. Tables of later levels are not loaded.
+     */
+    void load(Map<String, File> fixtures, Map<String, String> tables, Map<String, Set<String>> references)
+    throws SQLException
+    {
+        if (fixtures.isEmpty())
+        {
+            return;
+        }
+
+        TreeMap<Integer, List<String>> levels = new TreeMap<>();
+        Map<String, Integer> tableLevels = new HashMap<>();
+        for (String tableName : fixtures.keySet())
+        {
+            int level = getTableLevel(tableName, fixtures, references, tableLevels, new HashSet<String>());
+            List<String> levelTables = levels.get(level);
+            if (levelTables == null)
+            {
+                levelTables = new ArrayList<>();
+                levels.put(level, levelTables);
+            }
+            levelTables.add(tableName);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxConnections, fixtures.size()));
+        try
+        {
+            for (List<String> levelTables : levels.values())
+            {
+                List<Future<Long>> futures = new ArrayList<>();
+                for (final String tableName : levelTables)
+                {
+                    final String table = tables.get(tableName);
+                    final File file = fixtures.get(tableName);
+                    futures.add(executor.submit(new Callable<Long>()
+                    {
+                        public Long call() throws SQLException, IOException
+                        {
+                            return loadTable(table, file);
+                        }
+                    }));
+                }
+
+                Throwable error = null;
+                for (Future<Long> future : futures)
+                {
+                    try
+                    {
+                        rowCount += future.get();
+                    }
+                    catch (ExecutionException e)
+                    {
+                        if (error == null)
+                        {
+                            error = e.getCause();
+                        }
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted loading fixture files", e);
+                    }
+                }
+                if (error instanceof SQLException)
+                {
+                    throw (SQLException) error;
+                }
+                else if (error instanceof Error)
+                {
+                    throw (Error) error;
+                }
+                else if (error != null)
+                {
+                    throw new SQLException(error.getMessage(), error);
+                }
+            }
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Accessor for the number of rows loaded.
+     * @return Number of rows
+     */
+    long getRowCount()
+    {
+        return rowCount;
+    }
+
+    /**
+     * Level of a table, being 0 if it references no table being loaded, else one more than the highest level of the
+     * tables it references. References forming a cycle are ignored.
+     */
+    private static int getTableLevel(String tableName, Map<String, File> fixtures, Map<String, Set<String>> references,
+            Map<String, Integer> tableLevels, Set<String> visiting)
+    {
+        Integer level = tableLevels.get(tableName);
+        if (level != null)
+        {
+            return level;
+        }
+
+        visiting.add(tableName);
+        int tableLevel = 0;
+        Set<String> tableRefs = references.get(tableName);
+        if (tableRefs != null)
+        {
+            for (String referencedTable : tableRefs)
+            {
+                if (fixtures.containsKey(referencedTable) && !visiting.contains(referencedTable))
+                {
+                    tableLevel = Math.max(tableLevel, getTableLevel(referencedTable, fixtures, references, tableLevels, visiting) + 1);
+                }
+            }
+        }
+        visiting.remove(tableName);
+        tableLevels.put(tableName, tableLevel);
+        return tableLevel;
+    }
+
+    /**
+     * Method to load a fixture file into a table, on its own connection and in one transaction.
+     * @param table The table
+     * @param file The fixture file
+     * @return Number of rows loaded
+     */
+    private long loadTable(String table, File file)
+    throws SQLException, IOException
+    {
+        long startTime = System.currentTimeMillis();
+        try (Connection conn = connectionFactory.getConnection(); FixtureReader reader = FixtureReader.open(file))
+        {
+            conn.setAutoCommit(false);
+            long rows;
+            String method;
+            try
+            {
+                if (bulkLoad && reader instanceof FixtureReader.CsvReader && isH2Embedded())
+                {
+                    method = "CSVREAD";
+                    rows = loadUsingCsvRead(conn, table, reader.getColumns(), file);
+                }
+                else if (bulkLoad && reader instanceof FixtureReader.CsvReader && connectionFactory.getURL().startsWith("jdbc:postgresql:"))
+                {
+                    method = "COPY";
+                    rows = loadUsingCopy(conn, table, reader.getColumns(), file);
+                }
+                else
+                {
+                    method = "batched inserts";
+                    rows = loadUsingInserts(conn, table, reader, file);
+                }
+                conn.commit();
+            }
+            catch (SQLException | IOException | RuntimeException e)
+            {
+                try
+                {
+                    conn.rollback();
+                }
+                catch (SQLException rollbackException)
+                {
+                    e.addSuppressed(rollbackException);
+                }
+                throw e;
+            }
+            log.info("Loaded " + rows + " rows into " + table + " from " + file.getName() + " by " + method + " in " +
+                (System.currentTimeMillis() - startTime) + " ms");
+            return rows;
+        }
+    }
+
+    private boolean isH2Embedded()
+    {
+        String url = connectionFactory.getURL();
+        return url.startsWith("jdbc:h2:") && !url.startsWith("jdbc:h2:tcp:") && !url.startsWith("jdbc:h2:ssl:");
+    }
+
+    private static String getColumnList(List<String> columns)
+    {
+        return "(" + String.join(", ", columns) + ")";
+    }
+
+    /**
+     * Method to load a CSV file into a table of an embedded H2 database, which reads the file itself.
+     */
+    private static long loadUsingCsvRead(Connection conn, String table, List<String> columns, File file)
+    throws SQLException
+    {
+        // CSVREAD needs the file name when the statement is prepared, so cannot take it as a parameter
+        String sql = "INSERT INTO " + table + " " + getColumnList(columns) + " SELECT * FROM CSVREAD('" +
+            file.getAbsolutePath().replace("'", "''") + "', NULL, 'charset=UTF-8')";
+        try (Statement stmt = conn.createStatement())
+        {
+            return stmt.executeUpdate(sql);
+        }
+    }
+
+    /**
+     * Method to load a CSV file into a table of a PostgreSQL database, by <code>COPY ... FROM STDIN</code> using the
+     * CopyManager of the driver (invoked by reflection since the driver is only on the CLASSPATH of the tool).
+     */
+    private static long loadUsingCopy(Connection conn, String table, List<String> columns, File file)
+    throws SQLException, IOException
+    {
+        String sql = "COPY " + table + " " + getColumnList(columns) + " FROM STDIN WITH (FORMAT csv, HEADER true)";
+        try (Reader fileReader = new InputStreamReader(new FileInputStream(file), "UTF-8"))
+        {
+            ClassLoader driverLoader = conn.getClass().getClassLoader();
+            Class pgConnectionClass = Class.forName("org.postgresql.PGConnection", true, driverLoader);
+            Object pgConnection = conn.unwrap(pgConnectionClass);
+            Object copyManager = pgConnectionClass.getMethod("getCopyAPI").invoke(pgConnection);
+            Class copyManagerClass = Class.forName("org.postgresql.copy.CopyManager", true, driverLoader);
+            return ((Number) copyManagerClass.getMethod("copyIn", new Class[] {String.class, Reader.class}).invoke(copyManager,
+                new Object[] {sql, fileReader})).longValue();
+        }
+        catch (InvocationTargetException e)
+        {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException)
+            {
+                throw (SQLException) cause;
+            }
+            throw new SQLException("Error copying " + file + " into " + table + " : " + cause, cause);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            throw new SQLException("PostgreSQL driver does not provide COPY : " + e, e);
+        }
+    }
+
+    /**
+     * Method to load the rows of a fixture file into a table by a prepared statement, as JDBC batches.
+     */
+    private long loadUsingInserts(Connection conn, String table, FixtureReader reader, File file)
+    throws SQLException, IOException
+    {
+        List<String> columns = reader.getColumns();
+        if (columns.isEmpty())
+        {
+            // JSON file with no rows
+            return 0;
+        }
+        int[] types = getColumnTypes(conn, table, columns);
+
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" ").append(getColumnList(columns)).append(" VALUES (");
+        for (int i = 0; i < columns.size(); i++)
+        {
+            sql.append(i > 0 ? ", ?" : "?");
+        }
+        sql.append(")");
+
+        boolean useBatch = batchSize > 1 && conn.getMetaData().supportsBatchUpdates();
+        long rows = 0;
+        int batchRows = 0;
+        try (PreparedStatement ps = conn.prepareStatement(sql.toString()))
+        {
+            Object[] values;
+            while ((values = reader.next()) != null)
+            {
+                rows++;
+                for (int i = 0; i < values.length; i++)
+                {
+                    try
+                    {
+                        setValue(ps, i + 1, values[i], types[i]);
+                    }
+                    catch (IllegalArgumentException e)
+                    {
+                        throw new SQLException("Fixture file " + file + " row " + rows + " has invalid value '" + values[i] + "' for column " +
+                            columns.get(i) + " : " + e.getMessage(), e);
+                    }
+                }
+                if (!useBatch)
+                {
+                    executeRow(ps, file, rows);
+                    continue;
+                }
+                ps.addBatch();
+                if (++batchRows == batchSize)
+                {
+                    executeBatch(ps, file, rows - batchRows + 1);
+                    batchRows = 0;
+                }
+            }
+            if (batchRows > 0)
+            {
+                executeBatch(ps, file, rows - batchRows + 1);
+            }
+        }
+        return rows;
+    }
+
+    private static void executeRow(PreparedStatement ps, File file, long row)
+    throws SQLException
+    {
+        try
+        {
+            ps.executeUpdate();
+        }
+        catch (SQLException e)
+        {
+            throw rowFailed(file, row, e);
+        }
+    }
+
+    private static void executeBatch(PreparedStatement ps, File file, long firstRow)
+    throws SQLException
+    {
+        try
+        {
+            ps.executeBatch();
+        }
+        catch (BatchUpdateException e)
+        {
+            throw rowFailed(file, firstRow + DDLScriptExecutor.getFailedIndex(e, Integer.MAX_VALUE), e);
+        }
+        finally
+        {
+            ps.clearBatch();
+        }
+    }
+
+    private static SQLException rowFailed(File file, long row, SQLException e)
+    {
+        return new SQLException("Error loading row " + row + " of fixture file " + file + " : " + e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+    }
+
+    /**
+     * Method to find the JDBC types of columns of a table.
+     */
+    private static int[] getColumnTypes(Connection conn, String table, List<String> columns)
+    throws SQLException
+    {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT " + String.join(", ", columns) + " FROM " + table + " WHERE 1 = 0"))
+        {
+            ResultSetMetaData rsmd = rs.getMetaData();
+            int[] types = new int[columns.size()];
+            for (int i = 0; i < types.length; i++)
+            {
+                types[i] = rsmd.getColumnType(i + 1);
+            }
+            return types;
+        }
+    }
+
+    /**
+     * Method to set a parameter to a value of a fixture file, converted to the type of the column.
+     * Date, time and timestamp values are in JDBC escape format (a timestamp may have 'T' as separator), and binary
+     * values are hexadecimal.
+     * @param ps The statement
+     * @param index Index of the parameter
+     * @param value The value (String, BigDecimal, Boolean or null)
+     * @param type JDBC type of the column
+     * @throws SQLException If an error occurs setting the parameter
+     * @throws IllegalArgumentException If the value cannot be converted
+     */
+    static void setValue(PreparedStatement ps, int index, Object value, int type)
+    throws SQLException
+    {
+        if (value == null)
+        {
+            ps.setNull(index, type);
+            return;
+        }
+        String str = value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value.toString();
+        switch (type)
+        {
+            case Types.BIT:
+            case Types.BOOLEAN:
+                ps.setBoolean(index, "true".equalsIgnoreCase(str) || "1".equals(str));
+                break;
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+                ps.setInt(index, Integer.parseInt(str.trim()));
+                break;
+            case Types.BIGINT:
+                ps.setLong(index, Long.parseLong(str.trim()));
+                break;
+            case Types.REAL:
+                ps.setFloat(index, Float.parseFloat(str.trim()));
+                break;
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                ps.setDouble(index, Double.parseDouble(str.trim()));
+                break;
+            case Types.NUMERIC:
+            case Types.DECIMAL:
+                ps.setBigDecimal(index, new BigDecimal(str.trim()));
+                break;
+            case Types.DATE:
+                ps.setDate(index, Date.valueOf(str.trim()));
+                break;
+            case Types.TIME:
+                ps.setTime(index, Time.valueOf(str.trim()));
+                break;
+            case Types.TIMESTAMP:
+                ps.setTimestamp(index, Timestamp.valueOf(str.trim().replace('T', ' ')));
+                break;
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB:
+                ps.setBytes(index, parseHex(str.trim()));
+                break;
+            default:
+                ps.setString(index, str);
+                break;
+        }
+    }
+
+    private static byte[] parseHex(String hex)
+    {
+        if (hex.length() % 2 != 0)
+        {
+            throw new IllegalArgumentException("odd number of hexadecimal digits");
+        }
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++)
+        {
+            int high = Character.digit(hex.charAt(2 * i), 16);
+            int low = Character.digit(hex.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0)
+            {
+                throw new IllegalArgumentException("invalid hexadecimal digit");
+            }
+            bytes[i] = (byte) ((high << 4) + low);
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,576 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streaming reader of the rows of a fixture file (UTF-8), reading one row at a time so that files of any size can be
+ * loaded with bounded memory.
+ * <ul>
+ * <li>CSV (".csv") : a header record of the column names followed by a record per row, separated by commas, with
+ * values optionally quoted by '"' (doubled within the value). An unquoted empty value is NULL, and a quoted empty
+ * value is an empty string.</li>
+ * <li>JSON (".json") : an array of objects, or a sequence of objects (such as one per line), each object being a
+ * row of column name to value. Values are strings, numbers, booleans or null. The columns are those of the first
+ * object, with a column missing from a later object being NULL.</li>
+ * </ul>
+ */
+abstract class FixtureReader implements Closeable
+{
+    /** Extension of CSV fixture files. */
+    static final String CSV = ".csv";
+
+    /** Extension of JSON fixture files. */
+    static final String JSON = ".json";
+
+    protected final File file;
+
+    protected final Reader reader;
+
+    protected List<String> columns;
+
+    FixtureReader(File file) throws IOException
+    {
+        this.file = file;
+        this.reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8), 65536);
+    }
+
+    /**
+     * Method to open a fixture file, reading its columns.
+     * @param file The file
+     * @return The reader
+     * @throws IOException If the file is not a fixture file, or an error occurs reading its columns
+     */
+    static FixtureReader open(File file) throws IOException
+    {
+        String name = file.getName().toLowerCase(Locale.ENGLISH);
+        FixtureReader fixtureReader;
+        if (name.endsWith(CSV))
+        {
+            fixtureReader = new CsvReader(file);
+        }
+        else if (name.endsWith(JSON))
+        {
+            fixtureReader = new JsonReader(file);
+        }
+        else
+        {
+            throw new IOException("Fixture file " + file + " is not a CSV or JSON file");
+        }
+        try
+        {
+            fixtureReader.readColumns();
+        }
+        catch (IOException e)
+        {
+            fixtureReader.close();
+            throw e;
+        }
+        return fixtureReader;
+    }
+
+    /**
+     * Whether a file is a fixture file, by its extension.
+     * @param file The file
+     * @return Whether a fixture file
+     */
+    static boolean isFixtureFile(File file)
+    {
+        String name = file.getName().toLowerCase(Locale.ENGLISH);
+        return name.endsWith(CSV) || name.endsWith(JSON);
+    }
+
+    /**
+     * Accessor for the column names of the rows.
+     * @return The columns
+     */
+    List<String> getColumns()
+    {
+        return columns;
+    }
+
+    /**
+     * Method to read the next row.
+     * @return Values of the columns (String, BigDecimal, Boolean or null), or null if there are no more rows
+     * @throws IOException If an error occurs reading, or the row is invalid
+     */
+    abstract Object[] next() throws IOException;
+
+    abstract void readColumns() throws IOException;
+
+    public void close() throws IOException
+    {
+        reader.close();
+    }
+
+    /**
+     * Reader of a CSV fixture file.
+     */
+    static class CsvReader extends FixtureReader
+    {
+        /** Marker for the end of the file, as the result of reading a record. */
+        private static final List<String> END = new ArrayList<>();
+
+        private int lineNumber = 1;
+
+        private int next = -2;
+
+        CsvReader(File file) throws IOException
+        {
+            super(file);
+        }
+
+        void readColumns() throws IOException
+        {
+            List<String> header = readRecord();
+            if (header == END)
+            {
+                throw new IOException("Fixture file " + file + " has no header record");
+            }
+            if (!header.isEmpty() && header.get(0) != null && header.get(0).startsWith("\uFEFF"))
+            {
+                header.set(0, header.get(0).substring(1));
+            }
+            for (String column : header)
+            {
+                if (column == null || column.trim().length() == 0)
+                {
+                    throw new IOException("Fixture file " + file + " has an empty column name in its header");
+                }
+            }
+            columns = new ArrayList<>();
+            for (String column : header)
+            {
+                columns.add(column.trim());
+            }
+        }
+
+        Object[] next() throws IOException
+        {
+            while (true)
+            {
+                int recordLine = lineNumber;
+                List<String> record = readRecord();
+                if (record == END)
+                {
+                    return null;
+                }
+                if (record.size() == 1 && record.get(0) == null)
+                {
+                    // Blank line
+                    continue;
+                }
+                if (record.size() != columns.size())
+                {
+                    throw new IOException("Fixture file " + file + " line " + recordLine + " has " + record.size() + " values but " +
+                        columns.size() + " columns");
+                }
+                return record.toArray();
+            }
+        }
+
+        private int read() throws IOException
+        {
+            if (next != -2)
+            {
+                int c = next;
+                next = -2;
+                return c;
+            }
+            return reader.read();
+        }
+
+        /**
+         * Method to read a record, being its values (null for an unquoted empty value), or END at the end of the file.
+         */
+        private List<String> readRecord() throws IOException
+        {
+            int c = read();
+            if (c < 0)
+            {
+                return END;
+            }
+
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            while (true)
+            {
+                if (c == '"' && value.length() == 0 && !quoted)
+                {
+                    // Quoted value, up to the closing quote
+                    quoted = true;
+                    while (true)
+                    {
+                        c = read();
+                        if (c < 0)
+                        {
+                            throw new IOException("Fixture file " + file + " line " + lineNumber + " has an unterminated quoted value");
+                        }
+                        if (c == '"')
+                        {
+                            c = read();
+                            if (c != '"')
+                            {
+                                break;
+                            }
+                        }
+                        else if (c == '\n')
+                        {
+                            lineNumber++;
+                        }
+                        value.append((char) c);
+                    }
+                    continue;
+                }
+                if (c == ',' || c == '\n' || c == '\r' || c < 0)
+                {
+                    values.add(value.length() == 0 && !quoted ? null : value.toString());
+                    value.setLength(0);
+                    quoted = false;
+                    if (c == ',')
+                    {
+                        c = read();
+                        continue;
+                    }
+                    if (c == '\r')
+                    {
+                        c = read();
+                        if (c != '\n' && c >= 0)
+                        {
+                            next = c;
+                        }
+                    }
+                    lineNumber++;
+                    return values;
+                }
+                value.append((char) c);
+                c = read();
+            }
+        }
+    }
+
+    /**
+     * Reader of a JSON fixture file.
+     */
+    static class JsonReader extends FixtureReader
+    {
+        private int next = -2;
+
+        private boolean inArray;
+
+        private boolean started;
+
+        private boolean finished;
+
+        private Map<String, Integer> columnIndexes;
+
+        private Map<String, Object> firstRow;
+
+        JsonReader(File file) throws IOException
+        {
+            super(file);
+        }
+
+        void readColumns() throws IOException
+        {
+            firstRow = readObject();
+            if (firstRow != null && firstRow.isEmpty())
+            {
+                throw new IOException("Fixture file " + file + " has a first row with no columns");
+            }
+            columns = new ArrayList<>();
+            columnIndexes = new HashMap<>();
+            if (firstRow != null)
+            {
+                for (String column : firstRow.keySet())
+                {
+                    columnIndexes.put(column, columns.size());
+                    columns.add(column);
+                }
+            }
+        }
+
+        Object[] next() throws IOException
+        {
+            Map<String, Object> row = firstRow != null ? firstRow : readObject();
+            firstRow = null;
+            if (row == null)
+            {
+                return null;
+            }
+
+            Object[] values = new Object[columns.size()];
+            for (Map.Entry<String, Object> entry : row.entrySet())
+            {
+                Integer index = columnIndexes.get(entry.getKey());
+                if (index == null)
+                {
+                    throw new IOException("Fixture file " + file + " has a row with column '" + entry.getKey() + "' not in its first row");
+                }
+                values[index] = entry.getValue();
+            }
+            return values;
+        }
+
+        /**
+         * Method to read the next object of the top-level array or sequence.
+         * @return The object, with its members in order, or null if there are no more objects
+         */
+        private Map<String, Object> readObject() throws IOException
+        {
+            if (finished)
+            {
+                return null;
+            }
+            Map<String, Object> row = readNextObject();
+            finished = row == null;
+            return row;
+        }
+
+        private Map<String, Object> readNextObject() throws IOException
+        {
+            int c = readNonSpace();
+            if (!started)
+            {
+                started = true;
+                if (c == '\uFEFF')
+                {
+                    c = readNonSpace();
+                }
+                if (c == '[')
+                {
+                    inArray = true;
+                    c = readNonSpace();
+                    if (c == ']')
+                    {
+                        return null;
+                    }
+                }
+            }
+            else if (inArray)
+            {
+                if (c == ']')
+                {
+                    return null;
+                }
+                if (c != ',')
+                {
+                    throw error("expected ',' or ']'");
+                }
+                c = readNonSpace();
+            }
+            if (c < 0)
+            {
+                if (inArray)
+                {
+                    throw error("unterminated array");
+                }
+                return null;
+            }
+            if (c != '{')
+            {
+                throw error("expected an object");
+            }
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            c = readNonSpace();
+            if (c == '}')
+            {
+                return row;
+            }
+            while (true)
+            {
+                if (c != '"')
+                {
+                    throw error("expected a column name");
+                }
+                String name = readString();
+                if (readNonSpace() != ':')
+                {
+                    throw error("expected ':'");
+                }
+                row.put(name, readValue(readNonSpace()));
+                c = readNonSpace();
+                if (c == '}')
+                {
+                    return row;
+                }
+                if (c != ',')
+                {
+                    throw error("expected ',' or '}'");
+                }
+                c = readNonSpace();
+            }
+        }
+
+        private Object readValue(int c) throws IOException
+        {
+            if (c == '"')
+            {
+                return readString();
+            }
+            if (c == '-' || (c >= '0' && c <= '9'))
+            {
+                StringBuilder number = new StringBuilder();
+                while (c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || (c >= '0' && c <= '9'))
+                {
+                    number.append((char) c);
+                    c = reader.read();
+                }
+                next = c;
+                try
+                {
+                    return new BigDecimal(number.toString());
+                }
+                catch (NumberFormatException e)
+                {
+                    throw error("invalid number " + number);
+                }
+            }
+            if (c == 't' || c == 'f' || c == 'n')
+            {
+                StringBuilder word = new StringBuilder();
+                while (c >= 'a' && c <= 'z')
+                {
+                    word.append((char) c);
+                    c = reader.read();
+                }
+                next = c;
+                if ("true".equals(word.toString()))
+                {
+                    return Boolean.TRUE;
+                }
+                else if ("false".equals(word.toString()))
+                {
+                    return Boolean.FALSE;
+                }
+                else if ("null".equals(word.toString()))
+                {
+                    return null;
+                }
+                throw error("invalid value " + word);
+            }
+            throw error("expected a string, number, boolean or null value");
+        }
+
+        private String readString() throws IOException
+        {
+            StringBuilder str = new StringBuilder();
+            while (true)
+            {
+                int c = reader.read();
+                if (c < 0)
+                {
+                    throw error("unterminated string");
+                }
+                if (c == '"')
+                {
+                    return str.toString();
+                }
+                if (c == '\\')
+                {
+                    c = reader.read();
+                    switch (c)
+                    {
+                        case 'b':
+                            str.append('\b');
+                            break;
+                        case 'f':
+                            str.append('\f');
+                            break;
+                        case 'n':
+                            str.append('\n');
+                            break;
+                        case 'r':
+                            str.append('\r');
+                            break;
+                        case 't':
+                            str.append('\t');
+                            break;
+                        case 'u':
+                            char[] hex = new char[4];
+                            for (int i = 0; i < 4; i++)
+                            {
+                                hex[i] = (char) reader.read();
+                            }
+                            try
+                            {
+                                str.append((char) Integer.parseInt(new String(hex), 16));
+                            }
+                            catch (NumberFormatException e)
+                            {
+                                throw error("invalid escape \\u" + new String(hex));
+                            }
+                            break;
+                        case '"':
+                        case '\\':
+                        case '/':
+                            str.append((char) c);
+                            break;
+                        default:
+                            throw error("invalid escape in string");
+                    }
+                }
+                else
+                {
+                    str.append((char) c);
+                }
+            }
+        }
+
+        private int readNonSpace() throws IOException
+        {
+            int c;
+            if (next != -2)
+            {
+                c = next;
+                next = -2;
+            }
+            else
+            {
+                c = reader.read();
+            }
+            while (c == ' ' || c == '\t' || c == '\n' || c == '\r')
+            {
+                c = reader.read();
+            }
+            return c;
+        }
+
+        private IOException error(String message)
+        {
+            return new IOException("Fixture file " + file + " is not valid JSON : " + message);
+        }
+    }
+}
@@ -0,0 +1,416 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Entry point of a forked tool JVM, invoking the <i>main</i> method of a DataNucleus tool.
+ * The JVM is started before the metadata directory has been scanned, so the launcher loads and initialises the tool
+ * class while the input files are still being found, and receives the input files over standard input.
+ * <pre>
+ * ForkedToolLauncher [-stdin] [-profile {file}] [-parallel {n}] [-runs {file}] {toolClassName} [toolArgs...]
+ * </pre>
+ * With <i>-stdin</i> each line of standard input, until end of stream, is appended to the tool arguments. If no lines
+ * are received the tool is not invoked, since there are no input files.
+ * With <i>-profile</i> the resource usage of the JVM (CPU time, peak resident set size, GC) is written to the file
+ * as properties when the JVM exits, including when the tool calls <i>System.exit</i>.
+ * With <i>-runs</i> the tool is invoked once for each run defined in the file (UTF-8), in the same JVM. Each run
+ * starts with a line "--run {name}", followed by lines "-D{key}={value}" of system properties to set for the run, and
+ * lines of arguments of the run, which precede the <i>toolArgs</i>. A failed run does not stop the other runs; the
+ * result of each run is written to the file "{runsFile}.results" (tab-separated), and the JVM exits with status 1 if any run failed.
+ * With <i>-parallel</i> up to <i>n</i> runs are invoked concurrently, in which case the runs cannot have system
+ * properties.
+ * This class must only depend on the JDK, since it runs on the CLASSPATH of the tool.
+ */
+public class ForkedToolLauncher
+{
+    public static final String OPTION_STDIN = "-stdin";
+
+    public static final String OPTION_PROFILE = "-profile";
+
+    public static final String OPTION_RUNS = "-runs";
+
+    public static final String OPTION_PARALLEL = "-parallel";
+
+    public static final String RUN_START = "--run";
+
+    public static final String RESULTS_SUFFIX = ".results";
+
+    public static final String RESULT_OK = "OK";
+
+    public static final String RESULT_FAILED = "FAILED";
+
+    public static final String PROFILE_CPU_TIME = "cpuTimeMs";
+
+    public static final String PROFILE_PEAK_RSS = "peakRssKb";
+
+    public static final String PROFILE_GC_COUNT = "gcCount";
+
+    public static final String PROFILE_GC_TIME = "gcTimeMs";
+
+    public static void main(String[] args)
+    throws Throwable
+    {
+        int argIdx = 0;
+        boolean readStdin = false;
+        if (args.length > argIdx && OPTION_STDIN.equals(args[argIdx]))
+        {
+            readStdin = true;
+            argIdx++;
+        }
+        if (args.length > argIdx + 1 && OPTION_PROFILE.equals(args[argIdx]))
+        {
+            final File profileFile = new File(args[argIdx + 1]);
+            Runtime.getRuntime().addShutdownHook(new Thread("DataNucleus tool profiler")
+            {
+                public void run()
+                {
+                    writeProfile(profileFile);
+                }
+            });
+            argIdx += 2;
+        }
+        int parallelism = 1;
+        if (args.length > argIdx + 1 && OPTION_PARALLEL.equals(args[argIdx]))
+        {
+            parallelism = Integer.parseInt(args[argIdx + 1]);
+            argIdx += 2;
+        }
+        File runsFile = null;
+        if (args.length > argIdx + 1 && OPTION_RUNS.equals(args[argIdx]))
+        {
+            runsFile = new File(args[argIdx + 1]);
+            argIdx += 2;
+        }
+        if (args.length <= argIdx)
+        {
+            System.err.println("Usage: ForkedToolLauncher [" + OPTION_STDIN + "] [" + OPTION_PROFILE + " {file}] [" + OPTION_PARALLEL + " {n}] [" + OPTION_RUNS + " {file}] {toolClassName} [toolArgs...]");
+            System.exit(1);
+        }
+        final String toolClassName = args[argIdx++];
+
+        final List<String> toolArgs = new ArrayList<>();
+        for (int i = argIdx; i < args.length; i++)
+        {
+            toolArgs.add(args[i]);
+        }
+
+        // Read the streamed arguments in the background while the tool class is loaded
+        final List<String> streamedArgs = new ArrayList<>();
+        final IOException[] readError = new IOException[1];
+        Thread reader = null;
+        if (readStdin)
+        {
+            reader = new Thread("DataNucleus tool input reader")
+            {
+                public void run()
+                {
+                    try
+                    {
+                        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, "UTF-8"), 65536);
+                        String line;
+                        while ((line = in.readLine()) != null)
+                        {
+                            if (line.length() > 0)
+                            {
+                                streamedArgs.add(line);
+                            }
+                        }
+                    }
+                    catch (IOException e)
+                    {
+                        readError[0] = e;
+                    }
+                }
+            };
+            reader.start();
+        }
+
+        Class toolClass = Class.forName(toolClassName, true, ForkedToolLauncher.class.getClassLoader());
+        final Method mainMethod = toolClass.getMethod("main", new Class[] {String[].class});
+
+        if (reader != null)
+        {
+            reader.join();
+            if (readError[0] != null)
+            {
+                throw readError[0];
+            }
+            if (streamedArgs.isEmpty())
+            {
+                System.out.println("No input files received for DataNucleus tool " + toolClassName);
+                return;
+            }
+            toolArgs.addAll(streamedArgs);
+        }
+
+        if (runsFile == null)
+        {
+            invoke(mainMethod, new ArrayList<String>(), toolArgs);
+            return;
+        }
+
+        List<String> runNames = new ArrayList<>();
+        List<List<String>> runLines = new ArrayList<>();
+        boolean runProps = false;
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(runsFile), "UTF-8")))
+        {
+            String line;
+            while ((line = in.readLine()) != null)
+            {
+                if (line.startsWith(RUN_START))
+                {
+                    runNames.add(line.substring(RUN_START.length()).trim());
+                    runLines.add(new ArrayList<String>());
+                }
+                else if (line.length() > 0 && !runLines.isEmpty())
+                {
+                    runLines.get(runLines.size() - 1).add(line);
+                    runProps |= line.startsWith("-D");
+                }
+            }
+        }
+        if (parallelism > 1 && runProps)
+        {
+            System.err.println("System properties of runs are not supported with " + OPTION_PARALLEL);
+            System.exit(1);
+        }
+
+        final String[] results = new String[runNames.size()];
+        if (parallelism > 1)
+        {
+            ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, runNames.size()));
+            try
+            {
+                List<Future<String>> futures = new ArrayList<>();
+                for (int i = 0; i < runNames.size(); i++)
+                {
+                    final String runName = runNames.get(i);
+                    final List<String> lines = runLines.get(i);
+                    futures.add(executor.submit(new Callable<String>()
+                    {
+                        public String call()
+                        {
+                            return executeRun(mainMethod, toolClassName, runName, lines, toolArgs);
+                        }
+                    }));
+                }
+                for (int i = 0; i < futures.size(); i++)
+                {
+                    results[i] = futures.get(i).get();
+                }
+            }
+            finally
+            {
+                executor.shutdown();
+            }
+        }
+        else
+        {
+            for (int i = 0; i < runNames.size(); i++)
+            {
+                results[i] = executeRun(mainMethod, toolClassName, runNames.get(i), runLines.get(i), toolArgs);
+            }
+        }
+
+        boolean failed = false;
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(runsFile.getPath() + RESULTS_SUFFIX), "UTF-8"))
+        {
+            for (String result : results)
+            {
+                out.write(result);
+                out.write('\n');
+                failed |= result.contains("\t" + RESULT_FAILED + "\t");
+            }
+        }
+        if (failed)
+        {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Method to invoke the tool for a run, setting the system properties of the run and restoring the previous values
+     * after it. A failure of the run is reported, without stopping the other runs.
+     * @param mainMethod The tool main method
+     * @param toolClassName Name of the tool class
+     * @param runName Name of the run
+     * @param lines Lines of the run (system properties and arguments)
+     * @param toolArgs Arguments common to all runs
+     * @return The result, as tab-separated name, OK or FAILED, time in ms, and message
+     */
+    private static String executeRun(Method mainMethod, String toolClassName, String runName, List<String> lines, List<String> toolArgs)
+    {
+        long startTime = System.currentTimeMillis();
+        System.out.println("Running DataNucleus tool " + toolClassName + " for " + runName);
+
+        Properties previousProps = new Properties();
+        List<String> unsetProps = new ArrayList<>();
+        List<String> runArgs = new ArrayList<>();
+        for (String line : lines)
+        {
+            int sep = line.indexOf('=');
+            if (line.startsWith("-D") && sep > 2)
+            {
+                String key = line.substring(2, sep);
+                String previous = System.setProperty(key, line.substring(sep + 1));
+                if (previous != null)
+                {
+                    previousProps.setProperty(key, previous);
+                }
+                else
+                {
+                    unsetProps.add(key);
+                }
+            }
+            else
+            {
+                runArgs.add(line);
+            }
+        }
+        try
+        {
+            invoke(mainMethod, runArgs, toolArgs);
+            long time = System.currentTimeMillis() - startTime;
+            System.out.println("Completed DataNucleus tool " + toolClassName + " for " + runName + " in " + time + " ms");
+            return runName + "\t" + RESULT_OK + "\t" + time + "\t";
+        }
+        catch (Throwable thr)
+        {
+            long time = System.currentTimeMillis() - startTime;
+            System.err.println("DataNucleus tool " + toolClassName + " failed for " + runName + " : " + thr);
+            thr.printStackTrace();
+            return runName + "\t" + RESULT_FAILED + "\t" + time + "\t" + String.valueOf(thr).replaceAll("\\s", " ");
+        }
+        finally
+        {
+            System.getProperties().putAll(previousProps);
+            for (String key : unsetProps)
+            {
+                System.clearProperty(key);
+            }
+        }
+    }
+
+    private static void invoke(Method mainMethod, List<String> runArgs, List<String> toolArgs)
+    throws Throwable
+    {
+        List<String> allArgs = new ArrayList<>(runArgs);
+        allArgs.addAll(toolArgs);
+        try
+        {
+            mainMethod.invoke(null, new Object[] {allArgs.toArray(new String[allArgs.size()])});
+        }
+        catch (InvocationTargetException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Method to write the resource usage of this JVM so far to a properties file.
+     * Values that the JVM or operating system do not provide are written as -1.
+     * @param profileFile The file
+     */
+    static void writeProfile(File profileFile)
+    {
+        Properties profile = new Properties();
+
+        long cpuTime = -1;
+        OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+        if (osBean instanceof com.sun.management.OperatingSystemMXBean)
+        {
+            long cpuNanos = ((com.sun.management.OperatingSystemMXBean) osBean).getProcessCpuTime();
+            cpuTime = cpuNanos >= 0 ? cpuNanos / 1000000 : -1;
+        }
+        profile.setProperty(PROFILE_CPU_TIME, String.valueOf(cpuTime));
+        profile.setProperty(PROFILE_PEAK_RSS, String.valueOf(readPeakRss()));
+
+        long gcCount = 0;
+        long gcTime = 0;
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            gcCount += Math.max(gcBean.getCollectionCount(), 0);
+            gcTime += Math.max(gcBean.getCollectionTime(), 0);
+        }
+        profile.setProperty(PROFILE_GC_COUNT, String.valueOf(gcCount));
+        profile.setProperty(PROFILE_GC_TIME, String.valueOf(gcTime));
+
+        try (OutputStream out = new FileOutputStream(profileFile))
+        {
+            profile.store(out, "DataNucleus tool JVM resource usage");
+        }
+        catch (IOException e)
+        {
+            System.err.println("Unable to write DataNucleus tool profile " + profileFile + " : " + e);
+        }
+    }
+
+    /**
+     * Method to read the peak resident set size of this process, from <i>/proc/self/status</i> (Linux).
+     * @return The peak RSS in kB, or -1 if not available
+     */
+    private static long readPeakRss()
+    {
+        File statusFile = new File("/proc/self/status");
+        if (!statusFile.exists())
+        {
+            return -1;
+        }
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(statusFile), "UTF-8")))
+        {
+            String line;
+            while ((line = in.readLine()) != null)
+            {
+                if (line.startsWith("VmHWM:"))
+                {
+                    // e.g "VmHWM:	  123456 kB"
+                    String value = line.substring(6).trim();
+                    int sep = value.indexOf(' ');
+                    return Long.parseLong(sep > 0 ? value.substring(0, sep) : value);
+                }
+            }
+        }
+        catch (IOException | NumberFormatException e)
+        {
+            // Not available
+        }
+        return -1;
+    }
+}
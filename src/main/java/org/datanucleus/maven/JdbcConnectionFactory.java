@@ -0,0 +1,211 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.Properties;
+import java.util.ServiceLoader;
+
+/**
+ * Factory for JDBC connections to the datastore defined by a set of DataNucleus (or JDO/JPA/Jakarta) persistence
+ * properties. The JDBC driver is loaded from the provided class loader and used directly, so it does not need to be
+ * visible to the DriverManager.
+ */
+class JdbcConnectionFactory implements Closeable
+{
+    static final String[] URL_PROPERTIES = {"datanucleus.ConnectionURL", "javax.jdo.option.ConnectionURL",
+        "javax.persistence.jdbc.url", "jakarta.persistence.jdbc.url"};
+
+    static final String[] DRIVER_PROPERTIES = {"datanucleus.ConnectionDriverName", "javax.jdo.option.ConnectionDriverName",
+        "javax.persistence.jdbc.driver", "jakarta.persistence.jdbc.driver"};
+
+    static final String[] USER_PROPERTIES = {"datanucleus.ConnectionUserName", "javax.jdo.option.ConnectionUserName",
+        "javax.persistence.jdbc.user", "jakarta.persistence.jdbc.user"};
+
+    static final String[] PASSWORD_PROPERTIES = {"datanucleus.ConnectionPassword", "javax.jdo.option.ConnectionPassword",
+        "javax.persistence.jdbc.password", "jakarta.persistence.jdbc.password"};
+
+    private final String url;
+
+    private final Driver driver;
+
+    private final Properties connectionInfo = new Properties();
+
+    /** Loader of the driver, closed with this factory, or null if owned by the caller. */
+    private final Closeable ownedLoader;
+
+    /**
+     * Constructor, loading the JDBC driver.
+     * @param props Persistence properties defining the connection
+     * @param loader Loader for the JDBC driver
+     * @throws SQLException If no connection URL is defined, or the driver cannot be loaded
+     */
+    JdbcConnectionFactory(Properties props, ClassLoader loader)
+    throws SQLException
+    {
+        this(props, loader, false);
+    }
+
+    /**
+     * Constructor, loading the JDBC driver.
+     * @param props Persistence properties defining the connection
+     * @param loader Loader for the JDBC driver
+     * @param ownsLoader Whether the loader is closed when this factory is closed
+     * @throws SQLException If no connection URL is defined, or the driver cannot be loaded
+     */
+    JdbcConnectionFactory(Properties props, ClassLoader loader, boolean ownsLoader)
+    throws SQLException
+    {
+        ownedLoader = ownsLoader && loader instanceof Closeable ? (Closeable) loader : null;
+        url = getProperty(props, URL_PROPERTIES);
+        if (url == null)
+        {
+            throw new SQLException("No connection URL specified in the persistence properties");
+        }
+
+        String user = getProperty(props, USER_PROPERTIES);
+        if (user != null)
+        {
+            connectionInfo.setProperty("user", user);
+        }
+        String password = getProperty(props, PASSWORD_PROPERTIES);
+        if (password != null)
+        {
+            connectionInfo.setProperty("password", password);
+        }
+
+        String driverName = getProperty(props, DRIVER_PROPERTIES);
+        if (driverName != null)
+        {
+            try
+            {
+                driver = (Driver) loader.loadClass(driverName).getConstructor().newInstance();
+            }
+            catch (Exception e)
+            {
+                throw new SQLException("Unable to load JDBC driver " + driverName, e);
+            }
+        }
+        else
+        {
+            driver = findDriver(url, loader);
+        }
+    }
+
+    private JdbcConnectionFactory(JdbcConnectionFactory factory, String url)
+    {
+        this.url = url;
+        this.driver = factory.driver;
+        this.connectionInfo.putAll(factory.connectionInfo);
+        this.ownedLoader = null;
+    }
+
+    /**
+     * Method to create a factory for a different database with the same driver and credentials. The factory shares
+     * the driver of this factory, so must not be used once this factory is closed.
+     * @param otherURL Connection URL of the other database
+     * @return The factory
+     */
+    JdbcConnectionFactory forURL(String otherURL)
+    {
+        return new JdbcConnectionFactory(this, otherURL);
+    }
+
+    private static Driver findDriver(String url, ClassLoader loader)
+    throws SQLException
+    {
+        for (Iterator<Driver> it = ServiceLoader.load(Driver.class, loader).iterator(); it.hasNext();)
+        {
+            Driver driver = it.next();
+            if (driver.acceptsURL(url))
+            {
+                return driver;
+            }
+        }
+        throw new SQLException("No JDBC driver found for URL " + url);
+    }
+
+    /**
+     * Accessor for the value of the first of the specified properties that is set.
+     * @param props The properties
+     * @param names Names of the equivalent properties, in order of precedence
+     * @return The value, or null if none are set
+     */
+    static String getProperty(Properties props, String[] names)
+    {
+        for (String name : names)
+        {
+            String value = props.getProperty(name);
+            if (value != null && value.trim().length() > 0)
+            {
+                return value.trim();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Accessor for the connection URL.
+     * @return The URL
+     */
+    String getURL()
+    {
+        return url;
+    }
+
+    /**
+     * Method to open a new connection, in auto-commit mode.
+     * @return The connection
+     * @throws SQLException If an error occurs connecting
+     */
+    Connection getConnection()
+    throws SQLException
+    {
+        Connection conn = driver.connect(url, connectionInfo);
+        if (conn == null)
+        {
+            throw new SQLException("JDBC driver " + driver.getClass().getName() + " does not accept URL " + url);
+        }
+        conn.setAutoCommit(true);
+        return conn;
+    }
+
+    /**
+     * Method to close the factory, closing the loader of the driver if owned by the factory. Connections opened by
+     * the factory are not closed.
+     */
+    public void close()
+    {
+        if (ownedLoader != null)
+        {
+            try
+            {
+                ownedLoader.close();
+            }
+            catch (IOException e)
+            {
+                // Only the jar files of the loader remain open, so nothing to do
+            }
+        }
+    }
+}
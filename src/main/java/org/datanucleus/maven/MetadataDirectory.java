@@ -0,0 +1,93 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.io.File;
+
+/**
+ * Input directory of a DataNucleus tool, as an element of the "metadataDirectories" configuration.
+ * <pre>
+ *   &lt;metadataDirectories&gt;
+ *     &lt;metadataDirectory&gt;
+ *       &lt;directory&gt;${project.build.directory}/kotlin-classes&lt;/directory&gt;
+ *       &lt;includes&gt;**&#47;model/*.class&lt;/includes&gt;
+ *       &lt;outputDirectory&gt;${project.build.directory}/enhanced-kotlin-classes&lt;/outputDirectory&gt;
+ *     &lt;/metadataDirectory&gt;
+ *   &lt;/metadataDirectories&gt;
+ * </pre>
+ */
+public class MetadataDirectory
+{
+    /** The directory. */
+    private File directory;
+
+    /** Includes pattern, defaulting to "metadataIncludes". */
+    private String includes;
+
+    /** Excludes pattern, defaulting to "metadataExcludes". */
+    private String excludes;
+
+    /** Directory to write the enhanced classes to, defaulting to "targetDirectory" (else in place). */
+    private File outputDirectory;
+
+    public File getDirectory()
+    {
+        return directory;
+    }
+
+    public void setDirectory(File directory)
+    {
+        this.directory = directory;
+    }
+
+    public String getIncludes()
+    {
+        return includes;
+    }
+
+    public void setIncludes(String includes)
+    {
+        this.includes = includes;
+    }
+
+    public String getExcludes()
+    {
+        return excludes;
+    }
+
+    public void setExcludes(String excludes)
+    {
+        this.excludes = excludes;
+    }
+
+    public File getOutputDirectory()
+    {
+        return outputDirectory;
+    }
+
+    public void setOutputDirectory(File outputDirectory)
+    {
+        this.outputDirectory = outputDirectory;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.valueOf(directory);
+    }
+}
@@ -0,0 +1,392 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.codehaus.plexus.util.DirectoryScanner;
+import org.codehaus.plexus.util.MatchPatterns;
+import org.codehaus.plexus.util.StringUtils;
+
+/**
+ * Scanner for the metadata files (and classes) under a directory, matching the same include/exclude patterns
+ * as <code>FileUtils.getFiles</code>. The default excludes of <code>DirectoryScanner</code> (SCM and editor files)
+ * are always applied, so a scan matches <code>FileUtils.getFiles</code> given {@link #withDefaultExcludes(String)}.
+ * <p>
+ * The scanner can optionally persist its result in an index file, recording the modification time of each
+ * directory together with the matched files and subdirectories that it holds. On the next scan a directory whose
+ * modification time is unchanged is answered from the index without listing it, since adding, removing or
+ * renaming an entry always updates the modification time of the directory that holds it.
+ */
+class MetadataScanner
+{
+    private static final String INDEX_HEADER = "# DataNucleus metadata scan index v2";
+
+    /** Directories modified this recently (millisecs) are not trusted, given the granularity of modification times. */
+    private static final long MTIME_GRANULARITY = 2000;
+
+    private final File baseDirectory;
+
+    private final String includes;
+
+    private final String excludes;
+
+    private final MatchPatterns includePatterns;
+
+    private final MatchPatterns excludePatterns;
+
+    /** Index from the previous scan, keyed by the relative path of the directory. */
+    private Map<String, DirectoryEntry> previousIndex = new HashMap<>();
+
+    /** Index for the current scan. */
+    private Map<String, DirectoryEntry> currentIndex;
+
+    private int directoriesListed;
+
+    private int directoriesReused;
+
+    /**
+     * Constructor.
+     * @param baseDirectory The directory to scan
+     * @param includes Comma-separated include patterns (defaults to everything)
+     * @param excludes Comma-separated exclude patterns (optional)
+     */
+    MetadataScanner(File baseDirectory, String includes, String excludes)
+    {
+        this.baseDirectory = baseDirectory;
+        this.includes = includes;
+        this.excludes = excludes;
+        this.includePatterns = MatchPatterns.from(normalisePatterns(includes, "**"));
+        this.excludePatterns = MatchPatterns.from(addDefaultExcludes(normalisePatterns(excludes, null)));
+    }
+
+    /**
+     * Accessor for the name of the index file to use for this scanner, unique to the directory and patterns.
+     * @return The index file name
+     */
+    String getIndexFileName()
+    {
+        String key = baseDirectory.getAbsolutePath() + "|" + includes + "|" + excludes;
+        return "scan-" + Integer.toHexString(key.hashCode()) + ".idx";
+    }
+
+    int getDirectoriesListed()
+    {
+        return directoriesListed;
+    }
+
+    int getDirectoriesReused()
+    {
+        return directoriesReused;
+    }
+
+    /**
+     * Method to scan the base directory for all matching files.
+     * @param indexFile Index file to read the previous result from, and write the new result to (or null)
+     * @return The matching files
+     * @throws IOException If an error occurs listing a directory
+     */
+    List<File> scan(File indexFile)
+    throws IOException
+    {
+        final List<File> files = new ArrayList<>();
+        scan(indexFile, new FileHandler()
+        {
+            public void fileFound(File file)
+            {
+                files.add(file);
+            }
+        });
+        return files;
+    }
+
+    /**
+     * Method to scan the base directory, passing each matching file to the handler as it is found.
+     * @param indexFile Index file to read the previous result from, and write the new result to (or null)
+     * @param handler Handler for the matching files
+     * @throws IOException If an error occurs listing a directory, or thrown by the handler
+     */
+    void scan(File indexFile, FileHandler handler)
+    throws IOException
+    {
+        if (indexFile != null)
+        {
+            readIndex(indexFile);
+        }
+
+        currentIndex = new HashMap<>();
+        directoriesListed = 0;
+        directoriesReused = 0;
+
+        scanDirectory(baseDirectory, "", System.currentTimeMillis(), handler);
+
+        if (indexFile != null)
+        {
+            writeIndex(indexFile);
+        }
+    }
+
+    private void scanDirectory(File dir, String relativePath, long scanTime, FileHandler handler)
+    throws IOException
+    {
+        long mtime = dir.lastModified();
+        DirectoryEntry entry = previousIndex.get(relativePath);
+        if (entry == null || entry.mtime < 0 || entry.mtime != mtime)
+        {
+            String[] names = dir.list();
+            if (names == null)
+            {
+                throw new IOException("Unable to list the contents of directory '" + dir.getAbsolutePath() + "'");
+            }
+            directoriesListed++;
+            Arrays.sort(names);
+
+            // Only trust the modification time if the directory wasn't modified during the granularity window
+            entry = new DirectoryEntry(scanTime - mtime > MTIME_GRANULARITY ? mtime : -1);
+            for (String name : names)
+            {
+                File child = new File(dir, name);
+                String childPath = relativePath.length() == 0 ? name : relativePath + File.separator + name;
+                if (child.isDirectory())
+                {
+                    entry.subdirectories.add(name);
+                }
+                else if (isSelected(childPath))
+                {
+                    entry.files.add(name);
+                }
+            }
+        }
+        else
+        {
+            directoriesReused++;
+        }
+        currentIndex.put(relativePath, entry);
+
+        for (String name : entry.files)
+        {
+            handler.fileFound(new File(dir, name));
+        }
+        for (String name : entry.subdirectories)
+        {
+            File subdir = new File(dir, name);
+            if (subdir.isDirectory())
+            {
+                String subdirPath = relativePath.length() == 0 ? name : relativePath + File.separator + name;
+                scanDirectory(subdir, subdirPath, scanTime, handler);
+            }
+        }
+    }
+
+    private boolean isSelected(String relativePath)
+    {
+        return includePatterns.matches(relativePath, true) && !excludePatterns.matches(relativePath, true);
+    }
+
+    private void readIndex(File indexFile)
+    {
+        previousIndex = new HashMap<>();
+        if (!indexFile.exists())
+        {
+            return;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(indexFile), "UTF-8")))
+        {
+            if (!INDEX_HEADER.equals(reader.readLine()) ||
+                !baseDirectory.getAbsolutePath().equals(reader.readLine()) ||
+                !String.valueOf(includes).equals(reader.readLine()) ||
+                !String.valueOf(excludes).equals(reader.readLine()))
+            {
+                // Index is for a different directory or different patterns so ignore it
+                return;
+            }
+
+            Map<String, DirectoryEntry> index = new HashMap<>();
+            DirectoryEntry entry = null;
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                if (line.startsWith("D\t"))
+                {
+                    int sep = line.indexOf('\t', 2);
+                    entry = new DirectoryEntry(Long.parseLong(line.substring(2, sep)));
+                    index.put(line.substring(sep + 1), entry);
+                }
+                else if (line.startsWith("F\t") && entry != null)
+                {
+                    entry.files.add(line.substring(2));
+                }
+                else if (line.startsWith("S\t") && entry != null)
+                {
+                    entry.subdirectories.add(line.substring(2));
+                }
+            }
+            previousIndex = index;
+        }
+        catch (IOException | RuntimeException e)
+        {
+            // Treat an unreadable index as absent, so the directory is fully scanned
+            previousIndex = new HashMap<>();
+        }
+    }
+
+    private void writeIndex(File indexFile)
+    throws IOException
+    {
+        indexFile.getParentFile().mkdirs();
+        File tmpFile = new File(indexFile.getParentFile(), indexFile.getName() + ".tmp");
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmpFile), "UTF-8")))
+        {
+            writer.write(INDEX_HEADER);
+            writer.write('\n');
+            writer.write(baseDirectory.getAbsolutePath());
+            writer.write('\n');
+            writer.write(String.valueOf(includes));
+            writer.write('\n');
+            writer.write(String.valueOf(excludes));
+            writer.write('\n');
+            for (Map.Entry<String, DirectoryEntry> mapEntry : currentIndex.entrySet())
+            {
+                DirectoryEntry entry = mapEntry.getValue();
+                writer.write("D\t" + entry.mtime + "\t" + mapEntry.getKey());
+                writer.write('\n');
+                for (String name : entry.files)
+                {
+                    writer.write("F\t" + name);
+                    writer.write('\n');
+                }
+                for (String name : entry.subdirectories)
+                {
+                    writer.write("S\t" + name);
+                    writer.write('\n');
+                }
+            }
+        }
+        if (indexFile.exists() && !indexFile.delete() || !tmpFile.renameTo(indexFile))
+        {
+            throw new IOException("Unable to replace scan index '" + indexFile.getAbsolutePath() + "'");
+        }
+    }
+
+    /**
+     * Convert comma-separated patterns into the form used by DirectoryScanner.
+     * @param patterns The patterns
+     * @param defaultPattern Pattern to use when none are specified (or null)
+     * @return The normalised patterns
+     */
+    private static String[] normalisePatterns(String patterns, String defaultPattern)
+    {
+        String[] tokens;
+        if (patterns != null)
+        {
+            tokens = StringUtils.split(patterns, ",");
+        }
+        else
+        {
+            tokens = defaultPattern != null ? new String[] {defaultPattern} : new String[0];
+        }
+
+        List<String> result = new ArrayList<>();
+        for (String token : tokens)
+        {
+            String pattern = token.trim().replace('/', File.separatorChar).replace('\\', File.separatorChar);
+            if (pattern.endsWith(File.separator))
+            {
+                pattern += "**";
+            }
+            if (pattern.length() > 0)
+            {
+                result.add(pattern);
+            }
+        }
+        return result.toArray(new String[result.size()]);
+    }
+
+    /**
+     * Add the default excludes of DirectoryScanner (SCM and editor files) to comma-separated exclude patterns, for
+     * use with <code>FileUtils.getFiles</code>.
+     * @param excludes Comma-separated exclude patterns (optional)
+     * @return The patterns with the default excludes
+     */
+    static String withDefaultExcludes(String excludes)
+    {
+        String defaultExcludes = StringUtils.join(DirectoryScanner.DEFAULTEXCLUDES, ",");
+        return excludes != null && excludes.trim().length() > 0 ? excludes + "," + defaultExcludes : defaultExcludes;
+    }
+
+    /**
+     * Add the default excludes of DirectoryScanner (SCM and editor files) to the exclude patterns.
+     * @param patterns The normalised exclude patterns
+     * @return The patterns with the default excludes
+     */
+    private static String[] addDefaultExcludes(String[] patterns)
+    {
+        List<String> result = new ArrayList<>(Arrays.asList(patterns));
+        for (String pattern : DirectoryScanner.DEFAULTEXCLUDES)
+        {
+            result.add(pattern.replace('/', File.separatorChar));
+        }
+        return result.toArray(new String[result.size()]);
+    }
+
+    /**
+     * Handler for the files found by a scan.
+     */
+    interface FileHandler
+    {
+        /**
+         * Method called for each matching file, in the order found.
+         * @param file The file
+         * @throws IOException If an error occurs handling the file, aborting the scan
+         */
+        void fileFound(File file) throws IOException;
+    }
+
+    /**
+     * Entry in the index for a directory.
+     */
+    private static class DirectoryEntry
+    {
+        /** Modification time of the directory when listed, or -1 if not to be trusted. */
+        final long mtime;
+
+        /** Names of the matching files directly in this directory. */
+        final List<String> files = new ArrayList<>();
+
+        /** Names of the subdirectories of this directory. */
+        final List<String> subdirectories = new ArrayList<>();
+
+        DirectoryEntry(long mtime)
+        {
+            this.mtime = mtime;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+/**
+ * Writer of a metadata snapshot, merging the JDO XML metadata files (<i>jdo</i> and <i>orm</i> documents) into
+ * as few compact documents as possible, so that the runtime parses one document per type instead of one per package.
+ * Documents can only be merged when their root elements have the same attributes (catalog, schema), so a separate
+ * snapshot document is written for each distinct set of root attributes. Similarly <i>orm</i> documents are only merged
+ * with those of the same mapping suffix (as "package-mysql.orm"), which select the mapping for a datastore, with the
+ * suffix retained in the name of the snapshot. Comments and whitespace are not retained.
+ */
+class MetadataSnapshotWriter
+{
+    private final DocumentBuilder builder;
+
+    /** Merged documents, keyed by the root element name, mapping suffix and attributes. */
+    private final Map<String, Document> snapshots = new LinkedHashMap<>();
+
+    /** Mapping suffix of each merged <i>orm</i> document, keyed as the documents. */
+    private final Map<String, String> mappingSuffixes = new LinkedHashMap<>();
+
+    /** Input files that have been merged into the snapshot. */
+    private final List<File> mergedFiles = new ArrayList<>();
+
+    MetadataSnapshotWriter()
+    throws ParserConfigurationException
+    {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setValidating(false);
+        factory.setIgnoringComments(true);
+        // Don't retrieve the DTD declared by metadata files
+        factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        builder = factory.newDocumentBuilder();
+    }
+
+    /**
+     * Method to add a metadata file to the snapshot. Files that aren't JDO XML metadata are ignored.
+     * @param file The metadata file
+     * @return Whether the file was merged into the snapshot
+     * @throws IOException If an error occurs reading the file
+     */
+    boolean add(File file)
+    throws IOException
+    {
+        Document doc;
+        try
+        {
+            doc = builder.parse(file);
+        }
+        catch (SAXException e)
+        {
+            throw new IOException("Error parsing metadata file '" + file.getAbsolutePath() + "'", e);
+        }
+
+        Element root = doc.getDocumentElement();
+        String rootName = root.getLocalName() != null ? root.getLocalName() : root.getNodeName();
+        if (!"jdo".equals(rootName) && !"orm".equals(rootName))
+        {
+            return false;
+        }
+
+        String mappingSuffix = "orm".equals(rootName) ? getMappingSuffix(file) : null;
+        StringBuilder key = new StringBuilder(rootName);
+        if (mappingSuffix != null)
+        {
+            key.append('-').append(mappingSuffix);
+        }
+        NamedNodeMap attrs = root.getAttributes();
+        for (int i = 0; i < attrs.getLength(); i++)
+        {
+            Node attr = attrs.item(i);
+            if (!attr.getNodeName().startsWith("xmlns") && !attr.getNodeName().startsWith("xsi:"))
+            {
+                key.append('|').append(attr.getNodeName()).append('=').append(attr.getNodeValue());
+            }
+        }
+
+        Document snapshot = snapshots.get(key.toString());
+        if (snapshot == null)
+        {
+            snapshot = builder.newDocument();
+            snapshot.appendChild(snapshot.importNode(root, false));
+            snapshots.put(key.toString(), snapshot);
+            mappingSuffixes.put(key.toString(), mappingSuffix);
+        }
+
+        Element snapshotRoot = snapshot.getDocumentElement();
+        for (Node child = root.getFirstChild(); child != null; child = child.getNextSibling())
+        {
+            if (child.getNodeType() == Node.ELEMENT_NODE)
+            {
+                Node imported = snapshot.importNode(child, true);
+                removeWhitespace(imported);
+                snapshotRoot.appendChild(imported);
+            }
+        }
+        mergedFiles.add(file);
+        return true;
+    }
+
+    /**
+     * Accessor for the mapping suffix of an <i>orm</i> file, being the part of its name after the first '-', such as
+     * "mysql" for "package-mysql.orm".
+     * @param file The file
+     * @return The mapping suffix, or null if none
+     */
+    static String getMappingSuffix(File file)
+    {
+        String name = file.getName();
+        int extIdx = name.lastIndexOf('.');
+        String baseName = extIdx > 0 ? name.substring(0, extIdx) : name;
+        int suffixIdx = baseName.indexOf('-');
+        return suffixIdx >= 0 && suffixIdx < baseName.length() - 1 ? baseName.substring(suffixIdx + 1) : null;
+    }
+
+    /**
+     * Accessor for the input files that were merged into the snapshot.
+     * @return The merged files
+     */
+    List<File> getMergedFiles()
+    {
+        return mergedFiles;
+    }
+
+    /**
+     * Method to write the snapshot documents. A document with the same contents as the existing file is not written,
+     * so that the file keeps its modification time.
+     * @param outputDir Root directory for the output
+     * @param resourcePrefix Resource path (relative to the output directory) for the documents, without extension
+     * @return Resource paths of the documents written
+     * @throws IOException If an error occurs writing
+     */
+    List<String> write(File outputDir, String resourcePrefix)
+    throws IOException
+    {
+        List<String> resources = new ArrayList<>();
+        Map<String, Integer> countByType = new LinkedHashMap<>();
+        for (Map.Entry<String, Document> entry : snapshots.entrySet())
+        {
+            Document snapshot = entry.getValue();
+            String rootName = snapshot.getDocumentElement().getLocalName();
+            String mappingSuffix = mappingSuffixes.get(entry.getKey());
+            String type = (mappingSuffix != null ? "-" + mappingSuffix : "") + "." + rootName;
+            Integer count = countByType.get(type);
+            countByType.put(type, count == null ? 1 : count + 1);
+            String resource = resourcePrefix + (count == null ? "" : "-" + count) + type;
+
+            File file = new File(outputDir, resource);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try
+            {
+                Transformer transformer = TransformerFactory.newInstance().newTransformer();
+                transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+                transformer.setOutputProperty(OutputKeys.INDENT, "no");
+                transformer.transform(new DOMSource(snapshot), new StreamResult(out));
+            }
+            catch (TransformerException e)
+            {
+                throw new IOException("Error writing metadata snapshot '" + file.getAbsolutePath() + "'", e);
+            }
+
+            byte[] bytes = out.toByteArray();
+            if (!file.isFile() || file.length() != bytes.length || !Arrays.equals(Files.readAllBytes(file.toPath()), bytes))
+            {
+                file.getParentFile().mkdirs();
+                Files.write(file.toPath(), bytes);
+            }
+            resources.add(resource);
+        }
+        return resources;
+    }
+
+    private static void removeWhitespace(Node node)
+    {
+        Node child = node.getFirstChild();
+        while (child != null)
+        {
+            Node next = child.getNextSibling();
+            if (child.getNodeType() == Node.TEXT_NODE && child.getNodeValue().trim().length() == 0)
+            {
+                node.removeChild(child);
+            }
+            else if (child.getNodeType() == Node.ELEMENT_NODE)
+            {
+                removeWhitespace(child);
+            }
+            child = next;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * Reader for the definition of a persistence-unit from the <i>META-INF/persistence.xml</i> files of a set of
+ * CLASSPATH roots (directories or jars).
+ */
+class PersistenceUnitReader
+{
+    static final String PERSISTENCE_XML = "META-INF/persistence.xml";
+
+    /**
+     * Definition of a persistence-unit.
+     */
+    static class PersistenceUnit
+    {
+        final String name;
+
+        /** The CLASSPATH root (directory or jar) providing the persistence.xml. */
+        final File root;
+
+        final List<String> classNames = new ArrayList<>();
+
+        final List<String> mappingFiles = new ArrayList<>();
+
+        final List<String> jarFiles = new ArrayList<>();
+
+        boolean excludeUnlistedClasses;
+
+        /** Properties of the unit (connection properties etc). */
+        final Properties properties = new Properties();
+
+        PersistenceUnit(String name, File root)
+        {
+            this.name = name;
+            this.root = root;
+        }
+    }
+
+    /**
+     * Method to find the definition of the named persistence-unit, searching the roots in order.
+     * @param unitName Name of the persistence-unit
+     * @param roots CLASSPATH roots (directories or jars)
+     * @return The persistence-unit, or null if not defined in any of the roots
+     * @throws IOException If an error occurs reading a persistence.xml
+     */
+    static PersistenceUnit find(String unitName, List<File> roots)
+    throws IOException
+    {
+        DocumentBuilder builder;
+        try
+        {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setNamespaceAware(true);
+            factory.setValidating(false);
+            builder = factory.newDocumentBuilder();
+        }
+        catch (ParserConfigurationException e)
+        {
+            throw new IOException("Unable to create parser for " + PERSISTENCE_XML, e);
+        }
+
+        for (File root : roots)
+        {
+            Document doc = null;
+            try
+            {
+                if (root.isDirectory())
+                {
+                    File file = new File(root, PERSISTENCE_XML);
+                    if (file.isFile())
+                    {
+                        doc = builder.parse(file);
+                    }
+                }
+                else if (root.isFile() && root.getName().endsWith(".jar"))
+                {
+                    try (ZipFile jar = new ZipFile(root))
+                    {
+                        ZipEntry entry = jar.getEntry(PERSISTENCE_XML);
+                        if (entry != null)
+                        {
+                            try (InputStream is = jar.getInputStream(entry))
+                            {
+                                doc = builder.parse(is);
+                            }
+                        }
+                    }
+                }
+            }
+            catch (SAXException e)
+            {
+                throw new IOException("Error parsing " + PERSISTENCE_XML + " of " + root.getAbsolutePath(), e);
+            }
+
+            if (doc != null)
+            {
+                PersistenceUnit unit = getPersistenceUnit(doc, unitName, root);
+                if (unit != null)
+                {
+                    return unit;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static PersistenceUnit getPersistenceUnit(Document doc, String unitName, File root)
+    {
+        NodeList unitElements = doc.getElementsByTagNameNS("*", "persistence-unit");
+        for (int i = 0; i < unitElements.getLength(); i++)
+        {
+            Element unitElement = (Element) unitElements.item(i);
+            if (!unitName.equals(unitElement.getAttribute("name")))
+            {
+                continue;
+            }
+
+            PersistenceUnit unit = new PersistenceUnit(unitName, root);
+            for (Node child = unitElement.getFirstChild(); child != null; child = child.getNextSibling())
+            {
+                if (child.getNodeType() != Node.ELEMENT_NODE)
+                {
+                    continue;
+                }
+                String childName = child.getLocalName() != null ? child.getLocalName() : child.getNodeName();
+                String value = child.getTextContent().trim();
+                if ("class".equals(childName))
+                {
+                    unit.classNames.add(value);
+                }
+                else if ("mapping-file".equals(childName))
+                {
+                    unit.mappingFiles.add(value);
+                }
+                else if ("jar-file".equals(childName))
+                {
+                    unit.jarFiles.add(value);
+                }
+                else if ("exclude-unlisted-classes".equals(childName))
+                {
+                    unit.excludeUnlistedClasses = value.length() == 0 || Boolean.parseBoolean(value);
+                }
+                else if ("properties".equals(childName))
+                {
+                    NodeList propertyElements = ((Element) child).getElementsByTagNameNS("*", "property");
+                    for (int j = 0; j < propertyElements.getLength(); j++)
+                    {
+                        Element propertyElement = (Element) propertyElements.item(j);
+                        unit.properties.setProperty(propertyElement.getAttribute("name"), propertyElement.getAttribute("value"));
+                    }
+                }
+            }
+            return unit;
+        }
+        return null;
+    }
+}
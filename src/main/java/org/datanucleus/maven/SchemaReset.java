@@ -0,0 +1,263 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reset of the data of the tables of a schema over a single JDBC connection, leaving the tables, indexes and
+ * constraints in place. The statements depend on the datastore of the connection URL.
+ * <ul>
+ * <li>PostgreSQL : a single TRUNCATE of all tables, which may include tables referenced by foreign keys.</li>
+ * <li>H2, HSQLDB, MySQL and MariaDB : a TRUNCATE of each table, with referential integrity checks disabled meanwhile.</li>
+ * <li>Others : a DELETE of each table, in one transaction, with each table emptied before the tables it references.</li>
+ * </ul>
+ */
+class SchemaReset
+{
+    /** Statements disabling referential integrity checks, run before the reset. */
+    private final List<String> prologue;
+
+    /** Statements emptying the tables. */
+    private final List<String> statements;
+
+    /** Statements enabling referential integrity checks, run after the reset even if it fails. */
+    private final List<String> epilogue;
+
+    /** Whether the statements are run in one transaction. */
+    private final boolean transactional;
+
+    private SchemaReset(List<String> prologue, List<String> statements, List<String> epilogue, boolean transactional)
+    {
+        this.prologue = prologue;
+        this.statements = statements;
+        this.epilogue = epilogue;
+        this.transactional = transactional;
+    }
+
+    /**
+     * Method to create the reset of tables for the datastore of a connection URL.
+     * @param url Connection URL of the datastore
+     * @param tables The tables (as written in the DDL), in the order they can be emptied
+     * @return The reset
+     */
+    static SchemaReset forURL(String url, List<String> tables)
+    {
+        if (url.startsWith("jdbc:postgresql:"))
+        {
+            return new SchemaReset(Collections.<String>emptyList(), Collections.singletonList("TRUNCATE TABLE " + String.join(", ", tables)),
+                Collections.<String>emptyList(), false);
+        }
+        else if (url.startsWith("jdbc:h2:"))
+        {
+            return new SchemaReset(Collections.singletonList("SET REFERENTIAL_INTEGRITY FALSE"), getStatements("TRUNCATE TABLE ", tables),
+                Collections.singletonList("SET REFERENTIAL_INTEGRITY TRUE"), false);
+        }
+        else if (url.startsWith("jdbc:hsqldb:"))
+        {
+            return new SchemaReset(Collections.singletonList("SET DATABASE REFERENTIAL INTEGRITY FALSE"), getStatements("TRUNCATE TABLE ", tables),
+                Collections.singletonList("SET DATABASE REFERENTIAL INTEGRITY TRUE"), false);
+        }
+        else if (url.startsWith("jdbc:mysql:") || url.startsWith("jdbc:mariadb:"))
+        {
+            return new SchemaReset(Collections.singletonList("SET FOREIGN_KEY_CHECKS = 0"), getStatements("TRUNCATE TABLE ", tables),
+                Collections.singletonList("SET FOREIGN_KEY_CHECKS = 1"), false);
+        }
+        return new SchemaReset(Collections.<String>emptyList(), getStatements("DELETE FROM ", tables), Collections.<String>emptyList(), true);
+    }
+
+    private static List<String> getStatements(String prefix, List<String> tables)
+    {
+        List<String> stmts = new ArrayList<>();
+        for (String table : tables)
+        {
+            stmts.add(prefix + table);
+        }
+        return stmts;
+    }
+
+    /**
+     * Method to find the tables created by a DDL script, in the order they can be emptied, being each table before
+     * the tables it references by foreign keys. References forming a cycle are ignored.
+     * @param ddlStatements Statements of the script
+     * @return The tables, as written in the script
+     */
+    static List<String> getTablesInResetOrder(List<DDLScript.Statement> ddlStatements)
+    {
+        Map<String, String> tables = DDLScript.getTables(ddlStatements);
+        Map<String, Set<String>> references = DDLScript.getTableReferences(ddlStatements);
+
+        // Depth-first over the references, so each table follows the tables it references, then reversed
+        List<String> ordered = new ArrayList<>();
+        Set<String> visited = new HashSet<>();
+        for (String tableName : tables.keySet())
+        {
+            visit(tableName, tables, references, visited, ordered);
+        }
+        Collections.reverse(ordered);
+        return ordered;
+    }
+
+    private static void visit(String tableName, Map<String, String> tables, Map<String, Set<String>> references, Set<String> visited,
+            List<String> ordered)
+    {
+        if (!visited.add(tableName))
+        {
+            return;
+        }
+        Set<String> tableRefs = references.get(tableName);
+        if (tableRefs != null)
+        {
+            for (String referencedTable : tableRefs)
+            {
+                if (tables.containsKey(referencedTable))
+                {
+                    visit(referencedTable, tables, references, visited, ordered);
+                }
+            }
+        }
+        ordered.add(tables.get(tableName));
+    }
+
+    /**
+     * Method to execute the reset on one connection, with the statements emptying the tables run as JDBC batches.
+     * @param connectionFactory Factory for the connection
+     * @param batchSize Maximum number of statements per JDBC batch (1 to not use batches)
+     * @return Number of statements emptying tables
+     * @throws SQLException If a statement fails
+     */
+    int execute(JdbcConnectionFactory connectionFactory, int batchSize)
+    throws SQLException
+    {
+        try (Connection conn = connectionFactory.getConnection(); Statement stmt = conn.createStatement())
+        {
+            for (String sql : prologue)
+            {
+                executeStatement(stmt, sql);
+            }
+            try
+            {
+                if (transactional)
+                {
+                    conn.setAutoCommit(false);
+                }
+                executeStatements(conn, stmt, Math.max(1, batchSize));
+                if (transactional)
+                {
+                    conn.commit();
+                }
+            }
+            catch (SQLException e)
+            {
+                if (transactional)
+                {
+                    try
+                    {
+                        conn.rollback();
+                    }
+                    catch (SQLException rollbackException)
+                    {
+                        e.addSuppressed(rollbackException);
+                    }
+                }
+                throw e;
+            }
+            finally
+            {
+                for (String sql : epilogue)
+                {
+                    executeStatement(stmt, sql);
+                }
+            }
+        }
+        return statements.size();
+    }
+
+    /**
+     * Accessor for all statements of the reset, in execution order.
+     * @return The statements
+     */
+    List<String> getStatements()
+    {
+        List<String> all = new ArrayList<>(prologue);
+        all.addAll(statements);
+        all.addAll(epilogue);
+        return all;
+    }
+
+    private void executeStatements(Connection conn, Statement stmt, int batchSize)
+    throws SQLException
+    {
+        if (batchSize == 1 || statements.size() == 1 || !conn.getMetaData().supportsBatchUpdates())
+        {
+            for (String sql : statements)
+            {
+                executeStatement(stmt, sql);
+            }
+            return;
+        }
+
+        for (int start = 0; start < statements.size(); start += batchSize)
+        {
+            List<String> batch = statements.subList(start, Math.min(start + batchSize, statements.size()));
+            for (String sql : batch)
+            {
+                stmt.addBatch(sql);
+            }
+            try
+            {
+                stmt.executeBatch();
+            }
+            catch (BatchUpdateException e)
+            {
+                throw statementFailed(batch.get(DDLScriptExecutor.getFailedIndex(e, batch.size())), e);
+            }
+            finally
+            {
+                stmt.clearBatch();
+            }
+        }
+    }
+
+    private static void executeStatement(Statement stmt, String sql)
+    throws SQLException
+    {
+        try
+        {
+            stmt.execute(sql);
+        }
+        catch (SQLException e)
+        {
+            throw statementFailed(sql, e);
+        }
+    }
+
+    private static SQLException statementFailed(String sql, SQLException e)
+    {
+        return new SQLException("Error executing statement \"" + sql + "\" : " + e.getMessage(), e.getSQLState(), e.getErrorCode(), e);
+    }
+}
@@ -0,0 +1,112 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.util.Properties;
+
+/**
+ * Target datastore of a SchemaTool goal run for several datastores in one tool process, as an element of the
+ * "targets" configuration.
+ * <pre>
+ *   &lt;targets&gt;
+ *     &lt;target&gt;
+ *       &lt;name&gt;postgresql&lt;/name&gt;
+ *       &lt;datastoreAdapterClassName&gt;org.datanucleus.store.rdbms.adapter.PostgreSQLAdapter&lt;/datastoreAdapterClassName&gt;
+ *       &lt;ddlFile&gt;${project.build.directory}/schema-postgresql.sql&lt;/ddlFile&gt;
+ *     &lt;/target&gt;
+ *     &lt;target&gt;
+ *       &lt;name&gt;oracle&lt;/name&gt;
+ *       &lt;props&gt;${basedir}/oracle.properties&lt;/props&gt;
+ *       &lt;ddlFile&gt;${project.build.directory}/schema-oracle.sql&lt;/ddlFile&gt;
+ *     &lt;/target&gt;
+ *   &lt;/targets&gt;
+ * </pre>
+ */
+public class SchemaTarget
+{
+    /** Name of the target, for logging. */
+    private String name;
+
+    /** File to write the DDL to, in place of "ddlFile". */
+    private String ddlFile;
+
+    /** Persistence properties file, in place of "props". */
+    private String props;
+
+    /** Datastore adapter defining the dialect of the DDL when "offline". */
+    private String datastoreAdapterClassName;
+
+    /** Persistence properties of the target, overriding those of the goal. */
+    private Properties properties;
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public void setName(String name)
+    {
+        this.name = name;
+    }
+
+    public String getDdlFile()
+    {
+        return ddlFile;
+    }
+
+    public void setDdlFile(String ddlFile)
+    {
+        this.ddlFile = ddlFile;
+    }
+
+    public String getProps()
+    {
+        return props;
+    }
+
+    public void setProps(String props)
+    {
+        this.props = props;
+    }
+
+    public String getDatastoreAdapterClassName()
+    {
+        return datastoreAdapterClassName;
+    }
+
+    public void setDatastoreAdapterClassName(String datastoreAdapterClassName)
+    {
+        this.datastoreAdapterClassName = datastoreAdapterClassName;
+    }
+
+    public Properties getProperties()
+    {
+        return properties;
+    }
+
+    public void setProperties(Properties properties)
+    {
+        this.properties = properties;
+    }
+
+    @Override
+    public String toString()
+    {
+        return name != null ? name : String.valueOf(ddlFile);
+    }
+}
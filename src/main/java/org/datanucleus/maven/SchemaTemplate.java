@@ -0,0 +1,408 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.codehaus.plexus.util.FileUtils;
+
+/**
+ * Template database holding a schema, from which the database of a connection URL can be provisioned by cloning.
+ * The template is identified by the hash of the metadata it was built from, recorded alongside it, so that it can
+ * be rebuilt when the metadata changes.
+ * <p>
+ * Supported are file-based H2 and Derby databases, where the template is a database in the template directory and
+ * is cloned by copying its files, and PostgreSQL, where the template is a database of the same server and is cloned
+ * by <code>CREATE DATABASE ... TEMPLATE</code>.
+ */
+abstract class SchemaTemplate
+{
+    private static final String HASH_FILE = "schema.hash";
+
+    /** Directory holding the template (for file-based databases) and its hash. */
+    protected final File templateDir;
+
+    SchemaTemplate(File templateDir)
+    {
+        this.templateDir = templateDir;
+    }
+
+    /**
+     * Method to create the template for the database of a connection URL.
+     * @param url Connection URL of the database to be provisioned
+     * @param templateDir Directory for the template
+     * @return The template, or null if the database is not supported
+     */
+    static SchemaTemplate forURL(String url, File templateDir)
+    {
+        if (url.startsWith(H2Template.PREFIX))
+        {
+            return H2Template.create(url, templateDir);
+        }
+        else if (url.startsWith(DerbyTemplate.PREFIX))
+        {
+            return DerbyTemplate.create(url, templateDir);
+        }
+        else if (url.startsWith(PostgreSQLTemplate.PREFIX))
+        {
+            return PostgreSQLTemplate.create(url, templateDir);
+        }
+        return null;
+    }
+
+    /**
+     * Accessor for the connection URL of the template database.
+     * @return The URL
+     */
+    abstract String getTemplateURL();
+
+    /**
+     * Method to remove any existing template, and create an empty template database for the schema to be created in.
+     * @param factory Connection factory for the database to be provisioned
+     * @throws SQLException If an error occurs in the datastore
+     * @throws IOException If an error occurs with the template files
+     */
+    abstract void prepare(JdbcConnectionFactory factory) throws SQLException, IOException;
+
+    /**
+     * Method to close the template database once its schema is created, so that it can be cloned.
+     * @param factory Connection factory for the database to be provisioned
+     * @throws SQLException If an error occurs in the datastore
+     */
+    abstract void release(JdbcConnectionFactory factory) throws SQLException;
+
+    /**
+     * Method to replace the database to be provisioned by a clone of the template.
+     * @param factory Connection factory for the database to be provisioned
+     * @throws SQLException If an error occurs in the datastore
+     * @throws IOException If an error occurs copying the template files
+     */
+    abstract void cloneTo(JdbcConnectionFactory factory) throws SQLException, IOException;
+
+    /**
+     * Accessor for the hash of the metadata that the template was built from.
+     * @return The hash, or null if there is no complete template
+     */
+    String readHash()
+    {
+        File hashFile = new File(templateDir, HASH_FILE);
+        try
+        {
+            return hashFile.exists() ? new String(Files.readAllBytes(hashFile.toPath()), StandardCharsets.UTF_8).trim() : null;
+        }
+        catch (IOException e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * Method to record the hash of the metadata, once the template is complete.
+     * @param hash The hash
+     * @throws IOException If an error occurs writing
+     */
+    void writeHash(String hash) throws IOException
+    {
+        templateDir.mkdirs();
+        Files.write(new File(templateDir, HASH_FILE).toPath(), hash.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Method to invalidate the template, before it is rebuilt.
+     */
+    void clearHash()
+    {
+        new File(templateDir, HASH_FILE).delete();
+    }
+
+    private static String[] splitOptions(String location)
+    {
+        int sep = location.indexOf(';');
+        return sep < 0 ? new String[] {location, ""} : new String[] {location.substring(0, sep), location.substring(sep)};
+    }
+
+    private static void execute(JdbcConnectionFactory factory, String... sqls) throws SQLException
+    {
+        try (Connection conn = factory.getConnection(); Statement stmt = conn.createStatement())
+        {
+            for (String sql : sqls)
+            {
+                stmt.execute(sql);
+            }
+        }
+    }
+
+    /**
+     * Template for a file-based H2 database, cloned by copying the database files.
+     */
+    static class H2Template extends SchemaTemplate
+    {
+        static final String PREFIX = "jdbc:h2:";
+
+        private static final String TEMPLATE_NAME = "template";
+
+        private final File targetBase;
+
+        private final String options;
+
+        H2Template(File templateDir, File targetBase, String options)
+        {
+            super(templateDir);
+            this.targetBase = targetBase;
+            this.options = options;
+        }
+
+        static SchemaTemplate create(String url, File templateDir)
+        {
+            String[] parts = splitOptions(url.substring(PREFIX.length()));
+            String location = parts[0];
+            if (location.startsWith("mem:") || location.startsWith("tcp:") || location.startsWith("ssl:") || location.startsWith("zip:"))
+            {
+                return null;
+            }
+            if (location.startsWith("file:"))
+            {
+                location = location.substring(5);
+            }
+            if (location.startsWith("~"))
+            {
+                location = System.getProperty("user.home") + location.substring(1);
+            }
+            return new H2Template(templateDir, new File(location).getAbsoluteFile(), parts[1]);
+        }
+
+        String getTemplateURL()
+        {
+            return PREFIX + "file:" + new File(templateDir, TEMPLATE_NAME).getAbsolutePath() + options;
+        }
+
+        void prepare(JdbcConnectionFactory factory) throws IOException
+        {
+            deleteDatabaseFiles(templateDir, TEMPLATE_NAME);
+        }
+
+        void release(JdbcConnectionFactory factory) throws SQLException
+        {
+            execute(factory.forURL(getTemplateURL()), "SHUTDOWN");
+        }
+
+        void cloneTo(JdbcConnectionFactory factory) throws IOException
+        {
+            File targetDir = targetBase.getParentFile();
+            targetDir.mkdirs();
+            deleteDatabaseFiles(targetDir, targetBase.getName());
+
+            File[] templateFiles = templateDir.listFiles();
+            if (templateFiles != null)
+            {
+                for (File templateFile : templateFiles)
+                {
+                    if (templateFile.getName().startsWith(TEMPLATE_NAME + ".") && !templateFile.getName().endsWith(".trace.db"))
+                    {
+                        String suffix = templateFile.getName().substring(TEMPLATE_NAME.length());
+                        Files.copy(templateFile.toPath(), new File(targetDir, targetBase.getName() + suffix).toPath(),
+                            StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            }
+        }
+
+        private static void deleteDatabaseFiles(File dir, String dbName) throws IOException
+        {
+            File[] files = dir.listFiles();
+            if (files != null)
+            {
+                for (File file : files)
+                {
+                    if (file.getName().startsWith(dbName + ".") && file.getName().endsWith(".db") && !file.delete())
+                    {
+                        throw new IOException("Unable to delete database file " + file.getAbsolutePath());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Template for a file-based (directory) Derby database, cloned by copying the database directory.
+     */
+    static class DerbyTemplate extends SchemaTemplate
+    {
+        static final String PREFIX = "jdbc:derby:";
+
+        private final File targetDbDir;
+
+        DerbyTemplate(File templateDir, File targetDbDir)
+        {
+            super(templateDir);
+            this.targetDbDir = targetDbDir;
+        }
+
+        static SchemaTemplate create(String url, File templateDir)
+        {
+            String location = splitOptions(url.substring(PREFIX.length()))[0];
+            if (location.startsWith("//") || location.startsWith("memory:") || location.startsWith("jar:") || location.startsWith("classpath:"))
+            {
+                return null;
+            }
+            if (location.startsWith("directory:"))
+            {
+                location = location.substring(10);
+            }
+            File dbDir = new File(location);
+            String systemHome = System.getProperty("derby.system.home");
+            if (!dbDir.isAbsolute() && systemHome != null)
+            {
+                dbDir = new File(systemHome, location);
+            }
+            return new DerbyTemplate(templateDir, dbDir.getAbsoluteFile());
+        }
+
+        private File getTemplateDbDir()
+        {
+            return new File(templateDir, "template");
+        }
+
+        String getTemplateURL()
+        {
+            return PREFIX + getTemplateDbDir().getAbsolutePath() + ";create=true";
+        }
+
+        void prepare(JdbcConnectionFactory factory) throws IOException
+        {
+            FileUtils.deleteDirectory(getTemplateDbDir());
+        }
+
+        void release(JdbcConnectionFactory factory) throws SQLException
+        {
+            try
+            {
+                factory.forURL(PREFIX + getTemplateDbDir().getAbsolutePath() + ";shutdown=true").getConnection().close();
+            }
+            catch (SQLException e)
+            {
+                // Derby reports a successful shutdown of a database with SQL state 08006
+                if (!"08006".equals(e.getSQLState()))
+                {
+                    throw e;
+                }
+            }
+        }
+
+        void cloneTo(JdbcConnectionFactory factory) throws IOException
+        {
+            FileUtils.deleteDirectory(targetDbDir);
+            FileUtils.copyDirectoryStructure(getTemplateDbDir(), targetDbDir);
+        }
+    }
+
+    /**
+     * Template for a PostgreSQL database, being a database of the same server cloned by
+     * <code>CREATE DATABASE ... TEMPLATE</code>.
+     */
+    static class PostgreSQLTemplate extends SchemaTemplate
+    {
+        static final String PREFIX = "jdbc:postgresql:";
+
+        private static final String TEMPLATE_SUFFIX = "_dn_template";
+
+        private static final String ADMIN_DATABASE = "postgres";
+
+        private final String urlStart;
+
+        private final String dbName;
+
+        private final String urlEnd;
+
+        PostgreSQLTemplate(File templateDir, String urlStart, String dbName, String urlEnd)
+        {
+            super(templateDir);
+            this.urlStart = urlStart;
+            this.dbName = dbName;
+            this.urlEnd = urlEnd;
+        }
+
+        static SchemaTemplate create(String url, File templateDir)
+        {
+            int dbStart = PREFIX.length();
+            if (url.startsWith("//", dbStart))
+            {
+                dbStart = url.indexOf('/', dbStart + 2);
+                if (dbStart < 0)
+                {
+                    return null;
+                }
+                dbStart++;
+            }
+            int dbEnd = url.indexOf('?', dbStart);
+            if (dbEnd < 0)
+            {
+                dbEnd = url.length();
+            }
+            String dbName = url.substring(dbStart, dbEnd);
+            if (dbName.length() == 0)
+            {
+                return null;
+            }
+            return new PostgreSQLTemplate(templateDir, url.substring(0, dbStart), dbName, url.substring(dbEnd));
+        }
+
+        private String getTemplateName()
+        {
+            return dbName + TEMPLATE_SUFFIX;
+        }
+
+        String getTemplateURL()
+        {
+            return urlStart + getTemplateName() + urlEnd;
+        }
+
+        private JdbcConnectionFactory getAdminFactory(JdbcConnectionFactory factory)
+        {
+            return factory.forURL(urlStart + ADMIN_DATABASE + urlEnd);
+        }
+
+        void prepare(JdbcConnectionFactory factory) throws SQLException
+        {
+            execute(getAdminFactory(factory), "DROP DATABASE IF EXISTS " + quote(getTemplateName()), "CREATE DATABASE " + quote(getTemplateName()));
+        }
+
+        void release(JdbcConnectionFactory factory)
+        {
+            // Template is released when SchemaTool disconnects
+        }
+
+        void cloneTo(JdbcConnectionFactory factory) throws SQLException
+        {
+            execute(getAdminFactory(factory), "DROP DATABASE IF EXISTS " + quote(dbName),
+                "CREATE DATABASE " + quote(dbName) + " TEMPLATE " + quote(getTemplateName()));
+        }
+
+        private static String quote(String identifier)
+        {
+            return '"' + identifier.replace("\"", "\"\"") + '"';
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.io.File;
+import java.util.List;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.codehaus.plexus.util.cli.Commandline;
+
+/**
+ * Applies a DDL script, such as one written by "schema-create" with <i>ddlFile</i>, to the datastore over JDBC.
+ * The datastore is defined by the same properties as for SchemaTool, and the JDBC driver is loaded from the
+ * dependencies of the plugin and project.
+ * <p>
+ * Statements are run as JDBC batches. CREATE TABLE statements are ordered by the foreign keys declared in them, with
+ * independent CREATE TABLE and CREATE INDEX statements run concurrently over a pool of connections, and foreign key
+ * and other constraints added last. Any other statements are run in script order.
+ * @goal schema-apply
+ * @requiresDependencyResolution runtime
+ * @description Applies the DDL script in the ddlFile to the datastore
+ */
+public class SchemaToolApplyMojo extends AbstractSchemaToolMojo
+{
+    private static final String TOOL_NAME_DDL_APPLY = "DDL script executor";
+
+    /**
+     * {@inheritDoc}
+     * @see org.datanucleus.maven.AbstractDataNucleusMojo#execute()
+     */
+    public void execute() throws MojoExecutionException
+    {
+        if (ddlFile == null || ddlFile.trim().length() == 0)
+        {
+            throw new MojoExecutionException("Applying a DDL script requires 'ddlFile' to be specified.");
+        }
+        File scriptFile = new File(ddlFile.trim());
+        if (!scriptFile.isFile())
+        {
+            throw new MojoExecutionException("DDL script '" + scriptFile.getAbsolutePath() + "' is not available.");
+        }
+
+        long startTime = System.currentTimeMillis();
+        applyScript(scriptFile);
+        getLog().info("DataNucleus tool " + getToolName() + " completed in " + (System.currentTimeMillis() - startTime) + " ms");
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see org.datanucleus.maven.AbstractSchemaToolMojo#prepareModeSpecificCommandLineArguments(org.codehaus.plexus.util.cli.Commandline, java.util.List)
+     */
+    protected void prepareModeSpecificCommandLineArguments(Commandline cl, List args)
+    {
+        // SchemaTool is not invoked
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see org.datanucleus.maven.AbstractSchemaToolMojo#getToolName()
+     */
+    protected String getToolName()
+    {
+        return TOOL_NAME_DDL_APPLY;
+    }
+}
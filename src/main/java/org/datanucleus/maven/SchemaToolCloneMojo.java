@@ -0,0 +1,57 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Provisions the configured database as a clone of the schema template for the input files, replacing any existing
+ * database. The template is built (as by "schema-template") if missing or out of date with the input files, so this
+ * can replace running "schema-deletedatabase", "schema-createdatabase" and "schema-create" before each test module.
+ * The database being replaced must not be in use.
+ * @goal schema-clone
+ * @requiresDependencyResolution runtime
+ * @description Provisions the datastore as a clone of the Schema template for the specified input files
+ */
+public class SchemaToolCloneMojo extends SchemaToolTemplateMojo
+{
+    /**
+     * {@inheritDoc}
+     * Replaces the configured database by a clone of the template.
+     * @see org.datanucleus.maven.SchemaToolTemplateMojo#templateReady(org.datanucleus.maven.SchemaTemplate, org.datanucleus.maven.JdbcConnectionFactory)
+     */
+    @Override
+    void templateReady(SchemaTemplate template, JdbcConnectionFactory connectionFactory)
+    throws MojoExecutionException
+    {
+        long startTime = System.currentTimeMillis();
+        try
+        {
+            template.cloneTo(connectionFactory);
+        }
+        catch (SQLException | IOException e)
+        {
+            throw new MojoExecutionException("Error cloning schema template " + template.getTemplateURL() + " to " + connectionFactory.getURL() +
+                " : " + e.getMessage(), e);
+        }
+        getLog().info("Provisioned " + connectionFactory.getURL() + " from schema template in " + (System.currentTimeMillis() - startTime) + " ms");
+    }
+}
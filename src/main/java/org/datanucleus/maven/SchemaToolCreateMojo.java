@@ -18,12 +18,25 @@ Contributors:
 **********************************************************************/
 package org.datanucleus.maven;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Properties;
 
+import org.apache.maven.plugin.MojoExecutionException;
 import org.codehaus.plexus.util.cli.Commandline;
 
 /**
  * Generates the Schema from the input files.
+ * <p>
+ * When <i>offline</i> is set the DDL is only generated to the <i>ddlFile</i>, with the datastore connection
+ * replaced by an in-process stand-in (by default an in-memory H2 database, which must be a dependency of the plugin)
+ * and the SQL dialect defined by <i>datastoreAdapterClassName</i>, so no live datastore is needed. These are passed
+ * to SchemaTool in a properties file generated from the persistence properties, so that they take precedence over
+ * those of <i>props</i> or the persistence-unit.
+ * <p>
+ * When <i>targets</i> are specified the schema is created for each of the target datastores (or, when
+ * <i>offline</i>, the DDL generated for each of their dialects) in turn in the same tool process, so the JVM is
+ * started and the tool classes loaded once for all targets.
  * @goal schema-create
  * @requiresDependencyResolution runtime
  * @description Creates the datastore Schema for the specified input files
@@ -32,6 +45,132 @@ public class SchemaToolCreateMojo extends AbstractSchemaToolMojo
 {
     private static final String OPERATION_MODE_CREATE = "-create";
 
+    /**
+     * Whether to generate the DDL without connecting to the configured datastore.
+     * @parameter property="offline" default-value="false"
+     */
+    protected boolean offline;
+
+    /**
+     * DataNucleus datastore adapter defining the dialect of the DDL (for example
+     * <code>org.datanucleus.store.rdbms.adapter.PostgreSQLAdapter</code>). Used with "offline".
+     * @parameter property="datastoreAdapterClassName" default-value=""
+     */
+    protected String datastoreAdapterClassName;
+
+    /**
+     * Connection URL of the stand-in datastore used when "offline".
+     * @parameter property="offlineConnectionURL" default-value="jdbc:h2:mem:datanucleus-offline"
+     */
+    protected String offlineConnectionURL;
+
+    /**
+     * Driver of the stand-in datastore used when "offline".
+     * @parameter property="offlineConnectionDriverName" default-value="org.h2.Driver"
+     */
+    protected String offlineConnectionDriverName;
+
+    /**
+     * Target datastores ({@link SchemaTarget}) to create the schema for, each with its own "ddlFile", and "props",
+     * "properties" or (when "offline") "datastoreAdapterClassName" in place of those of the goal.
+     * @parameter
+     */
+    protected List targets;
+
+    /**
+     * {@inheritDoc}
+     * @see org.datanucleus.maven.AbstractDataNucleusMojo#execute()
+     */
+    public void execute() throws MojoExecutionException
+    {
+        if (targets != null && !targets.isEmpty())
+        {
+            for (Iterator it = targets.iterator(); it.hasNext();)
+            {
+                SchemaTarget target = (SchemaTarget) it.next();
+                if (targets.size() > 1 && (target.getDdlFile() == null || target.getDdlFile().trim().length() == 0))
+                {
+                    throw new MojoExecutionException("Target '" + target + "' requires 'ddlFile' to be specified, since there are several targets.");
+                }
+                if (offline && getDdlFile(target) == null)
+                {
+                    throw new MojoExecutionException("Generation of the schema in offline mode requires 'ddlFile' to be specified.");
+                }
+            }
+        }
+        else if (offline && getDdlFile(null) == null)
+        {
+            throw new MojoExecutionException("Generation of the schema in offline mode requires 'ddlFile' to be specified.");
+        }
+        super.execute();
+    }
+
+    /**
+     * {@inheritDoc}
+     * When "offline" the stand-in datastore and adapter override those of the "props" file or persistence-unit.
+     * @see org.datanucleus.maven.AbstractSchemaToolMojo#isModePropertiesOverriding()
+     */
+    @Override
+    protected boolean isModePropertiesOverriding()
+    {
+        return offline;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see org.datanucleus.maven.AbstractSchemaToolMojo#getModeSpecificToolProperties()
+     */
+    protected Properties getModeSpecificToolProperties()
+    {
+        if (!offline)
+        {
+            return null;
+        }
+
+        // All names of the URL and driver, so that none from the "props" file or persistence-unit remains
+        Properties props = new Properties();
+        for (String name : JdbcConnectionFactory.URL_PROPERTIES)
+        {
+            props.setProperty(name, offlineConnectionURL);
+        }
+        for (String name : JdbcConnectionFactory.DRIVER_PROPERTIES)
+        {
+            props.setProperty(name, offlineConnectionDriverName);
+        }
+        String adapterClassName = datastoreAdapterClassName;
+        SchemaTarget target = getCurrentTarget();
+        if (target != null && target.getDatastoreAdapterClassName() != null && target.getDatastoreAdapterClassName().trim().length() > 0)
+        {
+            adapterClassName = target.getDatastoreAdapterClassName();
+        }
+        if (adapterClassName != null && adapterClassName.trim().length() > 0)
+        {
+            props.setProperty("datanucleus.rdbms.datastoreAdapterClassName", adapterClassName.trim());
+        }
+        return props;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see org.datanucleus.maven.AbstractSchemaToolMojo#getSchemaTargets()
+     */
+    @Override
+    protected List getSchemaTargets()
+    {
+        return targets;
+    }
+
+    /**
+     * Accessor for the file to write the DDL to for a target, defaulting to the "ddlFile" of the goal.
+     * When run for several "tenantSchemas" the name of the file is suffixed by the schema.
+     * @param target The target, or null if not run for targets
+     * @return The file path, or null if not writing DDL
+     */
+    private String getDdlFile(SchemaTarget target)
+    {
+        return getSchemaDdlFile(target != null && target.getDdlFile() != null && target.getDdlFile().trim().length() > 0 ? target.getDdlFile() : null);
+    }
+
     /**
      * {@inheritDoc}
      * @see org.datanucleus.maven.AbstractSchemaToolMojo#prepareModeSpecificCommandLineArguments(org.codehaus.plexus.util.cli.Commandline, java.util.List)
@@ -41,12 +180,13 @@ public class SchemaToolCreateMojo extends AbstractSchemaToolMojo
         if (fork)
         {
             cl.createArg().setValue(OPERATION_MODE_CREATE);
-            if (ddlFile != null && ddlFile.trim().length() > 0)
+            String file = getDdlFile(getCurrentTarget());
+            if (file != null)
             {
                 cl.createArg().setValue("-ddlFile");
-                cl.createArg().setValue(ddlFile);
+                cl.createArg().setValue(file);
             }
-            if (completeDdl)
+            if (completeDdl || offline)
             {
                 cl.createArg().setValue("-completeDdl");
             }
@@ -58,12 +198,13 @@ public class SchemaToolCreateMojo extends AbstractSchemaToolMojo
         else
         {
             args.add(OPERATION_MODE_CREATE);
-            if (ddlFile != null && ddlFile.trim().length() > 0)
+            String file = getDdlFile(getCurrentTarget());
+            if (file != null)
             {
                 args.add("-ddlFile");
-                args.add(ddlFile);
+                args.add(file);
             }
-            if (completeDdl)
+            if (completeDdl || offline)
             {
                 args.add("-completeDdl");
             }
@@ -40,10 +40,11 @@ public class SchemaToolDeleteCreateMojo extends AbstractSchemaToolMojo
         if (fork)
         {
             cl.createArg().setValue(OPERATION_MODE_DELETECREATE);
-            if (ddlFile != null && ddlFile.trim().length() > 0)
+            String file = getSchemaDdlFile(null);
+            if (file != null)
             {
                 cl.createArg().setValue("-ddlFile");
-                cl.createArg().setValue(ddlFile);
+                cl.createArg().setValue(file);
             }
             if (completeDdl)
             {
@@ -57,10 +58,11 @@ public class SchemaToolDeleteCreateMojo extends AbstractSchemaToolMojo
         else
         {
             args.add(OPERATION_MODE_DELETECREATE);
-            if (ddlFile != null && ddlFile.trim().length() > 0)
+            String file = getSchemaDdlFile(null);
+            if (file != null)
             {
                 args.add("-ddlFile");
-                args.add(ddlFile);
+                args.add(file);
             }
             if (completeDdl)
             {
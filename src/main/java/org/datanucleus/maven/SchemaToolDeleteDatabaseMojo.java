@@ -22,7 +22,7 @@ import java.util.List;
 import org.codehaus.plexus.util.cli.Commandline;
 
 /**
- * Deletes the database specified by the catalogName/schemaName parameters.
+ * Deletes the database specified by the catalogName/schemaName parameters (or each of the "tenantSchemas").
  * @goal schema-deletedatabase
  * @requiresDependencyResolution runtime
  * @description Deletes the database for the specified catalogName/schemaName.
@@ -37,6 +37,7 @@ public class SchemaToolDeleteDatabaseMojo extends AbstractSchemaToolMojo
      */
     protected void prepareModeSpecificCommandLineArguments(Commandline cl, List args)
     {
+        String schemaName = getSchemaName();
         if (fork)
         {
             cl.createArg().setValue(OPERATION_MODE_DELETE);
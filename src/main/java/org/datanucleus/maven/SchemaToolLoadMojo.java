@@ -0,0 +1,136 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.plugin.MojoExecutionException;
+
+/**
+ * Loads fixture data files into the tables of the datastore Schema for the specified input files, for example
+ * reference data for tests after "schema-create".
+ * <p>
+ * Each CSV or JSON file in the <i>fixturesDirectory</i> is loaded into the table of its name (without extension), such
+ * as "PERSON.csv" into table PERSON, which must be a table of the schema. See {@link FixtureReader} for the formats.
+ * The tables are found from the DDL of the schema, as for "schema-reset", and are loaded in the order of their foreign
+ * keys, with independent tables loaded concurrently over up to <i>applyConnections</i> connections. Rows are streamed
+ * from the files and inserted as JDBC batches of <i>applyBatchSize</i> rows, or for CSV files by the bulk-load path
+ * of the datastore where available (CSVREAD for embedded H2, COPY for PostgreSQL).
+ * @goal schema-load
+ * @requiresDependencyResolution runtime
+ * @description Loads fixture data files into the tables of the datastore Schema for the specified input files
+ */
+public class SchemaToolLoadMojo extends SchemaToolResetMojo
+{
+    /**
+     * Directory containing the fixture files (*.csv, *.json), each named after its table.
+     * @parameter property="fixturesDirectory" default-value="${basedir}/src/test/fixtures"
+     */
+    protected File fixturesDirectory;
+
+    /**
+     * Whether to empty the tables of the schema (as "schema-reset") before loading.
+     * @parameter property="resetBeforeLoad" default-value="false"
+     */
+    protected boolean resetBeforeLoad;
+
+    /**
+     * Whether to load CSV files using the bulk-load path of the datastore where available, rather than batched inserts.
+     * @parameter property="bulkLoad" default-value="true"
+     */
+    protected boolean bulkLoad;
+
+    /**
+     * {@inheritDoc}
+     * Loads the fixture files into their tables.
+     * @see org.datanucleus.maven.SchemaToolResetMojo#schemaReady(java.util.List, org.datanucleus.maven.JdbcConnectionFactory)
+     */
+    @Override
+    void schemaReady(List<DDLScript.Statement> statements, JdbcConnectionFactory connectionFactory)
+    throws MojoExecutionException
+    {
+        Map<String, String> tables = DDLScript.getTables(statements);
+        Map<String, File> fixtures = findFixtures(tables);
+        if (fixtures.isEmpty())
+        {
+            getLog().warn("No fixture files in " + fixturesDirectory);
+            return;
+        }
+
+        if (resetBeforeLoad)
+        {
+            resetTables(statements, connectionFactory);
+        }
+
+        long startTime = System.currentTimeMillis();
+        FixtureLoader loader = new FixtureLoader(connectionFactory, applyConnections, applyBatchSize, bulkLoad, getLog());
+        try
+        {
+            loader.load(fixtures, tables, DDLScript.getTableReferences(statements));
+        }
+        catch (SQLException e)
+        {
+            throw new MojoExecutionException("Error loading fixture files into " + connectionFactory.getURL() + " : " + e.getMessage(), e);
+        }
+        getLog().info("Loaded " + loader.getRowCount() + " rows into " + fixtures.size() + " tables of " + connectionFactory.getURL() +
+            " in " + (System.currentTimeMillis() - startTime) + " ms");
+    }
+
+    /**
+     * Method to find the fixture files, and the table of each.
+     * @param tables The tables of the schema, keyed by normalised name
+     * @return The fixture file of each table, keyed by normalised table name
+     * @throws MojoExecutionException If a file does not match a table, or there are several files for a table
+     */
+    private Map<String, File> findFixtures(Map<String, String> tables)
+    throws MojoExecutionException
+    {
+        if (fixturesDirectory == null || !fixturesDirectory.isDirectory())
+        {
+            throw new MojoExecutionException("Fixtures directory " + fixturesDirectory + " is not available.");
+        }
+        File[] files = fixturesDirectory.listFiles();
+        Arrays.sort(files);
+
+        Map<String, File> fixtures = new LinkedHashMap<>();
+        for (File file : files)
+        {
+            if (!file.isFile() || !FixtureReader.isFixtureFile(file))
+            {
+                continue;
+            }
+            String name = file.getName();
+            String tableName = DDLScript.normaliseName(name.substring(0, name.lastIndexOf('.')));
+            if (!tables.containsKey(tableName))
+            {
+                throw new MojoExecutionException("Fixture file " + file + " does not match a table of the schema.");
+            }
+            File previous = fixtures.put(tableName, file);
+            if (previous != null)
+            {
+                throw new MojoExecutionException("Fixture files " + previous + " and " + file + " are both for table " + tables.get(tableName) + ".");
+            }
+        }
+        return fixtures;
+    }
+}
@@ -0,0 +1,264 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.codehaus.plexus.util.cli.CommandLineException;
+import org.codehaus.plexus.util.cli.Commandline;
+
+/**
+ * Empties the tables of the datastore Schema for the specified input files, leaving the tables, indexes and
+ * constraints in place, as a faster alternative to "schema-deletecreate" when only empty tables are needed.
+ * <p>
+ * The tables are found from the complete DDL for the input files, which SchemaTool writes to "schema-reset-{hash}.sql"
+ * in the work directory. It is only regenerated when its key changes, being a hash of the input files (path, length
+ * and modification time), the persistence properties and the catalog and schema, stored in "schema-reset-{hash}.key". The tables are then
+ * emptied over one connection, as JDBC batches: by one TRUNCATE for PostgreSQL, by TRUNCATE with referential
+ * integrity checks disabled for H2, HSQLDB, MySQL and MariaDB, and otherwise by DELETE in one transaction, ordered by
+ * the foreign keys so that each table is emptied before the tables it references.
+ * @goal schema-reset
+ * @requiresDependencyResolution runtime
+ * @description Empties the tables of the datastore Schema for the specified input files
+ */
+public class SchemaToolResetMojo extends AbstractSchemaToolMojo
+{
+    private static final String OPERATION_MODE_CREATE = "-create";
+
+    /** File that the complete DDL of the schema is written to, for finding the tables. */
+    private File resetScriptFile;
+
+    /** File holding the key of the DDL in the reset script file. */
+    private File resetKeyFile;
+
+    private JdbcConnectionFactory connectionFactory;
+
+    /**
+     * {@inheritDoc}
+     * @see org.datanucleus.maven.AbstractDataNucleusMojo#execute()
+     */
+    public void execute() throws MojoExecutionException
+    {
+        if (tenantSchemas != null && tenantSchemas.trim().length() > 0)
+        {
+            throw new MojoExecutionException("Goal does not support 'tenantSchemas'.");
+        }
+        try (JdbcConnectionFactory factory = getConnectionFactory())
+        {
+            connectionFactory = factory;
+            String url = connectionFactory.getURL();
+            String baseName = "schema-reset-" + Integer.toHexString(String.valueOf(url).hashCode());
+            resetScriptFile = new File(workDirectory, baseName + ".sql");
+            resetKeyFile = new File(workDirectory, baseName + ".key");
+
+            super.execute();
+        }
+        finally
+        {
+            connectionFactory = null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Generates the DDL of the schema if its key has changed since it was generated, then empties its tables.
+     * @see org.datanucleus.maven.AbstractSchemaToolMojo#executeDataNucleusTool(java.util.List, java.util.List)
+     */
+    @Override
+    protected void executeDataNucleusTool(List pluginArtifacts, List files)
+    throws CommandLineException, MojoExecutionException
+    {
+        String key = getScriptKey(isRunForPersistenceUnit() ? findMetadataFiles() : files);
+        if (isScriptUpToDate(key))
+        {
+            getLog().debug("Using DDL of the schema in " + resetScriptFile);
+        }
+        else
+        {
+            if (resetKeyFile.exists() && !resetKeyFile.delete() || resetScriptFile.exists() && !resetScriptFile.delete())
+            {
+                throw new MojoExecutionException("Unable to delete previous DDL script '" + resetScriptFile.getAbsolutePath() + "'.");
+            }
+            resetScriptFile.getParentFile().mkdirs();
+            super.executeDataNucleusTool(pluginArtifacts, files);
+            if (!resetScriptFile.exists())
+            {
+                throw new MojoExecutionException("DataNucleus tool " + getToolName() + " did not write the DDL of the schema to " + resetScriptFile);
+            }
+            try
+            {
+                Files.write(resetKeyFile.toPath(), key.getBytes(StandardCharsets.UTF_8));
+            }
+            catch (IOException e)
+            {
+                getLog().warn("Unable to write key of DDL script '" + resetScriptFile.getAbsolutePath() + "' : " + e.getMessage());
+            }
+        }
+
+        List<DDLScript.Statement> statements;
+        try
+        {
+            statements = DDLScript.parse(resetScriptFile);
+        }
+        catch (IOException e)
+        {
+            throw new MojoExecutionException("Error reading DDL script '" + resetScriptFile.getAbsolutePath() + "'.", e);
+        }
+        schemaReady(statements, connectionFactory);
+    }
+
+    /**
+     * Hook invoked once the DDL of the schema is available, emptying its tables.
+     * @param statements Statements of the complete DDL of the schema
+     * @param connectionFactory Connection factory for the configured datastore
+     * @throws MojoExecutionException If an error occurs
+     */
+    void schemaReady(List<DDLScript.Statement> statements, JdbcConnectionFactory connectionFactory)
+    throws MojoExecutionException
+    {
+        resetTables(statements, connectionFactory);
+    }
+
+    /**
+     * Method to empty the tables of the schema.
+     * @param statements Statements of the complete DDL of the schema
+     * @param connectionFactory Connection factory for the configured datastore
+     * @throws MojoExecutionException If an error occurs
+     */
+    void resetTables(List<DDLScript.Statement> statements, JdbcConnectionFactory connectionFactory)
+    throws MojoExecutionException
+    {
+        List<String> tables = SchemaReset.getTablesInResetOrder(statements);
+        if (tables.isEmpty())
+        {
+            getLog().warn("No tables in the schema for the input files");
+            return;
+        }
+
+        SchemaReset reset = SchemaReset.forURL(connectionFactory.getURL(), tables);
+        if (getLog().isDebugEnabled())
+        {
+            getLog().debug("Resetting schema of " + connectionFactory.getURL() + " : " + reset.getStatements());
+        }
+        long startTime = System.currentTimeMillis();
+        try
+        {
+            reset.execute(connectionFactory, applyBatchSize);
+        }
+        catch (SQLException e)
+        {
+            throw new MojoExecutionException("Error resetting the tables of " + connectionFactory.getURL() + " : " + e.getMessage(), e);
+        }
+        getLog().info("Emptied " + tables.size() + " tables of " + connectionFactory.getURL() + " in " + (System.currentTimeMillis() - startTime) + " ms");
+    }
+
+    /**
+     * Whether the DDL of the schema was generated for the specified key.
+     * @param key Key of the DDL for the current input files and settings
+     * @return Whether the DDL can be used
+     */
+    private boolean isScriptUpToDate(String key)
+    {
+        if (!resetScriptFile.isFile() || !resetKeyFile.isFile())
+        {
+            return false;
+        }
+        try
+        {
+            return key.equals(new String(Files.readAllBytes(resetKeyFile.toPath()), StandardCharsets.UTF_8));
+        }
+        catch (IOException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Method to generate the key of the DDL of the schema, which changes with anything that can change the DDL : the
+     * set of input files and the length and modification time of each, the persistence properties (of the
+     * persistence-unit, "props" file and "toolProperties"), the API, and the catalog and schema.
+     * @param files The input files
+     * @return The key
+     * @throws MojoExecutionException If an error occurs reading the persistence properties
+     */
+    private String getScriptKey(List files) throws MojoExecutionException
+    {
+        List<String> entries = new ArrayList<>();
+        for (Iterator it = files.iterator(); it.hasNext();)
+        {
+            File file = (File) it.next();
+            entries.add(file.getAbsolutePath() + "\t" + file.length() + "\t" + file.lastModified());
+        }
+        Collections.sort(entries);
+
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            updateDigestWithSchemaSettings(digest);
+            for (String entry : entries)
+            {
+                digest.update((entry + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+
+            StringBuilder str = new StringBuilder();
+            for (byte b : digest.digest())
+            {
+                str.append(String.format("%02x", b));
+            }
+            return str.toString();
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new MojoExecutionException("Error generating key of the DDL of the schema", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Writes the complete DDL of the schema, without executing it.
+     * @see org.datanucleus.maven.AbstractSchemaToolMojo#prepareModeSpecificCommandLineArguments(org.codehaus.plexus.util.cli.Commandline, java.util.List)
+     */
+    protected void prepareModeSpecificCommandLineArguments(Commandline cl, List args)
+    {
+        if (fork)
+        {
+            cl.createArg().setValue(OPERATION_MODE_CREATE);
+            cl.createArg().setValue("-ddlFile");
+            cl.createArg().setValue(resetScriptFile.getAbsolutePath());
+            cl.createArg().setValue("-completeDdl");
+        }
+        else
+        {
+            args.add(OPERATION_MODE_CREATE);
+            args.add("-ddlFile");
+            args.add(resetScriptFile.getAbsolutePath());
+            args.add("-completeDdl");
+        }
+    }
+}
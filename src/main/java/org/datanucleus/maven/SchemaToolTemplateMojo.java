@@ -0,0 +1,258 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.codehaus.plexus.util.cli.CommandLineException;
+import org.codehaus.plexus.util.cli.Commandline;
+
+/**
+ * Builds a template database holding the schema for the input files, from which test databases can be provisioned
+ * quickly by "schema-clone". The template is for the database of the configured connection URL, and is only rebuilt
+ * when the hash of the input files and persistence properties changes.
+ * <p>
+ * For a file-based H2 or Derby database the template is a database in the <i>templateDirectory</i>, cloned by
+ * copying its files. For PostgreSQL the template is the database "{name}_dn_template" of the same server, cloned by
+ * <code>CREATE DATABASE ... TEMPLATE</code>, which requires the user to be able to create databases.
+ * @goal schema-template
+ * @requiresDependencyResolution runtime
+ * @description Builds a template of the datastore Schema for the specified input files
+ */
+public class SchemaToolTemplateMojo extends AbstractSchemaToolMojo
+{
+    private static final String OPERATION_MODE_CREATE = "-create";
+
+    /**
+     * Directory holding the schema templates (and, for file-based databases, the template databases).
+     * Defaults to "schema-template" in the work directory. Can be shared between modules using the same datastore.
+     * @parameter property="templateDirectory" default-value=""
+     */
+    protected String templateDirectory;
+
+    private SchemaTemplate template;
+
+    private JdbcConnectionFactory targetConnectionFactory;
+
+    /** Whether SchemaTool is being run against the template database. */
+    private boolean buildingTemplate;
+
+    /**
+     * {@inheritDoc}
+     * @see org.datanucleus.maven.AbstractDataNucleusMojo#execute()
+     */
+    public void execute() throws MojoExecutionException
+    {
+        try (JdbcConnectionFactory factory = getConnectionFactory())
+        {
+            targetConnectionFactory = factory;
+            String url = targetConnectionFactory.getURL();
+            File baseDir = (templateDirectory != null && templateDirectory.trim().length() > 0) ?
+                new File(templateDirectory.trim()) : new File(workDirectory, "schema-template");
+            template = SchemaTemplate.forURL(url, new File(baseDir, Integer.toHexString(url.hashCode())));
+            if (template == null)
+            {
+                throw new MojoExecutionException("Schema templates are not supported for " + url +
+                    ". Supported are file-based H2 and Derby databases, and PostgreSQL.");
+            }
+
+            super.execute();
+        }
+        finally
+        {
+            targetConnectionFactory = null;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Builds the template if the input files have changed since it was built.
+     * @see org.datanucleus.maven.AbstractSchemaToolMojo#executeDataNucleusTool(java.util.List, java.util.List)
+     */
+    @Override
+    protected void executeDataNucleusTool(List pluginArtifacts, List files)
+    throws CommandLineException, MojoExecutionException
+    {
+        String hash = getMetadataHash(isRunForPersistenceUnit() ? findMetadataFiles() : files);
+        if (hash.equals(template.readHash()))
+        {
+            getLog().info("Schema template " + template.getTemplateURL() + " is up to date");
+        }
+        else
+        {
+            getLog().info("Building schema template " + template.getTemplateURL());
+            template.clearHash();
+            try
+            {
+                template.prepare(targetConnectionFactory);
+                buildingTemplate = true;
+                try
+                {
+                    super.executeDataNucleusTool(pluginArtifacts, files);
+                }
+                catch (CommandLineException | MojoExecutionException | RuntimeException e)
+                {
+                    // Release the partly built template, so that its database is not left open
+                    try
+                    {
+                        template.release(targetConnectionFactory);
+                    }
+                    catch (SQLException releaseException)
+                    {
+                        e.addSuppressed(releaseException);
+                    }
+                    throw e;
+                }
+                finally
+                {
+                    buildingTemplate = false;
+                }
+                template.release(targetConnectionFactory);
+                template.writeHash(hash);
+            }
+            catch (SQLException | IOException e)
+            {
+                throw new MojoExecutionException("Error building schema template " + template.getTemplateURL() + " : " + e.getMessage(), e);
+            }
+        }
+
+        templateReady(template, targetConnectionFactory);
+    }
+
+    /**
+     * Hook invoked once the template is up to date.
+     * @param template The template
+     * @param connectionFactory Connection factory for the configured datastore
+     * @throws MojoExecutionException If an error occurs
+     */
+    void templateReady(SchemaTemplate template, JdbcConnectionFactory connectionFactory)
+    throws MojoExecutionException
+    {
+    }
+
+    /**
+     * Method to generate the hash of the template, from the paths and contents of the input files, the template URL,
+     * and the settings that shape the DDL (the persistence properties, the API, and the catalog and schema).
+     * @param files The input files
+     * @return The hash (hex)
+     * @throws MojoExecutionException If an error occurs reading a file or the persistence properties
+     */
+    String getMetadataHash(List files) throws MojoExecutionException
+    {
+        List<String> paths = new ArrayList<>();
+        for (Iterator it = files.iterator(); it.hasNext();)
+        {
+            paths.add(((File) it.next()).getAbsolutePath());
+        }
+        Collections.sort(paths);
+
+        try
+        {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((template.getTemplateURL() + "\n").getBytes(StandardCharsets.UTF_8));
+            updateDigestWithSchemaSettings(digest);
+            for (String path : paths)
+            {
+                String name = getInputRelativePath(new File(path));
+                name = name != null ? name : path;
+                digest.update(name.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(Files.readAllBytes(new File(path).toPath()));
+            }
+
+            StringBuilder str = new StringBuilder();
+            for (byte b : digest.digest())
+            {
+                str.append(String.format("%02x", b));
+            }
+            return str.toString();
+        }
+        catch (NoSuchAlgorithmException | IOException e)
+        {
+            throw new MojoExecutionException("Error generating hash of the input files", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The template URL overrides that of the "props" file or persistence-unit.
+     * @see org.datanucleus.maven.AbstractSchemaToolMojo#isModePropertiesOverriding()
+     */
+    @Override
+    protected boolean isModePropertiesOverriding()
+    {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * Directs SchemaTool to the template database when building the template.
+     * @see org.datanucleus.maven.AbstractSchemaToolMojo#getModeSpecificToolProperties()
+     */
+    protected Properties getModeSpecificToolProperties()
+    {
+        if (!buildingTemplate)
+        {
+            return null;
+        }
+
+        // All names of the URL, so that none from the "props" file or persistence-unit remains
+        Properties props = new Properties();
+        for (String name : JdbcConnectionFactory.URL_PROPERTIES)
+        {
+            props.setProperty(name, template.getTemplateURL());
+        }
+        return props;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see org.datanucleus.maven.AbstractSchemaToolMojo#prepareModeSpecificCommandLineArguments(org.codehaus.plexus.util.cli.Commandline, java.util.List)
+     */
+    protected void prepareModeSpecificCommandLineArguments(Commandline cl, List args)
+    {
+        if (fork)
+        {
+            cl.createArg().setValue(OPERATION_MODE_CREATE);
+            if (completeDdl)
+            {
+                cl.createArg().setValue("-completeDdl");
+            }
+        }
+        else
+        {
+            args.add(OPERATION_MODE_CREATE);
+            if (completeDdl)
+            {
+                args.add("-completeDdl");
+            }
+        }
+    }
+}
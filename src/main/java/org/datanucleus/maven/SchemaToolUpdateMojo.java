@@ -0,0 +1,247 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.codehaus.plexus.util.cli.CommandLineException;
+import org.codehaus.plexus.util.cli.Commandline;
+
+/**
+ * Updates the datastore schema to match the input files, without dropping anything.
+ * <p>
+ * SchemaTool compares the metadata against the datastore, with the existing tables and their columns read in bulk,
+ * and writes the DDL for the missing tables, columns, constraints and indexes to a script rather than executing it.
+ * These settings are passed to SchemaTool in a properties file generated from the persistence properties, so that
+ * they take precedence over those of <i>props</i> or the persistence-unit.
+ * The script is written to <i>ddlFile</i> if specified (else to the work directory), the changes are reported, and
+ * the script is then applied as by "schema-apply", ordered by foreign keys and batched.
+ * <p>
+ * With <i>updateChangedOnly</i> only the input files changed since the last update of the same datastore are passed
+ * to SchemaTool, so unchanged classes are not compared at all. This relies on the datastore only being changed by
+ * this goal.
+ * @goal schema-update
+ * @requiresDependencyResolution runtime
+ * @description Adds the missing parts of the datastore Schema for the specified input files
+ */
+public class SchemaToolUpdateMojo extends AbstractSchemaToolMojo
+{
+    private static final String OPERATION_MODE_CREATE = "-create";
+
+    /** Name of the file (in the work directory) to write the DDL to, when no ddlFile is specified. */
+    private static final String UPDATE_DDL_FILE = "schema-update.ddl";
+
+    /**
+     * Whether to only write the DDL of the update, and not apply it.
+     * @parameter property="updateGenerateOnly" default-value="false"
+     */
+    protected boolean updateGenerateOnly;
+
+    /**
+     * Whether to only pass the input files changed since the last update of this datastore to SchemaTool.
+     * @parameter property="updateChangedOnly" default-value="false"
+     */
+    protected boolean updateChangedOnly;
+
+    /** File that the DDL of the update is written to. */
+    private File updateScriptFile;
+
+    /** Record of the input files at the last update of this datastore, when only passing changed files. */
+    private EnhancementRecord updateRecord;
+
+    private File updateRecordFile;
+
+    /**
+     * {@inheritDoc}
+     * @see org.datanucleus.maven.AbstractDataNucleusMojo#execute()
+     */
+    public void execute() throws MojoExecutionException
+    {
+        if (tenantSchemas != null && tenantSchemas.trim().length() > 0)
+        {
+            throw new MojoExecutionException("Updating the schema does not support 'tenantSchemas'.");
+        }
+        updateScriptFile = (ddlFile != null && ddlFile.trim().length() > 0) ? new File(ddlFile.trim()) : new File(workDirectory, UPDATE_DDL_FILE);
+        if (updateScriptFile.exists() && !updateScriptFile.delete())
+        {
+            throw new MojoExecutionException("Unable to delete previous DDL script '" + updateScriptFile.getAbsolutePath() + "'.");
+        }
+        updateScriptFile.getAbsoluteFile().getParentFile().mkdirs();
+
+        if (updateChangedOnly)
+        {
+            String url = JdbcConnectionFactory.getProperty(getDatastoreProperties(), JdbcConnectionFactory.URL_PROPERTIES);
+            updateRecordFile = new File(workDirectory, "schema-update-" + Integer.toHexString(String.valueOf(url).hashCode()) + ".rec");
+            updateRecord = EnhancementRecord.read(updateRecordFile);
+        }
+
+        super.execute();
+    }
+
+    /**
+     * {@inheritDoc}
+     * When only passing changed files, any file unchanged since the last update is omitted.
+     * @see org.datanucleus.maven.AbstractDataNucleusMojo#acceptMetadataFile(java.io.File)
+     */
+    @Override
+    protected boolean acceptMetadataFile(File file)
+    {
+        if (updateRecord != null && updateRecord.isUnchanged(file))
+        {
+            return false;
+        }
+        return super.acceptMetadataFile(file);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Runs SchemaTool to write the DDL of the update, and then applies it.
+     * @see org.datanucleus.maven.AbstractSchemaToolMojo#executeDataNucleusTool(java.util.List, java.util.List)
+     */
+    @Override
+    protected void executeDataNucleusTool(List pluginArtifacts, List files)
+    throws CommandLineException, MojoExecutionException
+    {
+        super.executeDataNucleusTool(pluginArtifacts, files);
+
+        List<DDLScript.Statement> statements;
+        try
+        {
+            statements = updateScriptFile.exists() ? DDLScript.parse(updateScriptFile) : null;
+        }
+        catch (IOException e)
+        {
+            throw new MojoExecutionException("Error reading DDL script '" + updateScriptFile.getAbsolutePath() + "'.", e);
+        }
+
+        if (statements == null || statements.isEmpty())
+        {
+            getLog().info("Datastore schema is up to date");
+        }
+        else
+        {
+            reportChanges(statements);
+            if (updateGenerateOnly)
+            {
+                getLog().info("DDL of the update written to '" + updateScriptFile.getAbsolutePath() + "', and not applied");
+                return;
+            }
+            applyScript(updateScriptFile);
+        }
+
+        if (updateRecord != null)
+        {
+            // Record the files only once the datastore has them
+            updateRecord.addAll(files);
+            try
+            {
+                updateRecord.write(updateRecordFile);
+            }
+            catch (IOException e)
+            {
+                getLog().warn("Unable to write schema update record : " + e.getMessage());
+            }
+        }
+    }
+
+    private void reportChanges(List<DDLScript.Statement> statements)
+    {
+        int numTables = 0;
+        int numIndexes = 0;
+        int numConstraints = 0;
+        int numOther = 0;
+        Set<String> tableNames = new TreeSet<>();
+        for (DDLScript.Statement statement : statements)
+        {
+            switch (statement.kind)
+            {
+                case CREATE_TABLE :
+                    numTables++;
+                    break;
+                case CREATE_INDEX :
+                    numIndexes++;
+                    break;
+                case ADD_CONSTRAINT :
+                    numConstraints++;
+                    break;
+                default :
+                    numOther++;
+                    break;
+            }
+            if (statement.tableName != null)
+            {
+                tableNames.add(statement.tableName);
+            }
+            getLog().debug("Update : " + statement.sql);
+        }
+        getLog().info("Datastore schema update : " + numTables + " tables to create, " + numIndexes + " indexes, " + numConstraints +
+            " constraints, and " + numOther + " other statements (added columns etc), affecting tables " + tableNames);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Has SchemaTool check the existing tables in bulk, and add missing columns and constraints to existing tables.
+     * @see org.datanucleus.maven.AbstractSchemaToolMojo#getModeSpecificToolProperties()
+     */
+    protected Properties getModeSpecificToolProperties()
+    {
+        Properties props = new Properties();
+        props.setProperty("datanucleus.rdbms.checkExistTablesOrViews", "true");
+        props.setProperty("datanucleus.rdbms.initializeColumnInfo", "ALL");
+        props.setProperty("datanucleus.schema.autoCreateColumns", "true");
+        props.setProperty("datanucleus.schema.autoCreateConstraints", "true");
+        return props;
+    }
+
+    /**
+     * {@inheritDoc}
+     * The settings driving the update override those of the "props" file or persistence-unit.
+     * @see org.datanucleus.maven.AbstractSchemaToolMojo#isModePropertiesOverriding()
+     */
+    @Override
+    protected boolean isModePropertiesOverriding()
+    {
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see org.datanucleus.maven.AbstractSchemaToolMojo#prepareModeSpecificCommandLineArguments(org.codehaus.plexus.util.cli.Commandline, java.util.List)
+     */
+    protected void prepareModeSpecificCommandLineArguments(Commandline cl, List args)
+    {
+        if (fork)
+        {
+            cl.createArg().setValue(OPERATION_MODE_CREATE);
+            cl.createArg().setValue("-ddlFile");
+            cl.createArg().setValue(updateScriptFile.getAbsolutePath());
+        }
+        else
+        {
+            args.add(OPERATION_MODE_CREATE);
+            args.add("-ddlFile");
+            args.add(updateScriptFile.getAbsolutePath());
+        }
+    }
+}
@@ -41,10 +41,11 @@ public class SchemaToolValidateMojo extends AbstractSchemaToolMojo
         if (fork)
         {
             cl.createArg().setValue(OPERATION_MODE_VALIDATE);
-            if (ddlFile != null && ddlFile.trim().length() > 0)
+            String file = getSchemaDdlFile(null);
+            if (file != null)
             {
                 cl.createArg().setValue("-ddlFile");
-                cl.createArg().setValue(ddlFile);
+                cl.createArg().setValue(file);
             }
             if (completeDdl)
             {
@@ -58,10 +59,11 @@ public class SchemaToolValidateMojo extends AbstractSchemaToolMojo
         else
         {
             args.add(OPERATION_MODE_VALIDATE);
-            if (ddlFile != null && ddlFile.trim().length() > 0)
+            String file = getSchemaDdlFile(null);
+            if (file != null)
             {
                 args.add("-ddlFile");
-                args.add(ddlFile);
+                args.add(file);
             }
             if (completeDdl)
             {
@@ -0,0 +1,94 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limiter of the number of DataNucleus tools (forked JVMs or in-JVM invocations) running at the same time.
+ * The limiter is static, so it is shared by all executions of the plugin in the build, such as those of the modules
+ * of a parallel (<i>-T</i>) build. The limit is that of the most recent execution to acquire a permit.
+ */
+final class ToolConcurrencyLimiter
+{
+    private static final AdjustableSemaphore PERMITS = new AdjustableSemaphore();
+
+    private static int limit = 0;
+
+    private ToolConcurrencyLimiter()
+    {
+    }
+
+    /**
+     * Method to acquire a permit to run a tool, waiting until one is available.
+     * @param maxConcurrent Maximum number of tools to run at the same time
+     * @return The time waited (ms)
+     * @throws InterruptedException If interrupted while waiting
+     */
+    static long acquire(int maxConcurrent) throws InterruptedException
+    {
+        setLimit(maxConcurrent);
+        if (PERMITS.tryAcquire())
+        {
+            return 0;
+        }
+        long startTime = System.currentTimeMillis();
+        PERMITS.acquire();
+        return System.currentTimeMillis() - startTime;
+    }
+
+    /**
+     * Method to release a permit acquired by {@link #acquire(int)}.
+     */
+    static void release()
+    {
+        PERMITS.release();
+    }
+
+    private static synchronized void setLimit(int maxConcurrent)
+    {
+        if (maxConcurrent > limit)
+        {
+            PERMITS.release(maxConcurrent - limit);
+        }
+        else if (maxConcurrent < limit)
+        {
+            PERMITS.reducePermits(limit - maxConcurrent);
+        }
+        limit = maxConcurrent;
+    }
+
+    /**
+     * Semaphore whose permits can be reduced while they are held.
+     */
+    private static class AdjustableSemaphore extends Semaphore
+    {
+        private static final long serialVersionUID = 1L;
+
+        AdjustableSemaphore()
+        {
+            super(0, true);
+        }
+
+        @Override
+        protected void reducePermits(int reduction)
+        {
+            super.reducePermits(reduction);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for the persistence properties given to SchemaTool by the schema goals.
+ */
+public class AbstractSchemaToolMojoTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File writeProps(String name, Properties props) throws IOException
+    {
+        File file = new File(folder.getRoot(), name);
+        try (OutputStream os = new FileOutputStream(file))
+        {
+            props.store(os, null);
+        }
+        return file;
+    }
+
+    private static Properties readProps(File file) throws IOException
+    {
+        Properties props = new Properties();
+        try (InputStream is = new FileInputStream(file))
+        {
+            props.load(is);
+        }
+        return props;
+    }
+
+    private static void setField(AbstractSchemaToolMojo mojo, String name, Object value) throws ReflectiveOperationException
+    {
+        setField(AbstractSchemaToolMojo.class, mojo, name, value);
+    }
+
+    private static void setField(Class cls, AbstractSchemaToolMojo mojo, String name, Object value) throws ReflectiveOperationException
+    {
+        Field field = cls.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(mojo, value);
+    }
+
+    private static SchemaTarget target(String name, String url)
+    {
+        SchemaTarget target = new SchemaTarget();
+        target.setName(name);
+        target.setDdlFile(name + ".sql");
+        Properties props = new Properties();
+        props.setProperty("datanucleus.ConnectionURL", url);
+        target.setProperties(props);
+        return target;
+    }
+
+    @Test
+    public void testTargetsOverrideConnectionURL() throws Exception
+    {
+        Properties goalProps = new Properties();
+        goalProps.setProperty("datanucleus.ConnectionURL", "jdbc:h2:mem:goal");
+        goalProps.setProperty("datanucleus.ConnectionUserName", "sa");
+        File goalPropsFile = writeProps("datanucleus.properties", goalProps);
+
+        SchemaToolCreateMojo mojo = new SchemaToolCreateMojo();
+        mojo.workDirectory = folder.newFolder("work");
+        setField(mojo, "props", goalPropsFile.getAbsolutePath());
+        mojo.api = "JDO";
+        mojo.fork = true;
+        mojo.targets = Arrays.asList(target("first", "jdbc:h2:mem:first"), target("second", "jdbc:h2:mem:second"));
+
+        List<AbstractSchemaToolMojo.SchemaRun> runs = mojo.prepareRuns(null);
+        assertEquals(2, runs.size());
+        String[] urls = {"jdbc:h2:mem:first", "jdbc:h2:mem:second"};
+        for (int i = 0; i < runs.size(); i++)
+        {
+            AbstractSchemaToolMojo.SchemaRun run = runs.get(i);
+            assertNotNull(run.name, run.propsFile);
+            Properties runProps = readProps(run.propsFile);
+            assertEquals(urls[i], runProps.getProperty("datanucleus.ConnectionURL"));
+            assertEquals("sa", runProps.getProperty("datanucleus.ConnectionUserName"));
+
+            int propsIdx = run.arguments.indexOf("-props");
+            assertTrue(run.arguments.toString(), propsIdx >= 0);
+            assertEquals(run.propsFile.getAbsolutePath(), run.arguments.get(propsIdx + 1));
+            assertFalse(run.arguments.toString(), run.arguments.contains(goalPropsFile.getAbsolutePath()));
+        }
+    }
+
+    @Test
+    public void testUpdateSettingsOverrideProps() throws Exception
+    {
+        Properties goalProps = new Properties();
+        goalProps.setProperty("datanucleus.ConnectionURL", "jdbc:h2:mem:goal");
+        goalProps.setProperty("datanucleus.schema.autoCreateColumns", "false");
+        File goalPropsFile = writeProps("datanucleus.properties", goalProps);
+
+        SchemaToolUpdateMojo mojo = new SchemaToolUpdateMojo();
+        setField(mojo, "props", goalPropsFile.getAbsolutePath());
+
+        assertTrue(mojo.isModePropertiesOverriding());
+        Properties datastoreProps = mojo.getDatastoreProperties();
+        assertEquals("jdbc:h2:mem:goal", datastoreProps.getProperty("datanucleus.ConnectionURL"));
+        assertEquals("true", datastoreProps.getProperty("datanucleus.schema.autoCreateColumns"));
+    }
+
+    @Test
+    public void testTemplateHashCoversPersistenceProperties() throws Exception
+    {
+        File classesDir = folder.newFolder("classes");
+        File classFile = new File(classesDir, "A.class");
+        Files.write(classFile.toPath(), new byte[] {1, 2, 3});
+        List<File> files = Arrays.asList(classFile);
+
+        Properties goalProps = new Properties();
+        goalProps.setProperty("datanucleus.ConnectionURL", "jdbc:h2:file:" + folder.getRoot() + "/db");
+        File goalPropsFile = writeProps("datanucleus.properties", goalProps);
+
+        SchemaToolTemplateMojo mojo = new SchemaToolTemplateMojo();
+        mojo.metadataDirectory = classesDir;
+        mojo.api = "JDO";
+        setField(mojo, "props", goalPropsFile.getAbsolutePath());
+        setField(SchemaToolTemplateMojo.class, mojo, "template",
+            SchemaTemplate.forURL(goalProps.getProperty("datanucleus.ConnectionURL"), folder.newFolder("template")));
+
+        String hash = mojo.getMetadataHash(files);
+        assertEquals(hash, mojo.getMetadataHash(files));
+
+        goalProps.setProperty("datanucleus.identifier.case", "LowerCase");
+        writeProps("datanucleus.properties", goalProps);
+        String propsHash = mojo.getMetadataHash(files);
+        assertFalse(hash.equals(propsHash));
+
+        mojo.schemaName = "TEST";
+        assertFalse(propsHash.equals(mojo.getMetadataHash(files)));
+    }
+
+    @Test
+    public void testTenantRunsTakeOnePermit() throws Exception
+    {
+        SchemaToolCreateMojo mojo = new SchemaToolCreateMojo();
+        mojo.workDirectory = folder.newFolder("work");
+        mojo.api = "JDO";
+        mojo.tenantSchemas = "tenant_{1..4}";
+        mojo.tenantParallelism = 4;
+        mojo.maxConcurrentTools = 1;
+
+        ClassLoader loader = new ClassLoader(getClass().getClassLoader())
+        {
+            @Override
+            public Class<?> loadClass(String name) throws ClassNotFoundException
+            {
+                return "org.datanucleus.store.schema.SchemaTool".equals(name) ? ConcurrentTool.class : super.loadClass(name);
+            }
+        };
+        List<AbstractSchemaToolMojo.SchemaRun> runs = mojo.prepareRuns(null);
+        List<String[]> results = mojo.executeRunsInJvm(runs, loader);
+
+        assertEquals(4, results.size());
+        for (String[] result : results)
+        {
+            assertEquals(result[0] + " : " + result[3], ForkedToolLauncher.RESULT_OK, result[1]);
+        }
+        assertEquals(4, ConcurrentTool.MAX_RUNNING.get());
+    }
+
+    @Test
+    public void testInJvmRunsGetToolProperties() throws Exception
+    {
+        Properties toolProps = new Properties();
+        toolProps.setProperty("datanucleus.ConnectionURL", "jdbc:h2:mem:tool");
+        toolProps.setProperty("datanucleus.test.overridden", "pom");
+
+        SchemaToolCreateMojo mojo = new SchemaToolCreateMojo();
+        mojo.workDirectory = folder.newFolder("work");
+        mojo.api = "JDO";
+        mojo.tenantSchemas = "tenant_1";
+        mojo.maxConcurrentTools = -1;
+        mojo.offlineConnectionURL = "jdbc:h2:mem:offline";
+        mojo.offlineConnectionDriverName = "org.h2.Driver";
+        setField(mojo, "toolProperties", toolProps);
+
+        System.setProperty("datanucleus.test.overridden", "system");
+        try
+        {
+            Properties sysProps = mojo.getInJvmSystemProperties(true);
+            assertEquals("jdbc:h2:mem:tool", sysProps.getProperty("datanucleus.ConnectionURL"));
+            assertEquals("system", sysProps.getProperty("datanucleus.test.overridden"));
+
+            // Properties of the mode override the tool properties, when included
+            mojo.offline = true;
+            assertEquals("jdbc:h2:mem:offline", mojo.getInJvmSystemProperties(true).getProperty("datanucleus.ConnectionURL"));
+            assertEquals("jdbc:h2:mem:tool", mojo.getInJvmSystemProperties(false).getProperty("datanucleus.ConnectionURL"));
+            mojo.offline = false;
+
+            ClassLoader loader = new ClassLoader(getClass().getClassLoader())
+            {
+                @Override
+                public Class<?> loadClass(String name) throws ClassNotFoundException
+                {
+                    return "org.datanucleus.store.schema.SchemaTool".equals(name) ? PropertyTool.class : super.loadClass(name);
+                }
+            };
+            List<String[]> results = mojo.executeRunsInJvm(mojo.prepareRuns(null), loader);
+            assertEquals(ForkedToolLauncher.RESULT_OK, results.get(0)[1]);
+            assertEquals("jdbc:h2:mem:tool", PropertyTool.connectionURL);
+            assertEquals(null, System.getProperty("datanucleus.ConnectionURL"));
+        }
+        finally
+        {
+            System.getProperties().remove("datanucleus.test.overridden");
+        }
+    }
+
+    /**
+     * Stand-in for SchemaTool, recording the connection URL system property it is run with.
+     */
+    public static class PropertyTool
+    {
+        static String connectionURL;
+
+        public static void main(String[] args)
+        {
+            connectionURL = System.getProperty("datanucleus.ConnectionURL");
+        }
+    }
+
+    /**
+     * Stand-in for SchemaTool, waiting until 4 invocations are running at the same time.
+     */
+    public static class ConcurrentTool
+    {
+        static final CountDownLatch STARTED = new CountDownLatch(4);
+
+        static final AtomicInteger RUNNING = new AtomicInteger();
+
+        static final AtomicInteger MAX_RUNNING = new AtomicInteger();
+
+        public static void main(String[] args) throws InterruptedException
+        {
+            int running = RUNNING.incrementAndGet();
+            MAX_RUNNING.accumulateAndGet(running, Math::max);
+            STARTED.countDown();
+            if (!STARTED.await(5, TimeUnit.SECONDS))
+            {
+                throw new IllegalStateException("Runs not run concurrently");
+            }
+            RUNNING.decrementAndGet();
+        }
+    }
+}
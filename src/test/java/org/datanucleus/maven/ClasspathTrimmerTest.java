@@ -0,0 +1,118 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for the trimming of a tool CLASSPATH, with jars built from classes compiled with the javac of the running JDK.
+ */
+public class ClasspathTrimmerTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File classesDir;
+
+    private File write(File dir, String path, String content) throws IOException
+    {
+        File file = new File(dir, path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * Create a jar of the compiled classes of a package, and any other entries.
+     * @param name Name of the jar
+     * @param pkg Package (path) of the classes
+     * @param resources Path and content of each other entry
+     * @return The jar
+     */
+    private String jar(String name, String pkg, String... resources) throws IOException
+    {
+        File jar = new File(folder.getRoot(), name);
+        try (ZipOutputStream zip = new ZipOutputStream(new FileOutputStream(jar)))
+        {
+            for (File classFile : new File(classesDir, pkg).listFiles())
+            {
+                zip.putNextEntry(new ZipEntry(pkg + "/" + classFile.getName()));
+                zip.write(Files.readAllBytes(classFile.toPath()));
+                zip.closeEntry();
+            }
+            for (int i = 0; i < resources.length; i += 2)
+            {
+                zip.putNextEntry(new ZipEntry(resources[i]));
+                zip.write(resources[i + 1].getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return jar.getAbsolutePath();
+    }
+
+    @Test
+    public void testFollowsDataNucleusJarsAndServices() throws IOException
+    {
+        File srcDir = folder.newFolder("src");
+        List<String> sources = new ArrayList<>();
+        sources.add(write(srcDir, "app/App.java", "package app;\npublic class App\n{\n    java.util.List<String> names;\n}\n").getPath());
+        sources.add(write(srcDir, "org/datanucleus/PoolFactory.java",
+            "package org.datanucleus;\npublic class PoolFactory\n{\n    Object create() { return new com.pool.Pool(); }\n" +
+            "    com.log.LogApi log;\n}\n").getPath());
+        sources.add(write(srcDir, "com/pool/Pool.java", "package com.pool;\npublic class Pool\n{\n}\n").getPath());
+        sources.add(write(srcDir, "com/log/LogApi.java", "package com.log;\npublic interface LogApi\n{\n}\n").getPath());
+        sources.add(write(srcDir, "com/logimpl/LogImpl.java",
+            "package com.logimpl;\npublic class LogImpl implements com.log.LogApi\n{\n    com.logdep.Helper helper;\n}\n").getPath());
+        sources.add(write(srcDir, "com/logdep/Helper.java", "package com.logdep;\npublic class Helper\n{\n}\n").getPath());
+        sources.add(write(srcDir, "com/other/Other.java", "package com.other;\npublic class Other\n{\n}\n").getPath());
+
+        classesDir = folder.newFolder("classes");
+        List<String> args = new ArrayList<>(Arrays.asList("-d", classesDir.getAbsolutePath()));
+        args.addAll(sources);
+        assertEquals(0, ToolProvider.getSystemJavaCompiler().run(null, null, null, args.toArray(new String[args.size()])));
+
+        File appDir = folder.newFolder("app-classes");
+        new File(classesDir, "app/App.class").renameTo(new File(appDir, "App.class"));
+        String otherJar = jar("other.jar", "com/other");
+        String dnJar = jar("datanucleus-pool.jar", "org/datanucleus", "plugin.xml", "<plugin/>");
+        String poolJar = jar("pool.jar", "com/pool");
+        String logApiJar = jar("log-api.jar", "com/log");
+        String logImplJar = jar("log-impl.jar", "com/logimpl", "META-INF/services/com.log.LogApi", "# Provider\ncom.logimpl.LogImpl\n");
+        String logDepJar = jar("log-dep.jar", "com/logdep");
+
+        List<String> entries = Arrays.asList(appDir.getAbsolutePath(), otherJar, dnJar, poolJar, logApiJar, logImplJar, logDepJar);
+        assertEquals(Arrays.asList(appDir.getAbsolutePath(), dnJar, poolJar, logApiJar, logImplJar, logDepJar), new ClasspathTrimmer(entries).trim());
+    }
+}
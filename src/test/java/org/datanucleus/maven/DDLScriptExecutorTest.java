@@ -0,0 +1,161 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the execution of DDL scripts, against an in-memory H2 database.
+ */
+public class DDLScriptExecutorTest
+{
+    /** Script with the tables in the reverse order of their foreign keys. */
+    private static final String SCRIPT =
+        "CREATE TABLE ORDER_LINE (ID INT PRIMARY KEY, ORDER_ID INT REFERENCES ORDERS (ID), PRODUCT_ID INT REFERENCES PRODUCT (ID));\n" +
+        "CREATE TABLE ORDERS (ID INT PRIMARY KEY, PERSON_ID INT REFERENCES PERSON (ID));\n" +
+        "CREATE INDEX ORDERS_IDX ON ORDERS (PERSON_ID);\n" +
+        "CREATE TABLE PERSON (ID INT PRIMARY KEY, NAME VARCHAR(100));\n" +
+        "CREATE TABLE PRODUCT (ID INT PRIMARY KEY, NAME VARCHAR(100));\n" +
+        "ALTER TABLE PERSON ADD CONSTRAINT PERSON_UNQ UNIQUE (NAME);\n" +
+        "CREATE SEQUENCE ORDERS_SEQ;\n" +
+        "CREATE TABLE AUDIT (ID INT PRIMARY KEY, ORDER_ID INT);\n" +
+        "ALTER TABLE AUDIT ADD CONSTRAINT AUDIT_FK1 FOREIGN KEY (ORDER_ID) REFERENCES ORDERS (ID);\n";
+
+    private JdbcConnectionFactory connectionFactory;
+
+    private Connection keepAlive;
+
+    @Before
+    public void setUp() throws SQLException
+    {
+        Properties props = new Properties();
+        props.setProperty("datanucleus.ConnectionURL", "jdbc:h2:mem:" + getClass().getSimpleName() + System.nanoTime());
+        connectionFactory = new JdbcConnectionFactory(props, getClass().getClassLoader());
+        keepAlive = connectionFactory.getConnection();
+    }
+
+    @After
+    public void tearDown() throws SQLException
+    {
+        keepAlive.close();
+    }
+
+    @Test
+    public void testExecuteInForeignKeyOrder() throws SQLException
+    {
+        DDLScriptExecutor executor = new DDLScriptExecutor(connectionFactory, 4, 10, new SystemStreamLog());
+        executor.execute(DDLScript.parse(SCRIPT));
+
+        assertEquals(9, executor.getStatementCount());
+        // First group : PERSON and PRODUCT, then ORDERS, then ORDER_LINE and the index, then the constraint.
+        // Then the sequence. Then the second group : AUDIT, then its constraint.
+        assertEquals(4 + 1 + 2, executor.getLevelCount());
+        assertTrue(executor.getConnectionCount() <= 4);
+
+        Set<String> tables = new HashSet<>();
+        try (ResultSet rs = keepAlive.getMetaData().getTables(null, "PUBLIC", "%", new String[] {"TABLE"}))
+        {
+            while (rs.next())
+            {
+                tables.add(rs.getString("TABLE_NAME"));
+            }
+        }
+        assertEquals(new HashSet<>(Arrays.asList("ORDER_LINE", "ORDERS", "PERSON", "PRODUCT", "AUDIT")), tables);
+
+        // Foreign keys are in place
+        try (Statement stmt = keepAlive.createStatement())
+        {
+            stmt.execute("INSERT INTO PERSON VALUES (1, 'Fred')");
+            stmt.execute("INSERT INTO ORDERS VALUES (1, 1)");
+            try
+            {
+                stmt.execute("INSERT INTO AUDIT VALUES (1, 2)");
+                fail("Foreign key of AUDIT not added");
+            }
+            catch (SQLException e)
+            {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void testExecuteWithoutBatches() throws SQLException
+    {
+        DDLScriptExecutor executor = new DDLScriptExecutor(connectionFactory, 1, 1, new SystemStreamLog());
+        executor.execute(DDLScript.parse(SCRIPT));
+        assertEquals(9, executor.getStatementCount());
+        assertEquals(1, executor.getConnectionCount());
+    }
+
+    @Test
+    public void testExecuteReportsFailedStatement() throws SQLException
+    {
+        List<DDLScript.Statement> statements = DDLScript.parse(
+            "CREATE TABLE PERSON (ID INT PRIMARY KEY);\n" +
+            "CREATE INDEX PERSON_IDX ON PERSON (ID);\n" +
+            "CREATE INDEX PERSON_IDX2 ON PERSON (NO_SUCH_COLUMN);\n");
+        DDLScriptExecutor executor = new DDLScriptExecutor(connectionFactory, 2, 10, new SystemStreamLog());
+        try
+        {
+            executor.execute(statements);
+            fail("Invalid statement did not fail");
+        }
+        catch (SQLException e)
+        {
+            assertTrue(e.getMessage(), e.getMessage().contains("PERSON_IDX2"));
+        }
+    }
+
+    @Test
+    public void testGetFailedIndex()
+    {
+        // Driver continuing after the failure
+        int[] counts = {0, 0, Statement.EXECUTE_FAILED, 0};
+        assertEquals(2, DDLScriptExecutor.getFailedIndex(new BatchUpdateException(counts), 4));
+
+        // Driver stopping at the failure
+        counts = new int[] {0, 0};
+        assertEquals(2, DDLScriptExecutor.getFailedIndex(new BatchUpdateException(counts), 4));
+
+        // Driver with no counts
+        assertEquals(0, DDLScriptExecutor.getFailedIndex(new BatchUpdateException(), 4));
+
+        // Counts for all statements, but none marked
+        counts = new int[] {0, 0, 0, 0};
+        assertEquals(3, DDLScriptExecutor.getFailedIndex(new BatchUpdateException(counts), 4));
+    }
+}
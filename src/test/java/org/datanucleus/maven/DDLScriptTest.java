@@ -0,0 +1,129 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for the parsing and classification of DDL scripts.
+ */
+public class DDLScriptTest
+{
+    @Test
+    public void testSplitOmitsCommentsAndRespectsQuotes()
+    {
+        List<String> statements = DDLScript.split(
+            "-- Comment; with terminator\n" +
+            "CREATE TABLE A (ID INT, NAME VARCHAR(10) DEFAULT 'a;b');\n" +
+            "/* Block; comment */\n" +
+            "CREATE TABLE \"B;C\" (ID INT);\n" +
+            "INSERT INTO A VALUES (1, 'it''s');\n" +
+            "   \n");
+        assertEquals(Arrays.asList(
+            "CREATE TABLE A (ID INT, NAME VARCHAR(10) DEFAULT 'a;b')",
+            "CREATE TABLE \"B;C\" (ID INT)",
+            "INSERT INTO A VALUES (1, 'it''s')"), statements);
+    }
+
+    @Test
+    public void testSplitWithoutFinalTerminator()
+    {
+        assertEquals(Arrays.asList("CREATE TABLE A (ID INT)", "DROP TABLE B"), DDLScript.split("CREATE TABLE A (ID INT);DROP TABLE B"));
+    }
+
+    @Test
+    public void testClassifyCreateTable()
+    {
+        DDLScript.Statement statement = DDLScript.classify(
+            "CREATE TABLE \"Orders\" (ID INT, PERSON_ID INT REFERENCES PERSON (ID), PARENT_ID INT REFERENCES \"Orders\" (ID))");
+        assertEquals(DDLScript.Kind.CREATE_TABLE, statement.kind);
+        assertEquals("ORDERS", statement.tableName);
+        assertEquals("\"Orders\"", statement.tableIdentifier);
+        // Self reference is not a dependency
+        assertEquals(Collections.singleton("PERSON"), statement.referencedTables);
+    }
+
+    @Test
+    public void testClassifyQualifiedNames()
+    {
+        DDLScript.Statement statement = DDLScript.classify("create cached table if not exists app.`Person` (ID INT)");
+        assertEquals(DDLScript.Kind.CREATE_TABLE, statement.kind);
+        assertEquals("APP.PERSON", statement.tableName);
+
+        statement = DDLScript.classify("CREATE UNIQUE INDEX PERSON_IDX ON [app] . [Person] (ID)");
+        assertEquals(DDLScript.Kind.CREATE_INDEX, statement.kind);
+        assertEquals("APP.PERSON", statement.tableName);
+        assertTrue(statement.referencedTables.isEmpty());
+    }
+
+    @Test
+    public void testClassifyAddConstraint()
+    {
+        DDLScript.Statement statement = DDLScript.classify(
+            "ALTER TABLE ORDERS ADD CONSTRAINT ORDERS_FK1 FOREIGN KEY (PERSON_ID) REFERENCES PERSON (ID)");
+        assertEquals(DDLScript.Kind.ADD_CONSTRAINT, statement.kind);
+        assertEquals("ORDERS", statement.tableName);
+        assertEquals(Collections.singleton("PERSON"), statement.referencedTables);
+
+        statement = DDLScript.classify("ALTER TABLE ORDERS ADD PRIMARY KEY (ID)");
+        assertEquals(DDLScript.Kind.ADD_CONSTRAINT, statement.kind);
+        assertTrue(statement.referencedTables.isEmpty());
+    }
+
+    @Test
+    public void testClassifyOther()
+    {
+        DDLScript.Statement statement = DDLScript.classify("ALTER TABLE ORDERS DROP COLUMN NAME");
+        assertEquals(DDLScript.Kind.OTHER, statement.kind);
+        assertEquals("ORDERS", statement.tableName);
+
+        statement = DDLScript.classify("CREATE SEQUENCE ORDERS_SEQ");
+        assertEquals(DDLScript.Kind.OTHER, statement.kind);
+        assertNull(statement.tableName);
+    }
+
+    @Test
+    public void testGetTablesAndReferences()
+    {
+        List<DDLScript.Statement> statements = DDLScript.parse(
+            "CREATE TABLE ORDERS (ID INT, PERSON_ID INT);\n" +
+            "CREATE TABLE \"Person\" (ID INT, ADDRESS_ID INT REFERENCES ADDRESS (ID));\n" +
+            "CREATE TABLE ADDRESS (ID INT);\n" +
+            "CREATE INDEX ORDERS_IDX ON ORDERS (PERSON_ID);\n" +
+            "ALTER TABLE ORDERS ADD CONSTRAINT ORDERS_FK1 FOREIGN KEY (PERSON_ID) REFERENCES \"Person\" (ID);\n");
+
+        Map<String, String> tables = DDLScript.getTables(statements);
+        assertEquals(Arrays.asList("ORDERS", "PERSON", "ADDRESS"), Arrays.asList(tables.keySet().toArray()));
+        assertEquals("\"Person\"", tables.get("PERSON"));
+
+        Map<String, Set<String>> references = DDLScript.getTableReferences(statements);
+        assertEquals(Collections.singleton("PERSON"), references.get("ORDERS"));
+        assertEquals(Collections.singleton("ADDRESS"), references.get("PERSON"));
+        assertTrue(references.get("ADDRESS").isEmpty());
+    }
+}
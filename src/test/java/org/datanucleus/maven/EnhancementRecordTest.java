@@ -0,0 +1,68 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for the record of the input files processed by the enhancer.
+ */
+public class EnhancementRecordTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(String name, String content) throws IOException
+    {
+        File file = new File(folder.getRoot(), name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void testWriteFromFileList() throws IOException
+    {
+        File a = write("A.class", "a");
+        File b = write("B.class", "bb");
+        File c = write("C.class", "c");
+        File fileList = write("files.flf", a.getAbsolutePath() + "\n" + b.getAbsolutePath() + "\n\n");
+
+        File recordFile = new File(folder.getRoot(), "work/enhance-main.rec");
+        EnhancementRecord.write(recordFile, fileList);
+
+        EnhancementRecord record = EnhancementRecord.read(recordFile);
+        assertEquals(2, record.size());
+        assertTrue(record.isUnchanged(a));
+        assertTrue(record.isUnchanged(b));
+        assertFalse(record.isUnchanged(c));
+
+        Files.write(b.toPath(), "changed".getBytes(StandardCharsets.UTF_8));
+        assertFalse(EnhancementRecord.read(recordFile).isUnchanged(b));
+    }
+}
@@ -0,0 +1,148 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for the enhance goal run in a forked enhancer, taking the input files from the file list.
+ */
+public class EnhancerEnhanceMojoTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String getLocation(String className) throws ClassNotFoundException, URISyntaxException
+    {
+        Class cls = Class.forName(className);
+        return new File(cls.getProtectionDomain().getCodeSource().getLocation().toURI()).getAbsolutePath();
+    }
+
+    private String compile(File classesDir, String... sources) throws Exception
+    {
+        String jdoJar = getLocation("javax.jdo.annotations.PersistenceCapable");
+        List<String> args = new ArrayList<>(Arrays.asList("-d", classesDir.getAbsolutePath(), "-classpath", jdoJar + File.pathSeparator + classesDir));
+        for (int i = 0; i < sources.length; i += 2)
+        {
+            File source = new File(folder.getRoot(), "src/" + sources[i]);
+            source.getParentFile().mkdirs();
+            Files.write(source.toPath(), sources[i + 1].getBytes(StandardCharsets.UTF_8));
+            args.add(source.getAbsolutePath());
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, null, null, args.toArray(new String[args.size()])));
+        return jdoJar;
+    }
+
+    private EnhancerEnhanceMojo createMojo(File classesDir, String jdoJar) throws Exception
+    {
+        EnhancerEnhanceMojo mojo = new EnhancerEnhanceMojo();
+        mojo.metadataDirectory = classesDir;
+        mojo.metadataIncludes = "**/*.class";
+        mojo.workDirectory = new File(folder.getRoot(), "work");
+        mojo.pluginArtifacts = new ArrayList();
+        mojo.api = "JDO";
+        mojo.fork = true;
+        mojo.useFileListFile = "auto";
+        mojo.generatePK = true;
+        mojo.generateConstructor = true;
+        mojo.quiet = true;
+        mojo.mainOutputDirectory = classesDir;
+        List classpath = Arrays.asList(getLocation("org.datanucleus.enhancer.DataNucleusEnhancer"),
+            getLocation("org.datanucleus.api.jdo.JDOAdapter"), jdoJar);
+        Field field = EnhancerEnhanceMojo.class.getDeclaredField("classpathElements");
+        field.setAccessible(true);
+        field.set(mojo, classpath);
+        return mojo;
+    }
+
+    @Test
+    public void testRecordWrittenFromFileList() throws Exception
+    {
+        File classesDir = folder.newFolder("classes");
+        String jdoJar = compile(classesDir, "Person.java", "@javax.jdo.annotations.PersistenceCapable\npublic class Person\n{\n    String name;\n}\n");
+        File classFile = new File(classesDir, "Person.class");
+
+        EnhancerEnhanceMojo mojo = createMojo(classesDir, jdoJar);
+        mojo.execute();
+
+        assertTrue(ClassFileInfo.read(classFile).isPersistable());
+        File recordFile = new File(mojo.workDirectory, AbstractEnhancerMojo.MAIN_ENHANCEMENT_RECORD);
+        assertTrue(recordFile.exists());
+        EnhancementRecord record = EnhancementRecord.read(recordFile);
+        assertEquals(1, record.size());
+        assertTrue(record.isUnchanged(classFile));
+        assertFalse(new File(mojo.workDirectory, "enhancer-files.flf").exists());
+    }
+
+    @Test
+    public void testApiProcessesSubclassesOfChangedClass() throws Exception
+    {
+        File classesDir = folder.newFolder("classes");
+        String jdoJar = compile(classesDir, "Base.java", "@javax.jdo.annotations.PersistenceCapable\npublic class Base\n{\n    String name;\n}\n",
+            "Sub.java", "@javax.jdo.annotations.PersistenceCapable\npublic class Sub extends Base\n{\n    int value;\n}\n",
+            "Other.java", "@javax.jdo.annotations.PersistenceCapable\npublic class Other\n{\n    int value;\n}\n");
+        EnhancerEnhanceMojo mojo = createMojo(classesDir, jdoJar);
+        mojo.fork = false;
+        mojo.useEnhancerApi = true;
+        mojo.execute();
+        assertEquals(Arrays.asList("Base,enhanced", "Other,enhanced", "Sub,enhanced"), readResults(mojo));
+
+        // Recompile only the superclass, with another field
+        File baseFile = new File(classesDir, "Base.class");
+        long lastModified = baseFile.lastModified();
+        compile(classesDir, "Base.java", "@javax.jdo.annotations.PersistenceCapable\npublic class Base\n{\n    String name;\n    String code;\n}\n");
+        baseFile.setLastModified(lastModified + 2000);
+        mojo.execute();
+        assertEquals(Arrays.asList("Base,enhanced", "Other,unchanged", "Sub,already-enhanced"), readResults(mojo));
+    }
+
+    private static List<String> readResults(EnhancerEnhanceMojo mojo) throws IOException
+    {
+        List<String> lines = Files.readAllLines(new File(mojo.workDirectory, "enhancer-enhance-main.csv").toPath(), StandardCharsets.UTF_8);
+        assertEquals("class,result,averageTimeMs,file", lines.get(0));
+        List<String> results = new ArrayList<>();
+        for (String line : lines.subList(1, lines.size()))
+        {
+            String[] columns = line.split(",");
+            results.add(columns[0].replace(".class", "") + "," + columns[1]);
+        }
+        Collections.sort(results);
+        return results;
+    }
+}
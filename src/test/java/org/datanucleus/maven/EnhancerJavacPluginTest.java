@@ -0,0 +1,143 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for the javac plugin enhancing the compiled classes, compiling with the javac of the running JDK.
+ */
+public class EnhancerJavacPluginTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String getLocation(String className) throws ClassNotFoundException, URISyntaxException
+    {
+        Class cls = Class.forName(className);
+        return new File(cls.getProtectionDomain().getCodeSource().getLocation().toURI()).getAbsolutePath();
+    }
+
+    private File write(String path, String content) throws IOException
+    {
+        File file = new File(folder.getRoot(), path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /**
+     * Compile a persistable class and a plain class with the plugin.
+     * @return The notes reported by the compiler
+     */
+    private List<String> compile(File outputDir, boolean quiet) throws Exception
+    {
+        File person = write("src/test/Person.java",
+            "package test;\n\n@javax.jdo.annotations.PersistenceCapable\npublic class Person\n{\n    String name;\n}\n");
+        File plain = write("src/test/Plain.java", "package test;\n\npublic class Plain\n{\n}\n");
+
+        Properties config = new Properties();
+        config.setProperty("outputDirectory", outputDir.getAbsolutePath());
+        config.setProperty("api", "JDO");
+        config.setProperty("quiet", String.valueOf(quiet));
+        File configFile = new File(folder.getRoot(), "enhancer-javac.properties");
+        try (OutputStream os = new FileOutputStream(configFile))
+        {
+            config.store(os, null);
+        }
+
+        String jdoJar = getLocation("javax.jdo.annotations.PersistenceCapable");
+        String processorPath = String.join(File.pathSeparator, getLocation(EnhancerJavacPlugin.class.getName()),
+            getLocation("org.datanucleus.enhancer.DataNucleusEnhancer"), getLocation("org.datanucleus.api.jdo.JDOAdapter"), jdoJar);
+        List<String> options = Arrays.asList("-d", outputDir.getAbsolutePath(), "-classpath", jdoJar, "-processorpath", processorPath,
+            "-Xplugin:" + EnhancerJavacPlugin.PLUGIN_NAME + " config=" + configFile.toURI());
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+        PrintStream oldOut = System.out;
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8))
+        {
+            System.setOut(new PrintStream(stdout, true, "UTF-8"));
+            boolean success = compiler.getTask(null, fileManager, diagnostics, options, null,
+                fileManager.getJavaFileObjects(person, plain)).call();
+            assertTrue(diagnostics.getDiagnostics().toString(), success);
+        }
+        finally
+        {
+            System.setOut(oldOut);
+        }
+        assertFalse(stdout.toString("UTF-8"), stdout.toString("UTF-8").contains("DataNucleus"));
+
+        List<String> notes = new ArrayList<>();
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics())
+        {
+            if (diagnostic.getKind() == Diagnostic.Kind.NOTE)
+            {
+                notes.add(diagnostic.getMessage(null));
+            }
+        }
+        return notes;
+    }
+
+    @Test
+    public void testEnhanceReportedAsNote() throws Exception
+    {
+        File outputDir = folder.newFolder("classes");
+        List<String> notes = compile(outputDir, false);
+
+        assertEquals(Arrays.asList("DataNucleus Enhancer (javac plugin) : enhanced 1 of 2 compiled classes"), notes);
+        assertTrue(ClassFileInfo.read(new File(outputDir, "test/Person.class")).isPersistable());
+        assertFalse(ClassFileInfo.read(new File(outputDir, "test/Plain.class")).isPersistable());
+    }
+
+    @Test
+    public void testQuiet() throws Exception
+    {
+        File outputDir = folder.newFolder("classes");
+        assertEquals(new ArrayList<String>(), compile(outputDir, true));
+        assertTrue(ClassFileInfo.read(new File(outputDir, "test/Person.class")).isPersistable());
+    }
+}
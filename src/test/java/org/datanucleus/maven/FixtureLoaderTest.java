@@ -0,0 +1,183 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for the loading of fixture files into tables linked by foreign keys, against an in-memory H2 database.
+ */
+public class FixtureLoaderTest
+{
+    private static final String SCRIPT =
+        "CREATE TABLE ORDERS (ID INT PRIMARY KEY, PERSON_ID INT NOT NULL, AMOUNT DECIMAL(10,2), PLACED DATE);\n" +
+        "CREATE TABLE PERSON (ID INT PRIMARY KEY, NAME VARCHAR(100), ACTIVE BOOLEAN);\n" +
+        "ALTER TABLE ORDERS ADD CONSTRAINT ORDERS_FK1 FOREIGN KEY (PERSON_ID) REFERENCES PERSON (ID);\n";
+
+    private static final String PERSON_CSV = "ID,NAME,ACTIVE\n1,Fred,true\n2,\"Smith, Jane\",false\n3,,true\n4,\"\",false\n";
+
+    private static final String ORDERS_CSV = "ID,PERSON_ID,AMOUNT,PLACED\n10,1,12.50,2026-01-31\n11,2,7.00,2026-02-01\n12,1,,\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private JdbcConnectionFactory connectionFactory;
+
+    private Connection keepAlive;
+
+    private List<DDLScript.Statement> statements;
+
+    @Before
+    public void setUp() throws SQLException
+    {
+        Properties props = new Properties();
+        props.setProperty("datanucleus.ConnectionURL", "jdbc:h2:mem:" + getClass().getSimpleName() + System.nanoTime());
+        connectionFactory = new JdbcConnectionFactory(props, getClass().getClassLoader());
+        keepAlive = connectionFactory.getConnection();
+
+        statements = DDLScript.parse(SCRIPT);
+        new DDLScriptExecutor(connectionFactory, 1, 1, new SystemStreamLog()).execute(statements);
+    }
+
+    @After
+    public void tearDown() throws SQLException
+    {
+        keepAlive.close();
+    }
+
+    private Map<String, File> writeFixtures(String personName, String personContent, String ordersName, String ordersContent)
+    throws IOException
+    {
+        Map<String, File> fixtures = new LinkedHashMap<>();
+        // Referencing table first, so the loader has to order them
+        fixtures.put("ORDERS", write(ordersName, ordersContent));
+        fixtures.put("PERSON", write(personName, personContent));
+        return fixtures;
+    }
+
+    private File write(String name, String content) throws IOException
+    {
+        File file = new File(folder.getRoot(), name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private long load(Map<String, File> fixtures, boolean bulkLoad) throws SQLException
+    {
+        FixtureLoader loader = new FixtureLoader(connectionFactory, 2, 2, bulkLoad, new SystemStreamLog());
+        loader.load(fixtures, DDLScript.getTables(statements), DDLScript.getTableReferences(statements));
+        return loader.getRowCount();
+    }
+
+    private List<String> query(String sql) throws SQLException
+    {
+        List<String> rows = new ArrayList<>();
+        try (Statement stmt = keepAlive.createStatement(); ResultSet rs = stmt.executeQuery(sql))
+        {
+            int columnCount = rs.getMetaData().getColumnCount();
+            while (rs.next())
+            {
+                StringBuilder row = new StringBuilder();
+                for (int i = 1; i <= columnCount; i++)
+                {
+                    row.append(i > 1 ? "|" : "").append(rs.getString(i));
+                }
+                rows.add(row.toString());
+            }
+        }
+        return rows;
+    }
+
+    private void reset() throws SQLException
+    {
+        SchemaReset.forURL(connectionFactory.getURL(), SchemaReset.getTablesInResetOrder(statements)).execute(connectionFactory, 10);
+    }
+
+    @Test
+    public void testLoadCsvByCsvReadAndInserts() throws IOException, SQLException
+    {
+        Map<String, File> fixtures = writeFixtures("PERSON.csv", PERSON_CSV, "ORDERS.csv", ORDERS_CSV);
+
+        assertEquals(7, load(fixtures, true));
+        List<String> persons = query("SELECT * FROM PERSON ORDER BY ID");
+        List<String> orders = query("SELECT * FROM ORDERS ORDER BY ID");
+        // Unquoted empty value is NULL, quoted empty value is an empty string
+        assertEquals(Arrays.asList("1|Fred|TRUE", "2|Smith, Jane|FALSE", "3|null|TRUE", "4||FALSE"), persons);
+        assertEquals(Arrays.asList("10|1|12.50|2026-01-31", "11|2|7.00|2026-02-01", "12|1|null|null"), orders);
+
+        reset();
+        assertEquals(0, query("SELECT * FROM PERSON").size());
+
+        assertEquals(7, load(fixtures, false));
+        assertEquals(persons, query("SELECT * FROM PERSON ORDER BY ID"));
+        assertEquals(orders, query("SELECT * FROM ORDERS ORDER BY ID"));
+    }
+
+    @Test
+    public void testLoadJson() throws IOException, SQLException
+    {
+        Map<String, File> fixtures = writeFixtures("PERSON.json",
+            "[{\"ID\": 1, \"NAME\": \"Fred\", \"ACTIVE\": true}, {\"ID\": 2, \"NAME\": \"Smith, Jane\", \"ACTIVE\": false}]",
+            "ORDERS.json", "{\"ID\": 10, \"PERSON_ID\": 1, \"AMOUNT\": 12.5, \"PLACED\": \"2026-01-31\"}\n{\"ID\": 11, \"PERSON_ID\": 2}\n");
+
+        assertEquals(4, load(fixtures, true));
+        assertEquals(Arrays.asList("1|Fred|TRUE", "2|Smith, Jane|FALSE"), query("SELECT * FROM PERSON ORDER BY ID"));
+        assertEquals(Arrays.asList("10|1|12.50|2026-01-31", "11|2|null|null"), query("SELECT * FROM ORDERS ORDER BY ID"));
+    }
+
+    @Test
+    public void testLoadFailureRollsBackTable() throws IOException, SQLException
+    {
+        Map<String, File> fixtures = writeFixtures("PERSON.csv", PERSON_CSV, "ORDERS.csv", ORDERS_CSV + "13,99,1.00,2026-03-01\n");
+        try
+        {
+            load(fixtures, false);
+            fail("Row referencing a missing PERSON was loaded");
+        }
+        catch (SQLException e)
+        {
+            assertTrue(e.getMessage(), e.getMessage().contains("ORDERS.csv"));
+        }
+        assertEquals(4, query("SELECT * FROM PERSON").size());
+        assertEquals(0, query("SELECT * FROM ORDERS").size());
+    }
+}
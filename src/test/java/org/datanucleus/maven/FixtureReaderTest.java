@@ -0,0 +1,175 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for the reading of CSV and JSON fixture files.
+ */
+public class FixtureReaderTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(String name, String content) throws IOException
+    {
+        File file = new File(folder.getRoot(), name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void testCsvEmptyValues() throws IOException
+    {
+        try (FixtureReader reader = FixtureReader.open(write("T.csv", "ID,NAME,NOTE\n1,,\"\"\n2,\"a,\"\"b\"\"\",c\n")))
+        {
+            assertEquals(Arrays.asList("ID", "NAME", "NOTE"), reader.getColumns());
+            // Unquoted empty is NULL, quoted empty is an empty string
+            assertArrayEquals(new Object[] {"1", null, ""}, reader.next());
+            assertArrayEquals(new Object[] {"2", "a,\"b\"", "c"}, reader.next());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void testCsvLineEndingsAndBom() throws IOException
+    {
+        try (FixtureReader reader = FixtureReader.open(write("T.csv", "\uFEFFID, NAME\r\n1,\"two\r\nlines\"\r\n\r\n2,x")))
+        {
+            assertEquals(Arrays.asList("ID", "NAME"), reader.getColumns());
+            assertArrayEquals(new Object[] {"1", "two\r\nlines"}, reader.next());
+            // Blank line skipped, and last record without line ending
+            assertArrayEquals(new Object[] {"2", "x"}, reader.next());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void testCsvInvalid() throws IOException
+    {
+        try (FixtureReader reader = FixtureReader.open(write("T.csv", "ID,NAME\n1,a,b\n")))
+        {
+            reader.next();
+            fail("Row with too many values was read");
+        }
+        catch (IOException e)
+        {
+            assertTrue(e.getMessage(), e.getMessage().contains("line 2"));
+        }
+
+        try
+        {
+            FixtureReader.open(write("U.csv", ""));
+            fail("File with no header was read");
+        }
+        catch (IOException e)
+        {
+            assertTrue(e.getMessage(), e.getMessage().contains("no header"));
+        }
+    }
+
+    @Test
+    public void testJsonArray() throws IOException
+    {
+        String json = "\uFEFF[{\"ID\": 1, \"NAME\": \"caf\\u00e9 \\\"x\\\"\", \"ACTIVE\": true},\n" +
+            " {\"NAME\": null, \"ID\": -2.5e1, \"ACTIVE\": false},\n" +
+            " {\"ID\": 3}]";
+        try (FixtureReader reader = FixtureReader.open(write("T.json", json)))
+        {
+            assertEquals(Arrays.asList("ID", "NAME", "ACTIVE"), reader.getColumns());
+            assertArrayEquals(new Object[] {new BigDecimal("1"), "caf\u00e9 \"x\"", Boolean.TRUE}, reader.next());
+            // Members in any order
+            assertArrayEquals(new Object[] {new BigDecimal("-2.5e1"), null, Boolean.FALSE}, reader.next());
+            // Missing members are NULL
+            assertArrayEquals(new Object[] {new BigDecimal("3"), null, null}, reader.next());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void testJsonSequence() throws IOException
+    {
+        try (FixtureReader reader = FixtureReader.open(write("T.json", "{\"ID\": 1}\n{\"ID\": 2}\n")))
+        {
+            assertArrayEquals(new Object[] {new BigDecimal("1")}, reader.next());
+            assertArrayEquals(new Object[] {new BigDecimal("2")}, reader.next());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void testJsonEmpty() throws IOException
+    {
+        try (FixtureReader reader = FixtureReader.open(write("T.json", "[ ]")))
+        {
+            assertEquals(Collections.emptyList(), reader.getColumns());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    public void testJsonInvalid() throws IOException
+    {
+        try
+        {
+            FixtureReader.open(write("T.json", "[{}, {\"ID\": 1}]"));
+            fail("First row with no columns was read");
+        }
+        catch (IOException e)
+        {
+            assertTrue(e.getMessage(), e.getMessage().contains("no columns"));
+        }
+
+        try (FixtureReader reader = FixtureReader.open(write("U.json", "[{\"ID\": 1}, {\"OTHER\": 2}]")))
+        {
+            reader.next();
+            reader.next();
+            fail("Row with unknown column was read");
+        }
+        catch (IOException e)
+        {
+            assertTrue(e.getMessage(), e.getMessage().contains("OTHER"));
+        }
+
+        try (FixtureReader reader = FixtureReader.open(write("V.json", "[{\"ID\": \"\\uZZZZ\"}]")))
+        {
+            fail("Invalid escape was read");
+        }
+        catch (IOException e)
+        {
+            assertTrue(e.getMessage(), e.getMessage().contains("invalid escape"));
+        }
+    }
+}
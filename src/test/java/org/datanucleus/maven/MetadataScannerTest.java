@@ -0,0 +1,92 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for the scanning of a metadata directory, which must match <code>FileUtils.getFiles</code> with the default
+ * excludes.
+ */
+public class MetadataScannerTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private void createFiles(String... paths) throws IOException
+    {
+        for (String path : paths)
+        {
+            File file = new File(folder.getRoot(), path);
+            file.getParentFile().mkdirs();
+            assertTrue(file.createNewFile());
+        }
+    }
+
+    private static List<String> paths(List files)
+    {
+        List<String> paths = new ArrayList<>();
+        for (Object file : files)
+        {
+            paths.add(((File) file).getAbsolutePath());
+        }
+        Collections.sort(paths);
+        return paths;
+    }
+
+    private void assertSameAsFileUtils(String includes, String excludes) throws IOException
+    {
+        List<File> scanned = new MetadataScanner(folder.getRoot(), includes, excludes).scan(null);
+        assertEquals(includes + " / " + excludes, paths(FileUtils.getFiles(folder.getRoot(), includes, MetadataScanner.withDefaultExcludes(excludes))), paths(scanned));
+    }
+
+    @Test
+    public void testDefaultExcludes() throws IOException
+    {
+        createFiles("a/A.class", "a/package.jdo", "a/b/B.class", "a/b/package-mysql.orm", "META-INF/persistence.xml",
+            ".svn/entries", "a/.git/objects/X.class", "a/CVS/Entries", "a/A.class~", "a/.#package.jdo", "a/b/.DS_Store");
+
+        assertSameAsFileUtils("**/*.class,**/*.jdo,**/*.orm", null);
+        assertSameAsFileUtils(null, null);
+        assertSameAsFileUtils("**/*", "**/b/**");
+        assertEquals(5, new MetadataScanner(folder.getRoot(), null, null).scan(null).size());
+    }
+
+    @Test
+    public void testIndexedScan() throws IOException
+    {
+        createFiles("a/A.class", "a/b/B.class", "a/.svn/entries");
+        File indexFile = new File(folder.getRoot(), "work/scan.idx");
+
+        MetadataScanner scanner = new MetadataScanner(new File(folder.getRoot(), "a"), "**/*", null);
+        assertEquals(2, scanner.scan(indexFile).size());
+        assertEquals(paths(scanner.scan(indexFile)), paths(FileUtils.getFiles(new File(folder.getRoot(), "a"), "**/*", MetadataScanner.withDefaultExcludes(null))));
+    }
+}
@@ -0,0 +1,122 @@
+/**********************************************************************
+Copyright (c) 2026 Andy Jefferson and others. All rights reserved.
+Licensed under the Apache License, Version 2.0 (the "License");
+you may not use this file except in compliance with the License.
+You may obtain a copy of the License at
+
+    http://www.apache.org/licenses/LICENSE-2.0
+
+Unless required by applicable law or agreed to in writing, software
+distributed under the License is distributed on an "AS IS" BASIS,
+WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+See the License for the specific language governing permissions and
+limitations under the License.
+
+Contributors:
+    ...
+**********************************************************************/
+package org.datanucleus.maven;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for the merging of JDO XML metadata files into a snapshot.
+ */
+public class MetadataSnapshotWriterTest
+{
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(String path, String content) throws IOException
+    {
+        File file = new File(folder.getRoot(), path);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String read(File file) throws IOException
+    {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    private MetadataSnapshotWriter createWriter() throws IOException, ParserConfigurationException
+    {
+        MetadataSnapshotWriter writer = new MetadataSnapshotWriter();
+        assertTrue(writer.add(write("in/a/package.jdo", "<jdo>\n  <package name=\"a\"><class name=\"A\"/></package>\n</jdo>")));
+        assertTrue(writer.add(write("in/b/package.jdo", "<jdo>\n  <!-- Comment -->\n  <package name=\"b\"><class name=\"B\"/></package>\n</jdo>")));
+        assertTrue(writer.add(write("in/a/package-mysql.orm", "<orm><package name=\"a\"><class name=\"A\" table=\"A_MYSQL\"/></package></orm>")));
+        assertTrue(writer.add(write("in/a/package-h2.orm", "<orm><package name=\"a\"><class name=\"A\" table=\"A_H2\"/></package></orm>")));
+        assertTrue(writer.add(write("in/b/package-mysql.orm", "<orm><package name=\"b\"><class name=\"B\" table=\"B_MYSQL\"/></package></orm>")));
+        assertFalse(writer.add(write("in/persistence.xml", "<persistence/>")));
+        return writer;
+    }
+
+    @Test
+    public void testMappingSuffix()
+    {
+        assertEquals("mysql", MetadataSnapshotWriter.getMappingSuffix(new File("package-mysql.orm")));
+        assertEquals("mysql", MetadataSnapshotWriter.getMappingSuffix(new File("Person-mysql.orm")));
+        assertNull(MetadataSnapshotWriter.getMappingSuffix(new File("package.orm")));
+        assertNull(MetadataSnapshotWriter.getMappingSuffix(new File("package-.orm")));
+    }
+
+    @Test
+    public void testWriteSnapshotPerMappingSuffix() throws IOException, ParserConfigurationException
+    {
+        MetadataSnapshotWriter writer = createWriter();
+        assertEquals(5, writer.getMergedFiles().size());
+
+        File outputDir = new File(folder.getRoot(), "out");
+        List<String> resources = writer.write(outputDir, "META-INF/snapshot");
+        assertEquals(Arrays.asList("META-INF/snapshot.jdo", "META-INF/snapshot-mysql.orm", "META-INF/snapshot-h2.orm"), resources);
+
+        String jdo = read(new File(outputDir, "META-INF/snapshot.jdo"));
+        assertTrue(jdo, jdo.contains("<package name=\"a\"><class name=\"A\"/></package><package name=\"b\"><class name=\"B\"/></package>"));
+        assertFalse(jdo, jdo.contains("Comment"));
+
+        String mysql = read(new File(outputDir, "META-INF/snapshot-mysql.orm"));
+        assertTrue(mysql, mysql.contains("A_MYSQL") && mysql.contains("B_MYSQL") && !mysql.contains("A_H2"));
+        String h2 = read(new File(outputDir, "META-INF/snapshot-h2.orm"));
+        assertTrue(h2, h2.contains("A_H2") && !h2.contains("MYSQL"));
+    }
+
+    @Test
+    public void testUnchangedSnapshotNotRewritten() throws IOException, ParserConfigurationException
+    {
+        File outputDir = new File(folder.getRoot(), "out");
+        createWriter().write(outputDir, "snapshot");
+        File jdoFile = new File(outputDir, "snapshot.jdo");
+        File ormFile = new File(outputDir, "snapshot-h2.orm");
+        assertTrue(jdoFile.setLastModified(1000000000000L));
+        assertTrue(ormFile.setLastModified(1000000000000L));
+
+        // Same metadata, so the snapshot keeps its modification time
+        createWriter().write(outputDir, "snapshot");
+        assertEquals(1000000000000L, jdoFile.lastModified());
+
+        // Changed metadata is written
+        MetadataSnapshotWriter writer = createWriter();
+        writer.add(write("in/c/package.jdo", "<jdo><package name=\"c\"/></jdo>"));
+        writer.write(outputDir, "snapshot");
+        assertTrue(jdoFile.lastModified() != 1000000000000L);
+        assertTrue(read(jdoFile).contains("<package name=\"c\"/>"));
+        assertEquals(1000000000000L, ormFile.lastModified());
+    }
+}